@@ -0,0 +1,103 @@
+import bancos.Cargas;
+
+/**
+ * Implementación de bancos.Cargas en el paquete por defecto, junto a las
+ * clases de src/ (ver Cargas: JMH no admite bancos en este paquete).
+ */
+public final class CargasRender implements Cargas {
+
+    private static final double R2 = 4.0; // radio de escape 2, el de los visores
+    private static final int PROFUNDIDAD_INVERSA = 4096; // niveles, como IteracionInversa
+
+    private final RenderizadorParalelo renderizador = new RenderizadorParalelo(RenderizadorParalelo.hilosPorDefecto());
+    private int[] raster; // imagen de la iteración inversa, reutilizada entre llamadas
+
+    @Override
+    public double mandelbrot(double[] r, int ancho, int alto, int maxIter, boolean interior) {
+        final double x0 = r[0], spanX = r[1] - r[0], y0 = r[3], spanY = r[3] - r[2];
+        double suma = 0;
+        for (int py = 0; py < alto; py++) {
+            double cy = y0 - spanY * (py + 0.5) / alto;
+            for (int px = 0; px < ancho; px++) {
+                double v = NucleoFractal.CUADRATICO.parametro(x0 + spanX * (px + 0.5) / ancho, cy, maxIter, R2, interior);
+                if (v == v) suma += v;
+            }
+        }
+        return suma;
+    }
+
+    @Override
+    public double julia(double[] r, int ancho, int alto, double cRe, double cIm, int maxIter, boolean interior) {
+        final double x0 = r[0], spanX = r[1] - r[0], y0 = r[3], spanY = r[3] - r[2];
+        double suma = 0;
+        for (int py = 0; py < alto; py++) {
+            double zy = y0 - spanY * (py + 0.5) / alto;
+            for (int px = 0; px < ancho; px++) {
+                float v = EscapeFunciones.iteracionesEn(x0 + spanX * (px + 0.5) / ancho, zy, cRe, cIm, maxIter, R2, interior);
+                if (v == v) suma += v;
+            }
+        }
+        return suma;
+    }
+
+    @Override
+    public long iteracionesMandelbrot(double[] r, int ancho, int alto, int maxIter) {
+        return iteraciones(r, ancho, alto, maxIter, true, 0, 0);
+    }
+
+    @Override
+    public long iteracionesJulia(double[] r, int ancho, int alto, double cRe, double cIm, int maxIter) {
+        return iteraciones(r, ancho, alto, maxIter, false, cRe, cIm);
+    }
+
+    /** dinamico sin ciclos hace n + 1 pasos si escapa en n y maxIter si no. */
+    private static long iteraciones(double[] r, int ancho, int alto, int maxIter, boolean parametro,
+                                    double cRe, double cIm) {
+        final double x0 = r[0], spanX = r[1] - r[0], y0 = r[3], spanY = r[3] - r[2];
+        long total = 0;
+        for (int py = 0; py < alto; py++) {
+            double y = y0 - spanY * (py + 0.5) / alto;
+            for (int px = 0; px < ancho; px++) {
+                double x = x0 + spanX * (px + 0.5) / ancho;
+                float n = parametro
+                        ? NucleoFractal.CUADRATICO.dinamico(0.0, 0.0, x, y, maxIter, R2, false)
+                        : NucleoFractal.CUADRATICO.dinamico(x, y, cRe, cIm, maxIter, R2, false);
+                total += (n == n) ? (long) n + 1 : maxIter;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public Object visor(int ancho, int alto) {
+        AlgoritmoEscape visor = new AlgoritmoEscape(ancho, alto);
+        visor.renderizarAhora(ancho, alto); // fija el tamaño y el aspecto
+        return visor;
+    }
+
+    @Override
+    public double[] region(Object visor) {
+        return ((AlgoritmoEscape) visor).region();
+    }
+
+    @Override
+    public double fotograma(Object visor, int ancho, int alto) {
+        float[] valores = ((AlgoritmoEscape) visor).renderizarAhora(ancho, alto);
+        double suma = 0;
+        for (int i = 0; i < valores.length; i += 97) if (valores[i] == valores[i]) suma += valores[i];
+        return suma;
+    }
+
+    @Override
+    public long inversa(double cRe, double cIm, double derivadaMaxima, int lado) {
+        if (raster == null || raster.length != lado * lado) raster = new int[lado * lado];
+        final int[] raster = this.raster;
+        final double xmin = -4.0, ymax = 4.0, escala = (lado - 1) / 8.0;
+        MotorIteracionInversa motor = new MotorIteracionInversa(renderizador, PROFUNDIDAD_INVERSA, derivadaMaxima,
+                Long.MAX_VALUE);
+        return motor.recorrer(cRe, cIm, (x, y) -> {
+            int px = (int) Math.round((x - xmin) * escala), py = (int) Math.round((ymax - y) * escala);
+            if (px >= 0 && px < lado && py >= 0 && py < lado) raster[py * lado + px] = 0xFF000000;
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package bancos;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fotograma completo de AlgoritmoEscape (dibujarFractal: órbitas en
+ * paralelo + coloración), con la vista inicial y maxIter 1000, en 1080p y 4K.
+ * Usa los hilos por defecto del visor (-Dfractal.hilos).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class BancoFotograma {
+
+    private static final int MAX_ITER = 1000; // el del visor
+
+    @Param({"1920x1080", "3840x2160"})
+    public String tam;
+
+    private Cargas cargas;
+    private Object visor;
+    private int ancho, alto;
+    private long iteraciones;
+
+    @Setup
+    public void preparar() {
+        String[] t = tam.split("x");
+        ancho = Integer.parseInt(t[0]);
+        alto = Integer.parseInt(t[1]);
+        cargas = Cargas.cargar();
+        visor = cargas.visor(ancho, alto);
+        iteraciones = cargas.iteracionesMandelbrot(cargas.region(visor), ancho, alto, MAX_ITER);
+    }
+
+    @Benchmark
+    public double fotograma(Contadores c) {
+        c.pixeles += (long) ancho * alto;
+        c.iteraciones += iteraciones;
+        return cargas.fotograma(visor, ancho, alto);
+    }
+}
@@ -0,0 +1,40 @@
+package bancos;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iteración inversa (MotorIteracionInversa) del conejo de Douady,
+ * c = -0.12 + 0.75i, con varios cortes D de la derivada acumulada. El nº de
+ * nodos crece con D, así que lo comparable entre cortes son los nodos/s.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class BancoInversa {
+
+    private static final double C_RE = -0.12, C_IM = 0.75;
+    private static final int LADO = 1000; // la imagen de IteracionInversa
+
+    @Param({"1e4", "1e5", "1e6"}) // 1e6: el de IteracionInversa
+    public double D;
+
+    private Cargas cargas;
+
+    @Setup
+    public void preparar() {
+        cargas = Cargas.cargar();
+    }
+
+    @Benchmark
+    public long inversa(Contadores c) {
+        long nodos = cargas.inversa(C_RE, C_IM, D, LADO);
+        c.pixeles += nodos;
+        c.iteraciones += nodos;
+        return nodos;
+    }
+}
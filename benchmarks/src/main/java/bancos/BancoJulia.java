@@ -0,0 +1,41 @@
+package bancos;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Núcleo escalar de Julia de EscapeFunciones, en un hilo, con c = -0.8 + 0.156i. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class BancoJulia {
+
+    private static final int ANCHO = 320, ALTO = 180;
+    private static final double C_RE = -0.8, C_IM = 0.156;
+    private static final double[] REGION = {-1.6, 1.6, -0.9, 0.9};
+
+    @Param({"100", "1000"})
+    public int maxIter;
+
+    @Param({"true", "false"})
+    public boolean interior;
+
+    private Cargas cargas;
+    private long iteraciones;
+
+    @Setup
+    public void preparar() {
+        cargas = Cargas.cargar();
+        iteraciones = cargas.iteracionesJulia(REGION, ANCHO, ALTO, C_RE, C_IM, maxIter);
+    }
+
+    @Benchmark
+    public double julia(Contadores c) {
+        c.pixeles += (long) ANCHO * ALTO;
+        c.iteraciones += iteraciones;
+        return cargas.julia(REGION, ANCHO, ALTO, C_RE, C_IM, maxIter, interior);
+    }
+}
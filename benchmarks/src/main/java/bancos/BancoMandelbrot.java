@@ -0,0 +1,52 @@
+package bancos;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Núcleo escalar de Mandelbrot (NucleoFractal.CUADRATICO.parametro, el que
+ * usa AlgoritmoEscape píxel a píxel) en un hilo, sobre la vista inicial y el
+ * valle de los caballitos de mar.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class BancoMandelbrot {
+
+    private static final int ANCHO = 320, ALTO = 180;
+
+    @Param({"inicial", "caballitos"})
+    public String region;
+
+    @Param({"100", "1000", "10000"})
+    public int maxIter;
+
+    @Param({"true", "false"})
+    public boolean interior;
+
+    private Cargas cargas;
+    private double[] limites;
+    private long iteraciones;
+
+    @Setup
+    public void preparar() {
+        cargas = Cargas.cargar();
+        limites = switch (region) {
+            case "inicial" -> new double[]{-2.5, 1.0, -1.25, 1.25};
+            case "caballitos" -> new double[]{-0.80, -0.70, 0.05, 0.15};
+            default -> throw new IllegalArgumentException("Región desconocida: " + region);
+        };
+        iteraciones = cargas.iteracionesMandelbrot(limites, ANCHO, ALTO, maxIter);
+    }
+
+    @Benchmark
+    public double mandelbrot(Contadores c) {
+        c.pixeles += (long) ANCHO * ALTO;
+        c.iteraciones += iteraciones;
+        return cargas.mandelbrot(limites, ANCHO, ALTO, maxIter, interior);
+    }
+}
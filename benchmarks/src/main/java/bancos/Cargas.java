@@ -0,0 +1,51 @@
+package bancos;
+
+/**
+ * Trabajo que miden los bancos, sobre el código de src/.
+ *
+ * Ese código está en el paquete por defecto, que no se puede importar desde
+ * un paquete con nombre, y JMH no admite bancos en el paquete por defecto.
+ * La implementación (CargasRender) sí está en él y se carga por nombre una
+ * vez, en el @Setup; como es la única clase cargada que implementa la
+ * interfaz, el JIT resuelve las llamadas sin despacho.
+ *
+ * Regiones como {xmin, xmax, ymin, ymax}; rejillas con el mismo mapeo de
+ * píxel a plano que los visores (centro del píxel).
+ */
+public interface Cargas {
+
+    /** Mandelbrot con el núcleo escalar, en un hilo; suma de control de los valores. */
+    double mandelbrot(double[] region, int ancho, int alto, int maxIter, boolean interior);
+
+    /** Julia (EscapeFunciones.iteracionesEn) con c = (cRe, cIm), en un hilo; suma de control. */
+    double julia(double[] region, int ancho, int alto, double cRe, double cIm, int maxIter, boolean interior);
+
+    /**
+     * Iteraciones de z^2 + c de la rejilla sin atajos de interior (los puntos
+     * que no escapan cuentan maxIter). Con los atajos activos son iteraciones
+     * equivalentes: lo que el atajo se ahorra cuenta como hecho.
+     */
+    long iteracionesMandelbrot(double[] region, int ancho, int alto, int maxIter);
+
+    long iteracionesJulia(double[] region, int ancho, int alto, double cRe, double cIm, int maxIter);
+
+    /** Visor AlgoritmoEscape sin pantalla, con la vista inicial ajustada a ancho×alto. */
+    Object visor(int ancho, int alto);
+
+    /** Región del visor tras ajustar el aspecto. */
+    double[] region(Object visor);
+
+    /** Fotograma completo del visor (cálculo en paralelo + coloración); suma de control. */
+    double fotograma(Object visor, int ancho, int alto);
+
+    /** Iteración inversa en una imagen lado×lado de [-4, 4]²; devuelve los nodos visitados. */
+    long inversa(double cRe, double cIm, double derivadaMaxima, int lado);
+
+    static Cargas cargar() {
+        try {
+            return (Cargas) Class.forName("CargasRender").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No se encuentra CargasRender en el classpath", e);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package bancos;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Contadores que JMH informa como ritmos junto a ops/s: píxeles/s e
+ * iteraciones/s (en la iteración inversa, puntos trazados y nodos).
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Contadores {
+
+    public long pixeles;
+    public long iteraciones;
+
+    @Setup(Level.Iteration)
+    public void reiniciar() {
+        pixeles = 0;
+        iteraciones = 0;
+    }
+}
@@ -0,0 +1,123 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AlmacenTeselasTest {
+
+    private static final int LADO = CacheTeselas.LADO, CABECERA = 40;
+    private static final long BYTES_FICHERO = CABECERA + (long) LADO * LADO * Float.BYTES;
+
+    @TempDir
+    Path raiz;
+
+    private static float[] tesela(float base) {
+        float[] t = new float[LADO * LADO];
+        for (int i = 0; i < t.length; i++) t[i] = (i % 97 == 0) ? Float.NaN : base + i * 0.25f;
+        return t;
+    }
+
+    private static AlmacenTeselas guardada(Path raiz, CacheTeselas.Clave k, float[] t) throws Exception {
+        AlmacenTeselas a = new AlmacenTeselas(raiz, 1L << 30);
+        a.guardarEnSegundoPlano(k, t);
+        assertTrue(a.esperarEscrituras(10_000));
+        return a;
+    }
+
+    private Path fichero(CacheTeselas.Clave k) {
+        return raiz.resolve(k.nucleo).resolve("it" + k.maxIteraciones).resolve("n" + k.nivel)
+                   .resolve(k.tx + "_" + k.ty + ".tsl");
+    }
+
+    @Test
+    void formatoDelFichero() throws Exception {
+        CacheTeselas.Clave k = new CacheTeselas.Clave("cuadratico", 5, 17, -3, 1000);
+        float[] t = tesela(1);
+        AlmacenTeselas a = guardada(raiz, k, t);
+        assertEquals(1, a.getEscritas());
+
+        ByteBuffer b = ByteBuffer.wrap(Files.readAllBytes(fichero(k))).order(ByteOrder.nativeOrder());
+        assertEquals(BYTES_FICHERO, b.capacity());
+        assertEquals(0x5453454C, b.getInt(0));
+        assertEquals(1, b.getInt(4));
+        assertEquals(LADO, b.getInt(8));
+        assertEquals(1000, b.getInt(12));
+        assertEquals(5, b.getInt(16));
+        assertEquals(17, b.getLong(24));
+        assertEquals(-3, b.getLong(32));
+        CRC32C crc = new CRC32C();
+        crc.update(b.slice(CABECERA, b.capacity() - CABECERA));
+        assertEquals((int) crc.getValue(), b.getInt(20));
+        float[] datos = new float[LADO * LADO];
+        b.slice(CABECERA, b.capacity() - CABECERA).order(ByteOrder.nativeOrder()).asFloatBuffer().get(datos);
+        assertArrayEquals(t, datos);
+
+        // Y lo lee otra instancia (otra sesión)
+        AlmacenTeselas otra = new AlmacenTeselas(raiz, 1L << 30);
+        assertArrayEquals(t, otra.leer(k));
+        assertEquals(1, otra.getLeidas());
+        assertTrue(otra.esperarEscrituras(10_000)); // el recuento inicial va por la misma cola
+        assertEquals(BYTES_FICHERO, otra.getBytes());
+    }
+
+    @Test
+    void unCrcQueNoCuadraSeRechazaYSeBorra() throws Exception {
+        CacheTeselas.Clave k = new CacheTeselas.Clave("cuadratico", 3, 1, 2, 500);
+        AlmacenTeselas a = guardada(raiz, k, tesela(2));
+        Path p = fichero(k);
+        byte[] bytes = Files.readAllBytes(p);
+        bytes[CABECERA + 12345] ^= 1;
+        Files.write(p, bytes);
+        assertNull(a.leer(k));
+        assertFalse(Files.exists(p));
+        assertEquals(0, a.getLeidas());
+    }
+
+    @Test
+    void unaCabeceraDeOtraTeselaOUnTamanoQueNoCuadraSeRechazan() throws Exception {
+        CacheTeselas.Clave k = new CacheTeselas.Clave("cuadratico", 3, 1, 2, 500);
+        CacheTeselas.Clave otra = new CacheTeselas.Clave("cuadratico", 3, 1, 3, 500);
+        AlmacenTeselas a = guardada(raiz, k, tesela(3));
+        Files.createDirectories(fichero(otra).getParent());
+        Files.copy(fichero(k), fichero(otra));
+        assertNull(a.leer(otra));
+        assertFalse(Files.exists(fichero(otra)));
+
+        Path p = fichero(k);
+        byte[] bytes = Files.readAllBytes(p);
+        Files.write(p, Arrays.copyOf(bytes, bytes.length - 4));
+        assertNull(a.leer(k));
+        assertFalse(Files.exists(p));
+    }
+
+    @Test
+    void unaTeselaQueNoEstaEsUnFalloSinMas() throws IOException {
+        AlmacenTeselas a = new AlmacenTeselas(raiz, 1L << 30);
+        assertNull(a.leer(new CacheTeselas.Clave("cuadratico", 0, 0, 0, 100)));
+        assertEquals(0, a.getLeidas());
+    }
+
+    @Test
+    void pasadoElTopeSeExpulsanLasMasAntiguas() throws Exception {
+        AlmacenTeselas a = new AlmacenTeselas(raiz, 2 * BYTES_FICHERO);
+        for (int i = 0; i < 4; i++) {
+            a.guardarEnSegundoPlano(new CacheTeselas.Clave("cuadratico", 2, i, 0, 100), tesela(i));
+            assertTrue(a.esperarEscrituras(10_000));
+        }
+        assertEquals(4, a.getEscritas());
+        assertTrue(a.getExpulsadas() > 0);
+        assertTrue(a.getBytes() <= 2 * BYTES_FICHERO);
+    }
+}
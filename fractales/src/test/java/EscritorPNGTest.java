@@ -0,0 +1,92 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.zip.Adler32;
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EscritorPNGTest {
+
+    private static final int ANCHO = 37, ALTO = 29, FRANJA = 8;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void combinarAdlerIgualQueSobreLaConcatenacion() {
+        Random r = new Random(1);
+        for (int k = 0; k < 200; k++) {
+            // Incluye partes vacías y mayores que la base (65521)
+            byte[] a = new byte[r.nextInt(4) == 0 ? 0 : r.nextInt(70000)];
+            byte[] b = new byte[r.nextInt(4) == 0 ? 0 : r.nextInt(70000)];
+            r.nextBytes(a);
+            r.nextBytes(b);
+            Adler32 todo = new Adler32(), pa = new Adler32(), pb = new Adler32();
+            todo.update(a);
+            todo.update(b);
+            pa.update(a);
+            pb.update(b);
+            assertEquals(todo.getValue(), EscritorPNG.combinarAdler(pa.getValue(), pb.getValue(), b.length));
+        }
+    }
+
+    @Test
+    void reanudarTrasUnaFranjaAMediasDaElMismoFichero() throws IOException {
+        int[] argb = imagen();
+        Path entero = dir.resolve("entero.png"), reanudado = dir.resolve("reanudado.png");
+        try (EscritorPNG e = EscritorPNG.crear(entero, ANCHO, ALTO)) {
+            escribirFranjas(e, argb, 0, ALTO);
+        }
+
+        long posicion, adler;
+        int hechas = 2 * FRANJA;
+        try (EscritorPNG e = EscritorPNG.crear(reanudado, ANCHO, ALTO)) {
+            escribirFranjas(e, argb, 0, hechas);
+            posicion = e.getPosicion();
+            adler = e.getAdler();
+        }
+        // Interrupción a mitad de la franja siguiente: bytes de más tras el progreso guardado
+        try (FileChannel c = FileChannel.open(reanudado, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            c.write(ByteBuffer.wrap(new byte[123]));
+        }
+        try (EscritorPNG e = EscritorPNG.reanudar(reanudado, ANCHO, posicion, adler)) {
+            escribirFranjas(e, argb, hechas, ALTO);
+        }
+
+        assertArrayEquals(Files.readAllBytes(entero), Files.readAllBytes(reanudado));
+        BufferedImage leida = ImageIO.read(reanudado.toFile());
+        assertEquals(ANCHO, leida.getWidth());
+        assertEquals(ALTO, leida.getHeight());
+        for (int y = 0; y < ALTO; y++) {
+            for (int x = 0; x < ANCHO; x++) assertEquals(argb[y * ANCHO + x] | 0xFF000000, leida.getRGB(x, y));
+        }
+    }
+
+    private static int[] imagen() {
+        int[] argb = new int[ANCHO * ALTO];
+        Random r = new Random(2);
+        for (int i = 0; i < argb.length; i++) argb[i] = 0xFF000000 | r.nextInt(0x1000000);
+        return argb;
+    }
+
+    /** Filas [desde, hasta) en franjas de FRANJA filas, como RenderPorFranjas. */
+    private static void escribirFranjas(EscritorPNG e, int[] argb, int desde, int hasta) throws IOException {
+        int bpf = e.bytesPorFila();
+        byte[] filas = new byte[bpf * FRANJA];
+        for (int y0 = desde; y0 < hasta; y0 += FRANJA) {
+            int n = Math.min(FRANJA, hasta - y0);
+            for (int y = 0; y < n; y++) e.filtrarFila(argb, (y0 + y) * ANCHO, filas, y * bpf);
+            e.escribirFranja(filas, n * bpf, y0 + n == ALTO);
+        }
+    }
+}
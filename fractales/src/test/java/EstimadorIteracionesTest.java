@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class EstimadorIteracionesTest {
+
+    /** Sonda sintética: el píxel i escapa en la iteración conteos[i] (si cabe en el límite). */
+    private static EstimadorIteraciones.Sonda sonda(int[] conteos, List<Integer> limites) {
+        return limite -> {
+            limites.add(limite);
+            float[] v = new float[conteos.length];
+            for (int i = 0; i < v.length; i++) v[i] = conteos[i] < limite ? conteos[i] : Float.NaN;
+            return v;
+        };
+    }
+
+    @Test
+    void percentilPorMargenCuandoLaUltimaOctavaNoAportaNada() {
+        int[] conteos = new int[10000];
+        for (int i = 0; i < conteos.length; i++) conteos[i] = 1 + i % 1000;
+        List<Integer> limites = new ArrayList<>();
+        EstimadorIteraciones e = new EstimadorIteraciones(100, 200000);
+        // p99.9 de 1..1000 (10 veces cada uno) es 999
+        assertEquals(1998, e.estimar(sonda(conteos, limites), 1000, () -> false));
+        assertEquals(List.of(256, 512, 1024, 2048), limites);
+    }
+
+    @Test
+    void vistaInteriorDejaElLimiteActualTrasPocasOctavas() {
+        int[] conteos = new int[4096];
+        Arrays.fill(conteos, Integer.MAX_VALUE);
+        List<Integer> limites = new ArrayList<>();
+        EstimadorIteraciones e = new EstimadorIteraciones(100, 200000);
+        assertEquals(1000, e.estimar(sonda(conteos, limites), 1000, () -> false));
+        // Hasta el límite actual no cuenta; después, OCTAVAS_SIN_ESCAPES octavas
+        assertEquals(List.of(256, 512, 1024, 2048, 4096), limites);
+    }
+
+    @Test
+    void zoomProfundoSigueDoblandoHastaQueEscapan() {
+        int[] conteos = new int[4096];
+        for (int i = 0; i < conteos.length; i++) conteos[i] = 3000 + i % 1000;
+        List<Integer> limites = new ArrayList<>();
+        EstimadorIteraciones e = new EstimadorIteraciones(100, 200000);
+        int limite = e.estimar(sonda(conteos, limites), 1000, () -> false);
+        assertTrue(limite >= 2 * 3990 && limite <= 2 * 4000, "límite " + limite);
+        assertEquals(List.of(256, 512, 1024, 2048, 4096, 8192), limites);
+    }
+
+    @Test
+    void acotadoEntreMinimoYMaximo() {
+        int[] bajos = new int[1000], altos = new int[1000];
+        for (int i = 0; i < 1000; i++) { bajos[i] = 1 + i % 10; altos[i] = 40000 + i; }
+        assertEquals(100, new EstimadorIteraciones(100, 50000).estimar(sonda(bajos, new ArrayList<>()), 1000, () -> false));
+        assertEquals(50000, new EstimadorIteraciones(100, 50000).estimar(sonda(altos, new ArrayList<>()), 20000, () -> false));
+    }
+
+    @Test
+    void canceladoDevuelveMenosUno() {
+        EstimadorIteraciones e = new EstimadorIteraciones(100, 200000);
+        assertEquals(-1, e.estimar(limite -> null, 1000, () -> false));
+        assertEquals(-1, e.estimar(limite -> new float[1], 1000, () -> true));
+    }
+}
@@ -0,0 +1,106 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import org.junit.jupiter.api.Test;
+
+class PrecisionEscapeTest {
+
+    private static final MathContext MC = new MathContext(80);
+    private static final BigDecimal R2 = BigDecimal.valueOf(4);
+    // Pocas iteraciones: junto al borde la órbita amplifica el redondeo y con
+    // cientos de ellas ni 106 bits dan el mismo valor suavizado que la referencia
+    private static final int LADO = 12, MAX_ITER = 100;
+
+    /** Referencia en BigDecimal del bucle cuadrático de la forma dada: nº de iteraciones y z final. */
+    private static double[] referencia(NucleoFractal f, BigDecimal x, BigDecimal y, BigDecimal cx, BigDecimal cy) {
+        boolean burningShip = f instanceof NucleoBurningShip, tricorn = f instanceof NucleoTricorn;
+        BigDecimal dos = BigDecimal.valueOf(tricorn ? -2 : 2);
+        int n = 0;
+        for (; n < MAX_ITER; n++) {
+            if (burningShip) { x = x.abs(); y = y.abs(); }
+            BigDecimal nx = x.multiply(x, MC).subtract(y.multiply(y, MC), MC).add(cx, MC);
+            y = dos.multiply(x, MC).multiply(y, MC).add(cy, MC);
+            x = nx;
+            if (x.multiply(x, MC).add(y.multiply(y, MC), MC).compareTo(R2) > 0) break;
+        }
+        return new double[]{n, x.doubleValue(), y.doubleValue()};
+    }
+
+    /** Centro con más dígitos de los que caben en un double, partido en hi + lo. */
+    private static double[] partir(BigDecimal v) {
+        double hi = v.doubleValue();
+        return new double[]{hi, v.subtract(new BigDecimal(hi), MC).doubleValue()};
+    }
+
+    @Test
+    void parametroEnDobleDoubleComoBigDecimal() {
+        // Vistas de anchura 1e-20, muy por debajo del double, sobre el borde de la región que escapa
+        comprobarParametro(NucleoFractal.porNombre("burningship"), -1.80, -1.70, new BigDecimal("-0.0281"));
+        comprobarParametro(NucleoFractal.porNombre("tricorn"), -1.50, 0.50, new BigDecimal("0.6144"));
+        comprobarParametro(NucleoFractal.CUADRATICO, -0.76, -0.72, new BigDecimal("0.1318"));
+    }
+
+    /** Punto de y = cy entre x0 y x1 en el que cambia si escapa antes de MAX_ITER, por bisección a 1e-30. */
+    private static BigDecimal borde(NucleoFractal f, double x0, double x1, BigDecimal cy) {
+        int pasos = 256;
+        for (int k = 0; k < pasos; k++) {
+            BigDecimal a = new BigDecimal(x0 + (x1 - x0) * k / pasos), b = new BigDecimal(x0 + (x1 - x0) * (k + 1) / pasos);
+            boolean escapaA = escapa(f, a, cy);
+            if (escapaA == escapa(f, b, cy)) continue;
+            while (b.subtract(a).abs().compareTo(new BigDecimal("1e-30")) > 0) {
+                BigDecimal m = a.add(b).divide(BigDecimal.valueOf(2), MC);
+                if (escapa(f, m, cy) == escapaA) a = m; else b = m;
+            }
+            return a.round(new MathContext(32));
+        }
+        throw new AssertionError(f.nombre() + ": sin borde en el segmento");
+    }
+
+    private static boolean escapa(NucleoFractal f, BigDecimal cx, BigDecimal cy) {
+        return referencia(f, BigDecimal.ZERO, BigDecimal.ZERO, cx, cy)[0] < MAX_ITER;
+    }
+
+    private static void comprobarParametro(NucleoFractal f, double x0, double x1, BigDecimal cy) {
+        BigDecimal cx = borde(f, x0, x1, cy);
+        double[] x = partir(cx), y = partir(cy);
+        double paso = 1e-20 / LADO;
+        int escapados = 0, distintosSinLo = 0;
+        for (int j = 0; j < LADO; j++) {
+            for (int i = 0; i < LADO; i++) {
+                // Medio píxel de desfase: ningún píxel cae justo en el borde de la bisección
+                double dx = (i - LADO / 2 + 0.5) * paso, dy = (j - LADO / 2 + 0.5) * paso;
+                double[] ref = referencia(f, BigDecimal.ZERO, BigDecimal.ZERO,
+                        cx.add(new BigDecimal(dx), MC), cy.add(new BigDecimal(dy), MC));
+                float esperado = (float) NucleoFractal.valorSuave((int) ref[0], ref[1], ref[2], MAX_ITER, 2);
+                float dd = PrecisionEscape.parametro(f, x[0], x[1], dx, y[0], y[1], dy, MAX_ITER, 4.0, false);
+                assertEquals(esperado, dd, 1e-3f, f.nombre() + " en (" + i + ", " + j + ")");
+                if (esperado == esperado) escapados++;
+                float sinLo = PrecisionEscape.parametro(f, x[0], 0.0, dx, y[0], 0.0, dy, MAX_ITER, 4.0, false);
+                if (!(Math.abs(esperado - sinLo) < 1e-3f) && (esperado == esperado || sinLo == sinLo)) distintosSinLo++;
+            }
+        }
+        assertTrue(escapados > 0 && escapados < LADO * LADO, f.nombre() + ": la vista no cruza el borde");
+        // Sin la parte baja del centro la vista es otra: la prueba mide algo por debajo del double
+        assertTrue(distintosSinLo > 0, f.nombre() + ": la parte baja no cambia nada");
+    }
+
+    @Test
+    void dinamicoEnDobleDoubleComoBigDecimal() {
+        NucleoFractal f = NucleoFractal.CUADRATICO;
+        BigDecimal zx = new BigDecimal("0.35260000000000001234567890123"), zy = new BigDecimal("0.39110000000000000987654321098");
+        double cRe = -0.8, cIm = 0.156;
+        double[] x = partir(zx), y = partir(zy);
+        double paso = 1e-22;
+        for (int i = -20; i <= 20; i++) {
+            double d = i * paso;
+            double[] ref = referencia(f, zx.add(new BigDecimal(d), MC), zy.subtract(new BigDecimal(d), MC),
+                                      new BigDecimal(cRe), new BigDecimal(cIm));
+            float esperado = ref[0] == MAX_ITER ? Float.NaN : (float) ref[0];
+            assertEquals(esperado, PrecisionEscape.dinamico(f, x[0], x[1], d, y[0], y[1], -d, cRe, cIm, MAX_ITER, 4.0, false),
+                         "desplazamiento " + i);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class RenderDistribuidoTest {
+
+    @Test
+    void comprimirYDescomprimirConservanLosBits() throws IOException {
+        int n = 64 * 48;
+        float[] valores = new float[n];
+        Random r = new Random(3);
+        for (int i = 0; i < n; i++) {
+            // Conteos suaves, interior (NaN), ceros con signo y valores extremos
+            switch (i % 7) {
+                case 0: valores[i] = Float.NaN; break;
+                case 1: valores[i] = -0.0f; break;
+                case 2: valores[i] = Float.intBitsToFloat(r.nextInt()); break;
+                case 3: valores[i] = Float.MIN_VALUE; break;
+                default: valores[i] = 1 + r.nextFloat() * 1000;
+            }
+        }
+        float[] leidos = new float[n];
+        RenderDistribuido.descomprimir(RenderDistribuido.comprimir(valores, n), leidos, n);
+        for (int i = 0; i < n; i++) {
+            assertEquals(Float.floatToRawIntBits(valores[i]), Float.floatToRawIntBits(leidos[i]), "valor " + i);
+        }
+    }
+
+    @Test
+    void soloLosPrimerosNValores() throws IOException {
+        float[] valores = {1, 2, 3, 4, 5, 6};
+        float[] leidos = new float[6];
+        RenderDistribuido.descomprimir(RenderDistribuido.comprimir(valores, 4), leidos, 4);
+        assertArrayEquals(new float[]{1, 2, 3, 4, 0, 0}, leidos);
+    }
+
+    @Test
+    void unaTeselaTruncadaODeOtroTamanoFalla() {
+        float[] valores = new float[256];
+        Arrays.fill(valores, 7.5f);
+        byte[] datos = RenderDistribuido.comprimir(valores, 256);
+        assertThrows(IOException.class,
+                () -> RenderDistribuido.descomprimir(Arrays.copyOf(datos, datos.length / 2), new float[256], 256));
+        assertThrows(IOException.class, () -> RenderDistribuido.descomprimir(datos, new float[512], 512));
+        assertThrows(IOException.class, () -> RenderDistribuido.descomprimir(datos, new float[128], 128));
+        assertThrows(IOException.class, () -> RenderDistribuido.descomprimir(new byte[]{1, 2, 3}, new float[4], 4));
+    }
+}
@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Properties;
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RenderPorFranjasTest {
+
+    private static final int FRANJA = 8, HECHAS = 3;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reanudarUnPngAMediasDaLaMismaImagen() throws IOException {
+        byte[] completo = renderizar("entero.png");
+        RenderPorFranjas.Parametros p = parametros("reanudado.png");
+
+        // Lo que habría dejado un render cortado tras HECHAS franjas
+        byte[] rgb = aRgb(completo, p);
+        Properties pr = new Properties();
+        try (EscritorPNG e = EscritorPNG.crear(p.salida, p.ancho, p.alto)) {
+            int bpf = e.bytesPorFila();
+            byte[] filas = new byte[bpf * FRANJA];
+            int[] argb = new int[p.ancho * FRANJA];
+            for (int f = 0; f < HECHAS; f++) {
+                for (int i = 0; i < argb.length; i++) {
+                    int o = 3 * (f * argb.length + i);
+                    argb[i] = (rgb[o] & 0xFF) << 16 | (rgb[o + 1] & 0xFF) << 8 | (rgb[o + 2] & 0xFF);
+                }
+                for (int y = 0; y < FRANJA; y++) e.filtrarFila(argb, y * p.ancho, filas, y * bpf);
+                e.escribirFranja(filas, FRANJA * bpf, false);
+            }
+            pr.setProperty("posicion", Long.toString(e.getPosicion()));
+            pr.setProperty("adler", Long.toString(e.getAdler()));
+        }
+        interrumpir(p, pr);
+
+        p.reanudar = true;
+        RenderPorFranjas.renderizar(p);
+        assertArrayEquals(completo, Files.readAllBytes(p.salida));
+        assertFalse(Files.exists(Paths.get(p.salida + ".progreso")));
+    }
+
+    @Test
+    void reanudarUnRgbAMediasDaLaMismaImagen() throws IOException {
+        byte[] completo = renderizar("entero.rgb");
+        RenderPorFranjas.Parametros p = parametros("reanudado.rgb");
+        int bytes = 3 * p.ancho * FRANJA * HECHAS;
+        Files.write(p.salida, Arrays.copyOf(completo, bytes));
+        Properties pr = new Properties();
+        pr.setProperty("posicion", Integer.toString(bytes));
+        interrumpir(p, pr);
+
+        p.reanudar = true;
+        RenderPorFranjas.renderizar(p);
+        assertArrayEquals(completo, Files.readAllBytes(p.salida));
+    }
+
+    private RenderPorFranjas.Parametros parametros(String salida) {
+        return RenderPorFranjas.Parametros.leer(new String[]{"mandelbrot", "--tam", "48x44", "--iter", "200",
+                "--franja", Integer.toString(FRANJA), "--salida", dir.resolve(salida).toString()});
+    }
+
+    private byte[] renderizar(String salida) throws IOException {
+        RenderPorFranjas.Parametros p = parametros(salida);
+        RenderPorFranjas.renderizar(p);
+        return Files.readAllBytes(p.salida);
+    }
+
+    /** Guarda el progreso de HECHAS franjas y deja basura de una franja cortada detrás. */
+    private static void interrumpir(RenderPorFranjas.Parametros p, Properties pr) throws IOException {
+        pr.setProperty("franjas", Integer.toString(HECHAS));
+        pr.setProperty("firma", p.firma());
+        try (OutputStream out = Files.newOutputStream(Paths.get(p.salida + ".progreso"))) {
+            pr.store(out, null);
+        }
+        Files.write(p.salida, new byte[777], StandardOpenOption.APPEND);
+    }
+
+    /** Píxeles RGB de un PNG. */
+    private static byte[] aRgb(byte[] png, RenderPorFranjas.Parametros p) throws IOException {
+        BufferedImage img = ImageIO.read(new ByteArrayInputStream(png));
+        byte[] rgb = new byte[3 * p.ancho * p.alto];
+        for (int y = 0, o = 0; y < p.alto; y++) {
+            for (int x = 0; x < p.ancho; x++) {
+                int c = img.getRGB(x, y);
+                rgb[o++] = (byte) (c >> 16); rgb[o++] = (byte) (c >> 8); rgb[o++] = (byte) c;
+            }
+        }
+        return rgb;
+    }
+}
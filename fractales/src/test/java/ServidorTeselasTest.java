@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ServidorTeselasTest {
+
+    private static ServidorTeselas.Peticion leer(String ruta, String consulta) {
+        return ServidorTeselas.Peticion.leer(ruta, ServidorTeselas.consulta(consulta));
+    }
+
+    @Test
+    void mandelbrotConValoresPorDefecto() {
+        ServidorTeselas.Peticion p = leer("/mandelbrot/3/5/2.png", "");
+        assertFalse(p.julia);
+        assertEquals(NucleoFractal.CUADRATICO, p.nucleo);
+        assertEquals(1000, p.iter);
+        assertEquals(PaletaLUT.Esquema.ARCOIRIS, p.esquema);
+        // Misma clave que las teselas del visor
+        assertEquals(new CacheTeselas.Clave("cuadratico", 3, 5, 2, 1000), p.claveCache());
+    }
+
+    @Test
+    void juliaConConsulta() {
+        ServidorTeselas.Peticion p = leer("/julia/0/0/0.png", "c=-0.8%2C0.156&iter=250&paleta=fuego&nucleo=tricorn");
+        assertTrue(p.julia);
+        assertEquals(-0.8, p.cRe);
+        assertEquals(0.156, p.cIm);
+        assertEquals(250, p.iter);
+        assertEquals(PaletaLUT.Esquema.FUEGO, p.esquema);
+        assertEquals("tricorn", p.nucleo.nombre());
+        assertEquals("julia-tricorn_-0.8_0.156", p.claveCache().nucleo);
+        assertEquals(100, leer("/julia/0/0/0.png", "").iter);
+    }
+
+    @Test
+    void rutasYConsultasNoValidas() {
+        String[][] casos = {
+                {"/mandelbrot/3/5/2", ""}, {"/mandelbrot/3/5.png", ""}, {"/mandelbrot/3/5/2/1.png", ""},
+                {"/newton/3/5/2.png", ""}, {"/mandelbrot/x/5/2.png", ""}, {"/mandelbrot/-1/0/0.png", ""},
+                {"/mandelbrot/49/0/0.png", ""}, {"/mandelbrot/3/8/0.png", ""}, {"/mandelbrot/3/0/-1.png", ""},
+                {"/mandelbrot/3/0/0.png", "iter=0"}, {"/mandelbrot/3/0/0.png", "iter=999999999"},
+                {"/julia/3/0/0.png", "c=1"}, {"/julia/3/0/0.png", "c=a,b"},
+                {"/mandelbrot/3/0/0.png", "nucleo=nada"}, {"/mandelbrot/3/0/0.png", "paleta=nada"},
+        };
+        for (String[] c : casos) {
+            assertThrows(IllegalArgumentException.class, () -> leer(c[0], c[1]), c[0] + "?" + c[1]);
+        }
+    }
+
+    @Test
+    void etagEstableYDistintaParaCadaTesela() {
+        String etag = leer("/mandelbrot/3/5/2.png", "").etag();
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        // La consulta normalizada: los valores por defecto explícitos dan la misma etiqueta
+        assertEquals(etag, leer("/mandelbrot/3/5/2.png", "iter=1000&paleta=arcoiris&nucleo=cuadratico").etag());
+        assertNotEquals(etag, leer("/mandelbrot/3/5/3.png", "").etag());
+        assertNotEquals(etag, leer("/mandelbrot/3/5/2.png", "iter=1001").etag());
+        assertNotEquals(etag, leer("/mandelbrot/3/5/2.png", "paleta=grises").etag());
+        assertNotEquals(etag, leer("/julia/3/5/2.png", "iter=1000&paleta=arcoiris").etag());
+    }
+
+    @Test
+    void coincide() {
+        String etag = "\"0123abcd\"";
+        assertFalse(ServidorTeselas.coincide(null, etag));
+        assertTrue(ServidorTeselas.coincide(etag, etag));
+        assertTrue(ServidorTeselas.coincide("\"otra\", " + etag, etag));
+        assertTrue(ServidorTeselas.coincide("W/" + etag, etag));
+        assertTrue(ServidorTeselas.coincide("*", etag));
+        assertFalse(ServidorTeselas.coincide("\"otra\"", etag));
+        assertFalse(ServidorTeselas.coincide("0123abcd", etag));
+        assertFalse(ServidorTeselas.coincide("", etag));
+    }
+
+    @Test
+    void consultaDecodificada() {
+        assertEquals(Map.of("c", "-0.8,0.156", "a b", "", "x", "1"), ServidorTeselas.consulta("c=-0.8%2C0.156&a+b&&x=1"));
+    }
+}
@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+class SupersamplingAdaptativoTest {
+
+    private static final int ANCHO = 32, ALTO = 16, GRIS = 0xFF808080;
+    private static final RenderizadorParalelo RENDERIZADOR = new RenderizadorParalelo(2);
+    private static final PaletaLUT PALETA = new PaletaLUT(PaletaLUT.Esquema.GRISES, 1.0);
+
+    @AfterAll
+    static void cerrar() { RENDERIZADOR.cerrar(); }
+
+    private static SupersamplingAdaptativo.Resultado suavizar(SupersamplingAdaptativo aa, int[] argb, float[] valores) {
+        return aa.suavizar(argb, valores, ANCHO, ALTO, (x, y) -> 10f, PALETA, 100, RENDERIZADOR, () -> false);
+    }
+
+    /** Mitad izquierda con valor (y color) izquierda, derecha con derecha. */
+    private static float[] mitades(float izquierda, float derecha) {
+        float[] v = new float[ANCHO * ALTO];
+        for (int i = 0; i < v.length; i++) v[i] = i % ANCHO < ANCHO / 2 ? izquierda : derecha;
+        return v;
+    }
+
+    private static int[] gris() {
+        int[] argb = new int[ANCHO * ALTO];
+        Arrays.fill(argb, GRIS);
+        return argb;
+    }
+
+    @Test
+    void sinBordesNoSeSupermuestreaNada() {
+        SupersamplingAdaptativo aa = new SupersamplingAdaptativo(SupersamplingAdaptativo.Patron.RGSS_4, 1.0, 48, 32);
+        SupersamplingAdaptativo.Resultado r = suavizar(aa, gris(), mitades(10, 10));
+        assertEquals(0, r.getCandidatos());
+        assertEquals(0, r.getPixeles());
+    }
+
+    @Test
+    void elBordeDelConjuntoEntraAunqueElColorNoCambie() {
+        SupersamplingAdaptativo aa = new SupersamplingAdaptativo(SupersamplingAdaptativo.Patron.RGSS_4, 1.0, 48, 32);
+        SupersamplingAdaptativo.Resultado r = suavizar(aa, gris(), mitades(Float.NaN, 10));
+        // Las dos columnas a cada lado del borde
+        assertEquals(2 * ALTO, r.getCandidatos());
+        assertEquals(2 * ALTO, r.getPixeles());
+        assertEquals(2 * ALTO * 4, r.getMuestras());
+    }
+
+    @Test
+    void umbralDeIteraciones() {
+        SupersamplingAdaptativo aa = new SupersamplingAdaptativo(SupersamplingAdaptativo.Patron.RGSS_4, 1.0, 48, 32);
+        assertEquals(2 * ALTO, suavizar(aa, gris(), mitades(10, 42)).getCandidatos());
+        assertEquals(0, suavizar(aa, gris(), mitades(10, 41.9f)).getCandidatos());
+    }
+
+    @Test
+    void umbralDeColor() {
+        SupersamplingAdaptativo aa = new SupersamplingAdaptativo(SupersamplingAdaptativo.Patron.RGSS_4, 1.0, 48, 1000);
+        float[] valores = mitades(10, 11);
+        int[] argb = gris();
+        // Distancia |dR| + |dG| + |dB|: 16 por canal = 48, en el umbral; 15 por canal = 45, por debajo
+        for (int i = 0; i < argb.length; i++) if (i % ANCHO >= ANCHO / 2) argb[i] = 0xFF909090;
+        assertEquals(2 * ALTO, suavizar(aa, argb.clone(), valores).getCandidatos());
+        for (int i = 0; i < argb.length; i++) if (i % ANCHO >= ANCHO / 2) argb[i] = 0xFF8F8F8F;
+        assertEquals(0, suavizar(aa, argb, valores).getCandidatos());
+    }
+
+    @Test
+    void elPresupuestoRecortaLosCandidatos() {
+        // 1% de 32×16 muestras extra con 4 por píxel: 1 píxel
+        SupersamplingAdaptativo aa = new SupersamplingAdaptativo(SupersamplingAdaptativo.Patron.RGSS_4, 0.01, 48, 32);
+        SupersamplingAdaptativo.Resultado r = suavizar(aa, gris(), mitades(Float.NaN, 10));
+        assertEquals(2 * ALTO, r.getCandidatos());
+        assertEquals(1, r.getPixeles());
+        assertTrue(r.getCorte() >= 48);
+    }
+}
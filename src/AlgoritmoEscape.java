@@ -2,18 +2,116 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 
 public class AlgoritmoEscape extends JPanel {
 
     private double xMinimo, xMaximo, yMinimo, yMaximo;
 
+    // Vista exacta: centro en alta precisión + tamaño en el plano.
+    // xMinimo..yMaximo se derivan de aquí (en zoom profundo dejan de ser exactos).
+    private BigDecimal centroX, centroY;
+    private double anchuraMundo, alturaMundo;
+
+    // Por debajo de este espaciado relativo entre píxeles el double no basta:
+    // se pasa al motor de perturbaciones (tecla P para forzarlo). Por encima,
+    // la precisión de cada vista la elige PrecisionEscape (float en los
+    // caminos SIMD y Mariani–Silver; doble-double en el Burning Ship y el
+    // Tricorn, que no tienen perturbación)
+    static final double ESPACIADO_PROFUNDO = 1e-13;
+    private boolean perturbacionForzada = false;
+    private volatile String estadoProfundo = null; // resumen del último render profundo
+
+    // Relleno de regiones uniformes por subdivisión (Mariani–Silver); tecla M
+    private volatile boolean marianiSilver = false;
+    private volatile String estadoCamino = null;
+
+    // Estado de las órbitas de la última vista (camino directo): al cambiar
+    // maxIteraciones solo se itera lo que falta
+    private volatile EstadoOrbitas estadoOrbitas;
+
+    // Caché LRU de teselas del quadtree para reutilizar píxeles al desplazar
+    // o volver a vistas anteriores (-Dfractal.cacheMB); tecla C. Detrás, el
+    // almacén en disco (-Dfractal.almacen) que las conserva entre sesiones
+    private final CacheTeselas cache = CacheTeselas.porDefecto();
+    private volatile boolean usarCache = false;
+
+    // Regiones con nombre (teclas 1-4): al ir a una se activa la caché, así
+    // que las visitas diarias salen del almacén en disco
+    private static final String[][] REGIONES = {
+            {"Valle de los caballitos", "-0.7435", "0.1314", "0.012"},
+            {"Valle de los elefantes", "0.2925", "0.0150", "0.03"},
+            {"Triple espiral", "-0.0880", "0.6540", "0.01"},
+            {"Minibrot de la antena", "-1.7549", "0.0000", "0.04"},
+    };
+
+    // Núcleo vectorial (Vector API) si la JVM arrancó con el módulo; tecla V.
+    // Antes del primer uso se compara con el escalar en una muestra de la vista.
+    private final NucleoSIMD nucleoSimd = NucleoSIMD.cargar();
+    private volatile boolean usarSimd = false, simdVerificado = false;
+    private volatile String estadoSimd = null;
+
     private int maxIteraciones = 1000;
+    static final int MAX_ITERACIONES = 200000; // tope de la tecla + y del modo automático
+
+    // Límite automático (tecla A): sondeo a 1/8 de resolución antes de cada
+    // render, con el histograma de conteos de escape (EstimadorIteraciones)
+    private volatile boolean iteracionesAuto = false;
+    private volatile String estadoAuto = null;
+    private static final int DIVISOR_SONDEO = 8;
+    private static final int MIN_ITERACIONES_AUTO = 100;
     private double radioEscape = 2.0;
 
+    // Función de iteración (tecla N). Perturbación, SIMD y caché son solo del cuadrático
+    private volatile NucleoFractal nucleo = NucleoFractal.CUADRATICO;
+
+    // Atajos para el interior (cardioide/bulbo + ciclos de Brent); tecla I
+    private volatile boolean deteccionInterior = true;
+    private static final double TOLERANCIA_PERIODO = NucleoFractal.TOLERANCIA_PERIODO;
+
     private BufferedImage imagen;
+    private Vista vistaImagen;          // región que representa 'imagen'
+    private float[] valoresImagen;      // búfer de iteraciones de 'imagen' (para recolorear)
+    private SupersamplingAdaptativo.Resultado antialiasImagen; // muestras extra de 'imagen' (o null)
+
+    // Paleta precalculada; tecla L cambia de esquema y , . el contraste
+    private volatile PaletaLUT paleta = new PaletaLUT(PaletaLUT.Esquema.ARCOIRIS, 1.0);
     private boolean necesitaRedibujar = true;
 
+    // Render asíncrono: solo se pinta el resultado de la última solicitud
+    private final PlanificadorRender<Fotograma> planificador = new PlanificadorRender<>();
+
+    // Render por teselas en paralelo (nº de hilos: -Dfractal.hilos o setHilos)
+    private volatile RenderizadorParalelo renderizador = new RenderizadorParalelo(RenderizadorParalelo.hilosPorDefecto());
+
+    // Refinamiento progresivo del camino directo (tecla G): 1/16, 1/4 y todos
+    // los píxeles. Mientras la navegación sigue (rueda, arrastre con el botón
+    // derecho) solo se calcula la pasada gruesa; la completa, al detenerse.
+    private volatile boolean progresivo = false;
+    private static final int PASO_GRUESO = 4;
+    private static final int PAUSA_NAVEGACION_MS = 200;
+    private final Timer finNavegacion = new Timer(PAUSA_NAVEGACION_MS, e -> finDeNavegacion());
+    private boolean navegando = false, gruesoPendiente = false;
+    private int pasoImagen = 1; // lado del bloque de píxeles del fotograma visible
+
+    // Métricas del último fotograma (tecla T en el HUD; eventos JFR siempre)
+    private volatile boolean verMetricas = false;
+    private MetricasRender metricas;
+    private long nanosPintado;
+
+    // Antialiasing adaptativo (tecla S: RGSS 4, 3×3, 4×4, desactivado); solo
+    // en el fotograma final y fuera del zoom profundo
+    private volatile SupersamplingAdaptativo antialias = null;
+
     private Point inicioArrastre = null, finArrastre = null;
+    private Point inicioDesplazamiento = null;
     private Point cursor = null;
 
     // Separación objetivo (en píxeles) entre marcas principales en los ejes
@@ -26,17 +124,31 @@ public class AlgoritmoEscape extends JPanel {
     public AlgoritmoEscape(int ancho, int alto,
                            double xMinimo, double xMaximo, double yMinimo, double yMaximo) {
         setPreferredSize(new Dimension(ancho, alto));
-        this.xMinimo = xMinimo; this.xMaximo = xMaximo; this.yMinimo = yMinimo; this.yMaximo = yMaximo;
+        fijarVista(new BigDecimal((xMinimo + xMaximo) / 2.0), new BigDecimal((yMinimo + yMaximo) / 2.0),
+                   xMaximo - xMinimo, yMaximo - yMinimo);
 
+        finNavegacion.setRepeats(false);
         addMouseWheelListener(e -> {
             double factor = (e.getWheelRotation() < 0) ? 0.8 : 1.25;
+            navegar();
             hacerZoomEn(e.getX(), e.getY(), factor);
         });
 
         MouseAdapter manejadorRaton = new MouseAdapter() {
-            @Override public void mousePressed(MouseEvent e) { inicioArrastre = e.getPoint(); finArrastre = null; }
-            @Override public void mouseDragged(MouseEvent e) { finArrastre = e.getPoint(); repaint(); }
+            @Override public void mousePressed(MouseEvent e) {
+                if (SwingUtilities.isRightMouseButton(e)) { inicioDesplazamiento = e.getPoint(); return; }
+                inicioArrastre = e.getPoint(); finArrastre = null;
+            }
+            @Override public void mouseDragged(MouseEvent e) {
+                if (inicioDesplazamiento != null) {
+                    desplazarPixeles(e.getX() - inicioDesplazamiento.x, e.getY() - inicioDesplazamiento.y);
+                    inicioDesplazamiento = e.getPoint();
+                    return;
+                }
+                finArrastre = e.getPoint(); repaint();
+            }
             @Override public void mouseReleased(MouseEvent e) {
+                if (SwingUtilities.isRightMouseButton(e)) { inicioDesplazamiento = null; return; }
                 if (inicioArrastre != null && finArrastre != null) {
                     aplicarZoomCaja(inicioArrastre, finArrastre); // mantiene el panel, recalcula en la nueva región
                 }
@@ -55,7 +167,7 @@ public class AlgoritmoEscape extends JPanel {
         /* Resize: ajusta aspecto de la región inicial (solo la primera vez) */
         addComponentListener(new ComponentAdapter() {
             @Override public void componentResized(ComponentEvent e) {
-                imagen = null;
+                imagen = null; vistaImagen = null; valoresImagen = null;
                 ajustarAspectoAlViewport();
                 necesitaRedibujar = true;
                 repaint();
@@ -63,18 +175,46 @@ public class AlgoritmoEscape extends JPanel {
         });
     }
 
+    /* ---------- Vista: centro exacto + tamaño ---------- */
+    private void fijarVista(BigDecimal cx, BigDecimal cy, double anchura, double altura) {
+        centroX = cx; centroY = cy;
+        anchuraMundo = anchura; alturaMundo = altura;
+        double x = cx.doubleValue(), y = cy.doubleValue();
+        xMinimo = x - anchura / 2.0; xMaximo = x + anchura / 2.0;
+        yMinimo = y - altura / 2.0; yMaximo = y + altura / 2.0;
+    }
+
+    /** Desplazamiento (en el plano) del centro del píxel (px, py) respecto al centro de la vista. */
+    private double desplazamientoX(double px) { return anchuraMundo * ((px + 0.5) / getWidth() - 0.5); }
+    private double desplazamientoY(double py) { return -alturaMundo * ((py + 0.5) / getHeight() - 0.5); }
+
+    /** Centro nuevo = centro + desplazamiento, sin perder los dígitos del zoom profundo. */
+    private void moverCentro(double dx, double dy, double anchura, double altura) {
+        MathContext mc = PerturbacionProfunda.precisionPara(Math.min(anchura / Math.max(1, getWidth()),
+                                                                     altura / Math.max(1, getHeight())));
+        fijarVista(centroX.add(new BigDecimal(dx), mc), centroY.add(new BigDecimal(dy), mc), anchura, altura);
+    }
+
+    private boolean esProfundo(double anchura, int ancho) {
+        return anchura / ancho < ESPACIADO_PROFUNDO * escalaVista();
+    }
+
+    /** Magnitud de las coordenadas de la vista (al menos 1), para el espaciado relativo. */
+    private double escalaVista() {
+        double escala = Math.max(1.0, Math.max(Math.abs(xMinimo), Math.abs(xMaximo)));
+        return Math.max(escala, Math.max(Math.abs(yMinimo), Math.abs(yMaximo)));
+    }
+
     /* ---------- Aspecto inicial ---------- */
     private void ajustarAspectoAlViewport() {
         double w = getWidth(), h = getHeight();
         if (w <= 0 || h <= 0) return;
-        double anchuraActual = xMaximo - xMinimo, alturaActual = yMaximo - yMinimo;
+        double anchuraActual = anchuraMundo, alturaActual = alturaMundo;
         double aspectoVista = w / h, aspectoMundo = anchuraActual / alturaActual;
-        double cx = (xMinimo + xMaximo) / 2.0, cy = (yMinimo + yMaximo) / 2.0;
         if (Math.abs(aspectoVista - aspectoMundo) > 1e-12) {
             if (aspectoVista > aspectoMundo) anchuraActual = aspectoVista * alturaActual;
             else alturaActual = anchuraActual / aspectoVista;
-            xMinimo = cx - anchuraActual / 2.0; xMaximo = cx + anchuraActual / 2.0;
-            yMinimo = cy - alturaActual / 2.0; yMaximo = cy + alturaActual / 2.0;
+            fijarVista(centroX, centroY, anchuraActual, alturaActual);
         }
     }
 
@@ -96,58 +236,583 @@ public class AlgoritmoEscape extends JPanel {
         return (int)Math.round((yMaximo - y) / (yMaximo - yMinimo) * getHeight());
     }
 
+    /* ---------- Instantánea del viewport para el render en segundo plano ---------- */
+    private static final class Vista {
+        final double xMinimo, xMaximo, yMinimo, yMaximo;
+        final BigDecimal centroX, centroY;
+        final double anchura, altura;
+        final int ancho, alto, maxIteraciones;
+        final boolean profunda, marianiSilver, cache, simd;
+        final NucleoFractal nucleo;
+        final boolean progresivo, soloGrueso; // soloGrueso: navegando, basta la primera pasada
+        final boolean iteracionesAuto;        // maxIteraciones se estima antes de calcular
+        final SupersamplingAdaptativo antialias; // null si no se aplica
+        final PrecisionEscape.Nivel precision;   // null con perturbación
+        Vista(double xMinimo, double xMaximo, double yMinimo, double yMaximo,
+              BigDecimal centroX, BigDecimal centroY, double anchura, double altura,
+              int ancho, int alto, int maxIteraciones, boolean profunda, boolean marianiSilver, boolean cache,
+              boolean simd, NucleoFractal nucleo, boolean progresivo, boolean soloGrueso, boolean iteracionesAuto,
+              SupersamplingAdaptativo antialias, PrecisionEscape.Nivel precision) {
+            this.xMinimo = xMinimo; this.xMaximo = xMaximo; this.yMinimo = yMinimo; this.yMaximo = yMaximo;
+            this.centroX = centroX; this.centroY = centroY; this.anchura = anchura; this.altura = altura;
+            this.ancho = ancho; this.alto = alto; this.maxIteraciones = maxIteraciones;
+            this.profunda = profunda; this.marianiSilver = marianiSilver; this.cache = cache;
+            this.simd = simd; this.nucleo = nucleo;
+            this.progresivo = progresivo; this.soloGrueso = soloGrueso;
+            this.iteracionesAuto = iteracionesAuto;
+            this.antialias = antialias;
+            this.precision = precision;
+        }
+
+        Vista conMaxIteraciones(int m) {
+            return new Vista(xMinimo, xMaximo, yMinimo, yMaximo, centroX, centroY, anchura, altura, ancho, alto, m,
+                             profunda, marianiSilver, cache, simd, nucleo, progresivo, soloGrueso, iteracionesAuto,
+                             antialias, precision);
+        }
+    }
+
+    private static final class Fotograma {
+        final BufferedImage imagen;
+        final Vista vista;
+        final float[] valores; // iteraciones continuas por píxel (NaN = interior)
+        final int paso;        // 1 = completo; k = un píxel calculado por bloque k×k
+        final MetricasRender metricas; // null en las pasadas intermedias
+        final SupersamplingAdaptativo.Resultado antialias; // null sin antialiasing
+        Fotograma(BufferedImage imagen, Vista vista, float[] valores, int paso, MetricasRender metricas,
+                  SupersamplingAdaptativo.Resultado antialias) {
+            this.imagen = imagen; this.vista = vista; this.valores = valores; this.paso = paso;
+            this.metricas = metricas; this.antialias = antialias;
+        }
+    }
+
+    private Vista vistaActual() {
+        NucleoFractal n = nucleo;
+        boolean cuadratico = n == NucleoFractal.CUADRATICO;
+        boolean profunda = cuadratico && (perturbacionForzada || esProfundo(anchuraMundo, getWidth()));
+        PrecisionEscape.Nivel precision = profunda ? null
+                : PrecisionEscape.para(anchuraMundo / getWidth(), escalaVista(), n);
+        boolean dd = precision == PrecisionEscape.Nivel.DOBLE_DOBLE;
+        // Teselas y órbitas reanudables van en double
+        boolean cache = usarCache && !profunda && !dd, simd = cuadratico && usarSimd && nucleoSimd != null;
+        // El progresivo es del camino directo: los demás no calculan píxel a píxel
+        boolean prog = progresivo && !profunda && !dd && !cache && !marianiSilver && !simd;
+        if (precision == PrecisionEscape.Nivel.FLOAT && (cache || !(simd || marianiSilver))) {
+            precision = PrecisionEscape.Nivel.DOUBLE;
+        }
+        // Las muestras extra usan la precisión de la vista: con perturbación no hay
+        SupersamplingAdaptativo aa = profunda || (prog && navegando) ? null : antialias;
+        return new Vista(xMinimo, xMaximo, yMinimo, yMaximo, centroX, centroY, anchuraMundo, alturaMundo,
+                         getWidth(), getHeight(), maxIteraciones, profunda, marianiSilver, cache, simd, n,
+                         prog, prog && navegando, iteracionesAuto, aa, precision);
+    }
+
     /* ---------- Dinámica: algoritmo de escape ---------- */
-    private int colorEn(double cx, double cy) {
-        double zx = 0.0, zy = 0.0, r2 = radioEscape * radioEscape;
-        int n = 0;
-        for (; n < maxIteraciones; n++) {
-            double zx2 = zx * zx - zy * zy + cx;
-            double zy2 = 2.0 * zx * zy + cy;
-            zx = zx2; zy = zy2;
-            if (zx * zx + zy * zy > r2) break;
-        }
-        if (n == maxIteraciones) return 0xFF000000;
-
-        double modulo = Math.sqrt(zx * zx + zy * zy);
-        double nu = n + 1 - Math.log(Math.log(modulo)) / Math.log(2.0);
-        double t = Math.max(0.0, Math.min(1.0, nu / maxIteraciones));
-        float tono = (float) (0.95f + 10.0 * t); tono = tono - (float) Math.floor(tono);
-        int rgb = Color.HSBtoRGB(tono, 0.75f, 1.0f);
-        return (0xFF << 24) | (rgb & 0x00FFFFFF);
-    }
-
-    private void dibujarFractal() {
-        int w = getWidth(), h = getHeight();
-        if (w <= 0 || h <= 0) return;
-        if (imagen == null || imagen.getWidth() != w || imagen.getHeight() != h) {
-            imagen = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+    /** Nº de iteraciones continuo en c = (cx, cy) con el núcleo de la vista; NaN si es del interior. */
+    private double iteracionSuave(NucleoFractal f, double cx, double cy, int maxIteraciones) {
+        return f.parametro(cx, cy, maxIteraciones, radioEscape * radioEscape, deteccionInterior);
+    }
+
+    /** z^2 + c sin estado del panel (render por lotes). */
+    static double iteracionSuave(double cx, double cy, int maxIteraciones, double r2, boolean deteccionInterior) {
+        return NucleoFractal.CUADRATICO.parametro(cx, cy, maxIteraciones, r2, deteccionInterior);
+    }
+
+    /** Cardioide principal o bulbo de periodo 2 (forma cerrada): siempre interior. */
+    static boolean enCardioideOBulbo(double x, double y) {
+        return NucleoCuadratico.enCardioideOBulbo(x, y);
+    }
+
+    /** Normalized iteration count a partir de n y la z final; NaN si no escapó. */
+    static double valorSuave(int n, double zx, double zy, int maxIteraciones) {
+        return NucleoFractal.valorSuave(n, zx, zy, maxIteraciones, 2);
+    }
+
+    /**
+     * Valor en un punto continuo de la imagen de v (el centro del píxel
+     * (px, py) es px + 0.5, py + 0.5) con la precisión de la vista. En
+     * double, mismo cálculo que pixelAComplejo; en doble-double, el centro
+     * exacto más el desplazamiento.
+     */
+    private SupersamplingAdaptativo.Muestra muestreador(Vista v) {
+        final int w = v.ancho, h = v.alto, maxIter = v.maxIteraciones;
+        final NucleoFractal nucleoVista = v.nucleo;
+        final double x0 = v.xMinimo, spanX = v.xMaximo - v.xMinimo;
+        final double y0 = v.yMaximo, spanY = v.yMaximo - v.yMinimo;
+        final double r2 = radioEscape * radioEscape;
+        final boolean periodos = deteccionInterior;
+        if (v.precision == PrecisionEscape.Nivel.FLOAT) {
+            return (x, y) -> PrecisionEscape.mandelbrot((float) (x0 + spanX * x / w), (float) (y0 - spanY * y / h),
+                                                        maxIter, (float) r2, periodos);
+        }
+        if (v.precision == PrecisionEscape.Nivel.DOBLE_DOBLE) {
+            final double[] cx = PrecisionEscape.partir(v.centroX), cy = PrecisionEscape.partir(v.centroY);
+            final double anchura = v.anchura, altura = v.altura;
+            return (x, y) -> PrecisionEscape.parametro(nucleoVista, cx[0], cx[1], anchura * (x / w - 0.5),
+                    cy[0], cy[1], -altura * (y / h - 0.5), maxIter, r2, periodos);
+        }
+        return (x, y) -> (float) iteracionSuave(nucleoVista, x0 + spanX * x / w, y0 - spanY * y / h, maxIter);
+    }
+
+    /* ---------- Render desde la caché de teselas ---------- */
+
+    /**
+     * Compone la vista con teselas del quadtree del nivel cuyo espaciado no
+     * supera al de la pantalla: solo se calculan (en paralelo) las que faltan
+     * en la caché; el resto se reutiliza tras un desplazamiento o un zoom atrás.
+     */
+    private boolean dibujarDesdeCache(Vista v, float[] valores, BooleanSupplier cancelado) {
+        final int w = v.ancho, h = v.alto, maxIter = v.maxIteraciones, lado = CacheTeselas.LADO;
+        final int nivel = CacheTeselas.nivelPara(Math.min(v.anchura / w, v.altura / h));
+        final double ps = CacheTeselas.ladoMundo(nivel) / lado; // espaciado de la tesela
+        final double raiz = CacheTeselas.RAIZ_MIN, techo = CacheTeselas.RAIZ_MIN + CacheTeselas.RAIZ_LADO;
+
+        final long tx0 = Math.floorDiv((long) Math.floor((v.xMinimo - raiz) / ps), lado);
+        final long tx1 = Math.floorDiv((long) Math.floor((v.xMaximo - raiz) / ps), lado);
+        final long ty0 = Math.floorDiv((long) Math.floor((techo - v.yMaximo) / ps), lado);
+        final long ty1 = Math.floorDiv((long) Math.floor((techo - v.yMinimo) / ps), lado);
+        final int nx = (int) (tx1 - tx0 + 1), ny = (int) (ty1 - ty0 + 1);
+
+        final float[][] teselas = new float[nx * ny][];
+        List<Integer> faltan = new ArrayList<>();
+        for (int j = 0; j < ny; j++) {
+            for (int i = 0; i < nx; i++) {
+                float[] t = cache.obtener(new CacheTeselas.Clave(v.nucleo.nombre(), nivel, tx0 + i, ty0 + j, maxIter));
+                if (t == null) faltan.add(j * nx + i); else teselas[j * nx + i] = t;
+            }
+        }
+        boolean ok = renderizador.paraCada(faltan.size(), k -> {
+            int idx = faltan.get(k);
+            long tx = tx0 + idx % nx, ty = ty0 + idx / nx;
+            float[] t = new float[lado * lado];
+            for (int py = 0; py < lado; py++) {
+                if (cancelado.getAsBoolean()) return;
+                double y = techo - ps * (ty * lado + py + 0.5);
+                for (int px = 0; px < lado; px++) {
+                    double x = raiz + ps * (tx * lado + px + 0.5);
+                    t[py * lado + px] = (float) iteracionSuave(v.nucleo, x, y, maxIter);
+                }
+            }
+            cache.guardar(new CacheTeselas.Clave(v.nucleo.nombre(), nivel, tx, ty, maxIter), t);
+            teselas[idx] = t;
+        }, cancelado);
+        if (!ok) return false;
+
+        final double x0 = v.xMinimo, spanX = v.xMaximo - v.xMinimo;
+        final double y0 = v.yMaximo, spanY = v.yMaximo - v.yMinimo;
+        return renderizador.renderizarValores(valores, w, h, (px, py) -> {
+            long gx = (long) Math.floor((x0 + spanX * (px + 0.5) / w - raiz) / ps);
+            long gy = (long) Math.floor((techo - (y0 - spanY * (py + 0.5) / h)) / ps);
+            int i = (int) (Math.floorDiv(gx, lado) - tx0), j = (int) (Math.floorDiv(gy, lado) - ty0);
+            i = Math.max(0, Math.min(nx - 1, i)); j = Math.max(0, Math.min(ny - 1, j));
+            float[] t = teselas[j * nx + i];
+            int u = (int) Math.floorMod(gx, (long) lado), q = (int) Math.floorMod(gy, (long) lado);
+            return t[q * lado + u];
+        }, cancelado);
+    }
+
+    /** Calcula la vista en el hilo del planificador; null si se cancela. */
+    private Fotograma dibujarFractal(Vista v, BooleanSupplier cancelado, Consumer<Fotograma> parcial) {
+        int w = v.ancho, h = v.alto;
+        // Mismo cálculo que pixelAComplejo (mismo orden de operaciones => mismos bits)
+        final double x0 = v.xMinimo, spanX = v.xMaximo - v.xMinimo;
+        final double y0 = v.yMaximo, spanY = v.yMaximo - v.yMinimo;
+        try {
+            // Navegando se mantiene el último límite estimado; se reestima al parar
+            long nanosSondeo = 0;
+            if (v.iteracionesAuto && !v.soloGrueso) {
+                long t0 = System.nanoTime();
+                v = conIteracionesAuto(v, cancelado);
+                if (v == null) return null;
+                nanosSondeo = System.nanoTime() - t0;
+            }
+            // Solo los caminos que recorren la imagen por teselas dan mapa de tiempos
+            MetricasRender m = new MetricasRender(w, h, v.maxIteraciones, camino(v),
+                                                  !v.profunda && !v.cache && !v.marianiSilver);
+            m.sumarSondeo(nanosSondeo);
+            if (v.progresivo) return dibujarProgresivo(v, x0, spanX, y0, spanY, m, cancelado, parcial);
+            float[] valores = new float[w * h];
+            long t0 = System.nanoTime();
+            if (!calcularValores(v, valores, x0, spanX, y0, spanY, m.nanosTesela(), cancelado)) return null;
+            m.sumarCalculo(System.nanoTime() - t0);
+            return colorear(v, valores, 1, m, true, cancelado);
+        } catch (RejectedExecutionException e) {
+            return null; // el pool se cerró por un setHilos concurrente
+        }
+    }
+
+    /**
+     * Sondeo del modo automático: la vista a 1/8 de resolución por lado con
+     * límites crecientes, por el mismo camino que el render (perturbación
+     * en zoom profundo; en double, órbitas reanudables, que en cada límite
+     * solo continúan los píxeles pendientes). null si se cancela.
+     */
+    private Vista conIteracionesAuto(Vista v, BooleanSupplier cancelado) {
+        final int gw = Math.max(32, v.ancho / DIVISOR_SONDEO), gh = Math.max(18, v.alto / DIVISOR_SONDEO);
+        final EstimadorIteraciones.Sonda sonda;
+        if (v.profunda) {
+            sonda = limite -> {
+                float[] valores = new float[gw * gh];
+                PerturbacionProfunda motor = new PerturbacionProfunda(renderizador);
+                return motor.renderizar(valores, gw, gh, v.centroX, v.centroY, v.anchura, v.altura, limite, radioEscape,
+                        (n, zx, zy) -> (float) valorSuave(n, zx, zy, limite), cancelado) ? valores : null;
+            };
+        } else if (v.precision != PrecisionEscape.Nivel.DOUBLE) {
+            sonda = limite -> {
+                float[] valores = new float[gw * gh];
+                SupersamplingAdaptativo.Muestra m = muestreador(v.conMaxIteraciones(limite));
+                final double fx = (double) v.ancho / gw, fy = (double) v.alto / gh;
+                boolean completo = renderizador.recorrer(gw, gh,
+                        (px, py, i) -> valores[i] = m.valor((px + 0.5) * fx, (py + 0.5) * fy), cancelado);
+                return completo ? valores : null;
+            };
+        } else {
+            final boolean periodos = deteccionInterior;
+            final EstadoOrbitas estado = new EstadoOrbitas(v.centroX, v.centroY, v.anchura, v.altura, gw, gh, v.nucleo,
+                                                           periodos);
+            final double x0 = v.xMinimo, spanX = v.xMaximo - v.xMinimo;
+            final double y0 = v.yMaximo, spanY = v.yMaximo - v.yMinimo;
+            final double r2 = radioEscape * radioEscape;
+            sonda = limite -> {
+                float[] valores = new float[gw * gh];
+                boolean completo = renderizador.recorrer(gw, gh, (px, py, i) -> {
+                    if (estado.pendiente(i, limite)) {
+                        v.nucleo.continuar(estado, i, x0 + spanX * (px + 0.5) / gw, y0 - spanY * (py + 0.5) / gh,
+                                           limite, r2, periodos);
+                    }
+                    valores[i] = estado.valor(i, limite);
+                }, cancelado);
+                return completo ? valores : null;
+            };
+        }
+        EstimadorIteraciones estimador = new EstimadorIteraciones(MIN_ITERACIONES_AUTO, MAX_ITERACIONES);
+        int limite = estimador.estimar(sonda, v.maxIteraciones, cancelado);
+        if (limite < 0) return null;
+        estadoAuto = estimador.resumen();
+        return v.conMaxIteraciones(limite);
+    }
+
+    private static String camino(Vista v) {
+        if (v.profunda) return "perturbación";
+        String precision = v.precision == PrecisionEscape.Nivel.DOUBLE ? "" : " " + v.precision;
+        if (v.cache) return "caché";
+        if (v.marianiSilver) return "Mariani–Silver" + precision;
+        if (v.progresivo) return "progresivo";
+        return (v.simd ? "SIMD" : "directo") + precision;
+    }
+
+    /**
+     * Coloración separada: otra pasada paralela con la paleta precalculada.
+     * Si es el fotograma final, aplica el antialiasing de la vista y cierra
+     * sus métricas (y emite los eventos JFR).
+     */
+    private Fotograma colorear(Vista v, float[] valores, int paso, MetricasRender m, boolean fin,
+                               BooleanSupplier cancelado) {
+        long t0 = System.nanoTime();
+        BufferedImage destino = new BufferedImage(v.ancho, v.alto, BufferedImage.TYPE_INT_ARGB);
+        int[] datos = ((DataBufferInt) destino.getRaster().getDataBuffer()).getData();
+        PaletaLUT p = paleta;
+        if (!p.colorear(valores, datos, v.ancho, v.alto, v.maxIteraciones, renderizador, cancelado)) return null;
+        m.sumarColor(System.nanoTime() - t0);
+        if (!fin) return new Fotograma(destino, v, valores, paso, null, null);
+        SupersamplingAdaptativo.Resultado aa = null;
+        if (v.antialias != null) {
+            t0 = System.nanoTime();
+            aa = v.antialias.suavizar(datos, valores, v.ancho, v.alto, muestreador(v),
+                    p, v.maxIteraciones, renderizador, cancelado);
+            if (aa == null) return null;
+            m.sumarAntialias(System.nanoTime() - t0, aa.getMuestras());
+        }
+        m.terminar(valores, verMetricas);
+        return new Fotograma(destino, v, valores, paso, m, aa);
+    }
+
+    /**
+     * Camino directo por pasadas: primero un píxel de cada bloque 4×4, luego
+     * de cada 2×2 y luego todos, entregando cada pasada con los bloques aún
+     * sin calcular rellenos con el valor de su esquina. Las muestras son
+     * píxeles de la imagen final y quedan en el estado de órbitas, así que
+     * cada pasada solo itera los que faltan (y el fotograma final es el mismo
+     * que sin progresivo). Con v.soloGrueso solo se hace la primera, sin
+     * estado de órbitas: al arrastrar cada evento es una vista distinta.
+     */
+    private Fotograma dibujarProgresivo(Vista v, double x0, double spanX, double y0, double spanY,
+                                        MetricasRender m, BooleanSupplier cancelado, Consumer<Fotograma> parcial) {
+        final int w = v.ancho, h = v.alto, maxIter = v.maxIteraciones;
+        final NucleoFractal nucleoVista = v.nucleo;
+        final boolean periodos = deteccionInterior;
+        final double r2 = radioEscape * radioEscape;
+        if (v.soloGrueso) {
+            final int mascara = ~(PASO_GRUESO - 1);
+            long t0 = System.nanoTime();
+            float[] valores = new float[w * h];
+            if (!renderizador.recorrer(w, h, (px, py, i) -> {
+                if ((px & mascara) == px && (py & mascara) == py) {
+                    valores[i] = (float) nucleoVista.parametro(x0 + spanX * (px + 0.5) / w, y0 - spanY * (py + 0.5) / h,
+                                                               maxIter, r2, periodos);
+                }
+            }, cancelado, m.nanosTesela())) return null;
+            // Relleno en el sitio: las esquinas se reescriben con su propio valor
+            if (!renderizador.renderizarValores(valores, w, h,
+                    (px, py) -> valores[(py & mascara) * w + (px & mascara)], cancelado)) return null;
+            m.sumarCalculo(System.nanoTime() - t0);
+            return colorear(v, valores, PASO_GRUESO, m, true, cancelado);
         }
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-                double[] c = pixelAComplejo(x, y);
-                imagen.setRGB(x, y, colorEn(c[0], c[1]));
+        final EstadoOrbitas estado = estadoPara(v, periodos);
+        estado.reiniciarCuenta();
+        for (int paso = PASO_GRUESO; ; paso >>= 1) {
+            final int mascara = ~(paso - 1);
+            long t0 = System.nanoTime();
+            boolean completo = renderizador.recorrer(w, h, (px, py, i) -> {
+                if ((px & mascara) == px && (py & mascara) == py && estado.pendiente(i, maxIter)) {
+                    estado.contarIterado();
+                    nucleoVista.continuar(estado, i, x0 + spanX * (px + 0.5) / w, y0 - spanY * (py + 0.5) / h,
+                                          maxIter, r2, periodos);
+                }
+            }, cancelado, m.nanosTesela());
+            estadoOrbitas = estado; // lo avanzado se reutiliza en la pasada (o el render) siguiente
+            if (!completo) return null;
+            float[] valores = new float[w * h];
+            if (!renderizador.renderizarValores(valores, w, h,
+                    (px, py) -> estado.valor((py & mascara) * w + (px & mascara), maxIter), cancelado)) return null;
+            m.sumarCalculo(System.nanoTime() - t0);
+            boolean fin = paso == 1;
+            Fotograma f = colorear(v, valores, paso, m, fin, cancelado);
+            if (f == null) return null;
+            if (fin) {
+                estadoCamino = String.format("Órbitas: %d de %d píxeles iterados", estado.getIterados(), (long) w * h);
+                return f;
             }
+            parcial.accept(f);
+        }
+    }
+
+    /**
+     * Estado de órbitas de la vista: el guardado si es de la misma vista,
+     * núcleo y detección de interior (tecla I), si no uno nuevo.
+     */
+    private EstadoOrbitas estadoPara(Vista v, boolean periodos) {
+        EstadoOrbitas e = estadoOrbitas;
+        if (e == null || e.nucleo != v.nucleo || e.periodos != periodos
+                || !e.mismaVista(v.centroX, v.centroY, v.anchura, v.altura, v.ancho, v.alto)) {
+            e = new EstadoOrbitas(v.centroX, v.centroY, v.anchura, v.altura, v.ancho, v.alto, v.nucleo, periodos);
+        }
+        return e;
+    }
+
+    /** Rellena el búfer de iteraciones continuas de la vista por el camino que toque. */
+    private boolean calcularValores(Vista v, float[] valores, double x0, double spanX, double y0, double spanY,
+                                    long[] nanosTesela, BooleanSupplier cancelado) {
+        final int w = v.ancho, h = v.alto, maxIter = v.maxIteraciones;
+        if (v.profunda) {
+            PerturbacionProfunda motor = new PerturbacionProfunda(renderizador);
+            boolean completo = motor.renderizar(valores, w, h, v.centroX, v.centroY, v.anchura, v.altura,
+                    maxIter, radioEscape, (n, zx, zy) -> (float) valorSuave(n, zx, zy, maxIter), cancelado);
+            if (!completo) return false;
+            estadoCamino = null;
+            estadoProfundo = String.format("Perturbación: salto %d it · %d rebases · %d glitch",
+                    motor.getIteracionesSaltadas(), motor.getRebases(), motor.getPixelesGlitch());
+            return true;
+        }
+        estadoProfundo = null;
+        if (v.cache) {
+            estadoCamino = null;
+            return dibujarDesdeCache(v, valores, cancelado);
         }
+        final NucleoFractal nucleoVista = v.nucleo;
+        final SupersamplingAdaptativo.Muestra muestra = muestreador(v);
+        RenderizadorParalelo.FuncionValor f = (px, py) -> muestra.valor(px + 0.5, py + 0.5);
+        if (v.marianiSilver) {
+            RellenoMarianiSilver relleno = new RellenoMarianiSilver(renderizador);
+            if (!relleno.renderizar(valores, w, h, f, cancelado)) return false;
+            long saltados = relleno.getPixelesSaltados();
+            estadoCamino = String.format("Mariani–Silver: %d píxeles saltados (%.1f%%)",
+                    saltados, 100.0 * saltados / ((long) w * h));
+            return true;
+        }
+        estadoCamino = null;
+        if (v.simd && (simdVerificado || verificarSimd(v))) {
+            final NucleoSIMD nucleo = nucleoSimd;
+            final boolean interior = deteccionInterior;
+            final double r2 = radioEscape * radioEscape;
+            if (v.precision == PrecisionEscape.Nivel.FLOAT) {
+                return renderizador.recorrerFilas(w, h, (py, xa, xb, i) -> {
+                    float[] cx = new float[xb - xa];
+                    for (int x = xa; x < xb; x++) cx[x - xa] = (float) (x0 + spanX * (x + 0.5) / w);
+                    nucleo.mandelbrot(cx, (float) (y0 - spanY * (py + 0.5) / h), xb - xa, maxIter, (float) r2,
+                                      interior, PrecisionEscape.TOLERANCIA_FLOAT, valores, i);
+                }, cancelado, nanosTesela);
+            }
+            return renderizador.recorrerFilas(w, h, (py, xa, xb, i) -> {
+                double[] cx = new double[xb - xa];
+                for (int x = xa; x < xb; x++) cx[x - xa] = x0 + spanX * (x + 0.5) / w;
+                nucleo.mandelbrot(cx, y0 - spanY * (py + 0.5) / h, xb - xa, maxIter, r2,
+                                  interior, TOLERANCIA_PERIODO, valores, i);
+            }, cancelado, nanosTesela);
+        }
+
+        if (v.precision != PrecisionEscape.Nivel.DOUBLE) {
+            return renderizador.recorrer(w, h, (px, py, i) -> valores[i] = muestra.valor(px + 0.5, py + 0.5),
+                                         cancelado, nanosTesela);
+        }
+
+        // Camino directo con órbitas reanudables: solo se itera lo pendiente
+        final boolean periodos = deteccionInterior;
+        final EstadoOrbitas estado = estadoPara(v, periodos);
+        final double r2 = radioEscape * radioEscape;
+        estado.reiniciarCuenta();
+        boolean completo = renderizador.recorrer(w, h, (px, py, i) -> {
+            if (estado.pendiente(i, maxIter)) {
+                estado.contarIterado();
+                nucleoVista.continuar(estado, i, x0 + spanX * (px + 0.5) / w, y0 - spanY * (py + 0.5) / h,
+                                      maxIter, r2, periodos);
+            }
+            valores[i] = estado.valor(i, maxIter);
+        }, cancelado, nanosTesela);
+        estadoOrbitas = estado; // aunque se cancele, lo avanzado sigue siendo válido
+        if (completo) {
+            estadoCamino = String.format("Órbitas: %d de %d píxeles iterados", estado.getIterados(), (long) w * h);
+        }
+        return completo;
+    }
+
+    /**
+     * Compara el núcleo vectorial con iteracionSuave (y sus carriles float
+     * con PrecisionEscape), bit a bit, en una rejilla de muestra de la vista.
+     * Si alguno difiere se desactiva y el render sigue por el camino escalar.
+     */
+    private boolean verificarSimd(Vista v) {
+        final int lado = 64, maxIter = v.maxIteraciones;
+        final double r2 = radioEscape * radioEscape;
+        final double spanX = v.xMaximo - v.xMinimo, spanY = v.yMaximo - v.yMinimo;
+        float[] vectorial = new float[2 * lado * lado], escalar = new float[2 * lado * lado];
+        double[] cx = new double[lado];
+        float[] fx = new float[lado];
+        for (int py = 0; py < lado; py++) {
+            double cy = v.yMaximo - spanY * (py + 0.5) / lado;
+            for (int px = 0; px < lado; px++) {
+                cx[px] = v.xMinimo + spanX * (px + 0.5) / lado;
+                fx[px] = (float) cx[px];
+                escalar[py * lado + px] = (float) iteracionSuave(NucleoFractal.CUADRATICO, cx[px], cy, maxIter);
+                escalar[(lado + py) * lado + px] = PrecisionEscape.mandelbrot(fx[px], (float) cy, maxIter, (float) r2,
+                                                                              deteccionInterior);
+            }
+            nucleoSimd.mandelbrot(cx, cy, lado, maxIter, r2, deteccionInterior, TOLERANCIA_PERIODO,
+                                  vectorial, py * lado);
+            nucleoSimd.mandelbrot(fx, (float) cy, lado, maxIter, (float) r2, deteccionInterior,
+                                  PrecisionEscape.TOLERANCIA_FLOAT, vectorial, (lado + py) * lado);
+        }
+        int distintos = NucleoSIMD.verificar(vectorial, escalar);
+        if (distintos > 0) {
+            usarSimd = false;
+            estadoSimd = String.format("SIMD desactivado: %d de %d muestras difieren del escalar",
+                    distintos, 2 * lado * lado);
+            return false;
+        }
+        simdVerificado = true;
+        estadoSimd = String.format("SIMD: %d carriles double, %d float · verificado contra escalar (%d muestras)",
+                nucleoSimd.carriles(), nucleoSimd.carrilesFloat(), 2 * lado * lado);
+        return true;
+    }
+
+    /** Vuelve a colorear el último fotograma con la paleta actual, sin iterar. */
+    private void recolorear() {
+        if (imagen == null || valoresImagen == null || vistaImagen == null) { repaint(); return; }
+        Vista v = vistaImagen;
+        BufferedImage nueva = new BufferedImage(v.ancho, v.alto, BufferedImage.TYPE_INT_ARGB);
+        int[] datos = ((DataBufferInt) nueva.getRaster().getDataBuffer()).getData();
+        PaletaLUT p = paleta;
+        p.colorear(valoresImagen, datos, v.ancho, v.alto, v.maxIteraciones, renderizador, () -> false);
+        if (antialiasImagen != null) antialiasImagen.aplicar(datos, p, v.maxIteraciones); // mismas muestras, sin iterar
+        imagen = nueva;
+        repaint();
+    }
+
+    /** Lanza el render de la vista actual; cancela el que estuviera en curso. */
+    private void solicitarRender() {
         necesitaRedibujar = false;
+        if (getWidth() <= 0 || getHeight() <= 0) return;
+        final Vista v = vistaActual();
+        gruesoPendiente = v.soloGrueso;
+        planificador.solicitarProgresivo((cancelado, parcial) -> dibujarFractal(v, cancelado, parcial), f -> {
+            imagen = f.imagen;
+            vistaImagen = f.vista;
+            valoresImagen = f.valores;
+            antialiasImagen = f.antialias;
+            pasoImagen = f.paso;
+            if (f.metricas != null) metricas = f.metricas;
+            if (iteracionesAuto && f.vista.iteracionesAuto) maxIteraciones = f.vista.maxIteraciones;
+            repaint();
+        });
+    }
+
+    /* ---------- Navegación continua ---------- */
+
+    /** Apunta un evento de navegación; la pasada completa espera a que paren. */
+    private void navegar() {
+        navegando = true;
+        finNavegacion.restart();
+    }
+
+    private void finDeNavegacion() {
+        navegando = false;
+        if (gruesoPendiente) recalcularTodo();
+    }
+
+    /** Arrastre con el botón derecho: la imagen sigue al ratón. */
+    private void desplazarPixeles(int dx, int dy) {
+        if (dx == 0 && dy == 0) return;
+        navegar();
+        moverCentro(-anchuraMundo * dx / getWidth(), alturaMundo * dy / getHeight(), anchuraMundo, alturaMundo);
+        recalcularTodo();
+    }
+
+    /** Cambia el nº de hilos del render (1 = secuencial). */
+    public void setHilos(int hilos) {
+        if (hilos == renderizador.getHilos()) return;
+        RenderizadorParalelo anterior = renderizador;
+        renderizador = new RenderizadorParalelo(hilos);
+        planificador.cancelar();
+        anterior.cerrar();
+        recalcularTodo();
+    }
+
+    private void recalcularTodo() { solicitarRender(); repaint(); }
+
+    /**
+     * Render completo y síncrono a ancho×alto en el hilo llamante, sin
+     * planificador ni órbitas de renders anteriores (bancos de pruebas, uso
+     * sin pantalla). Devuelve las iteraciones continuas por píxel.
+     */
+    float[] renderizarAhora(int ancho, int alto) {
+        if (getWidth() != ancho || getHeight() != alto) {
+            setSize(ancho, alto);
+            ajustarAspectoAlViewport();
+        }
+        estadoOrbitas = null;
+        Fotograma f = dibujarFractal(vistaActual(), () -> false, r -> { });
+        if (f == null) throw new IllegalStateException("Render cancelado");
+        return f.valores;
     }
 
-    private void recalcularTodo() { imagen = null; necesitaRedibujar = true; dibujarFractal(); repaint(); }
+    /** Región visible: {xMinimo, xMaximo, yMinimo, yMaximo}. */
+    double[] region() { return new double[]{xMinimo, xMaximo, yMinimo, yMaximo}; }
+
+    /** Centra la vista en una región con nombre ({nombre, x, y, anchura}) por el camino de la caché. */
+    private void irARegion(String[] r) {
+        double anchura = Double.parseDouble(r[3]);
+        fijarVista(new BigDecimal(r[1]), new BigDecimal(r[2]), anchura, anchura);
+        ajustarAspectoAlViewport();
+        usarCache = true;
+        recalcularTodo();
+    }
 
     /* ---------- Zoom centrado / recentrar ---------- */
     private void hacerZoomEn(int px, int py, double escala) {
-        double[] c = pixelAComplejo(px, py);
-        double cx = c[0], cy = c[1];
-        double w = (xMaximo - xMinimo) * escala, h = (yMaximo - yMinimo) * escala;
-        xMinimo = cx - w / 2.0; xMaximo = cx + w / 2.0;
-        yMinimo = cy - h / 2.0; yMaximo = cy + h / 2.0;
+        moverCentro(desplazamientoX(px), desplazamientoY(py), anchuraMundo * escala, alturaMundo * escala);
         recalcularTodo();
     }
     private void recentrarEn(int px, int py) {
-        double[] c = pixelAComplejo(px, py);
-        double cx = c[0], cy = c[1];
-        double w = (xMaximo - xMinimo), h = (yMaximo - yMinimo);
-        xMinimo = cx - w / 2.0; xMaximo = cx + w / 2.0;
-        yMinimo = cy - h / 2.0; yMaximo = cy + h / 2.0;
+        moverCentro(desplazamientoX(px), desplazamientoY(py), anchuraMundo, alturaMundo);
         recalcularTodo();
     }
 
@@ -159,10 +824,10 @@ public class AlgoritmoEscape extends JPanel {
         int y2 = Math.min(getHeight() - 1, Math.max(a.y, b.y));
         if (x2 - x1 < 10 || y2 - y1 < 10) return;
 
-        double[] cInfIzq = pixelAComplejo(x1, y2); // inf-izda
-        double[] cSupDer = pixelAComplejo(x2, y1); // sup-dcha
-        xMinimo = cInfIzq[0]; yMinimo = cInfIzq[1];
-        xMaximo = cSupDer[0]; yMaximo = cSupDer[1];
+        // centro del recuadro (entre los centros de los píxeles inf-izda y sup-dcha)
+        double anchura = anchuraMundo * (x2 - x1) / getWidth();
+        double altura = alturaMundo * (y2 - y1) / getHeight();
+        moverCentro(desplazamientoX((x1 + x2) / 2.0), desplazamientoY((y1 + y2) / 2.0), anchura, altura);
         ajustarAspectoAlViewport(); // mantén aspecto del viewport
         recalcularTodo();
     }
@@ -193,8 +858,8 @@ public class AlgoritmoEscape extends JPanel {
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        if (necesitaRedibujar) dibujarFractal();
-        if (imagen != null) g.drawImage(imagen, 0, 0, null);
+        if (necesitaRedibujar) solicitarRender();
+        nanosPintado = MetricasRender.medirPintado(() -> dibujarImagenActual(g));
 
         // Rejilla y ejes dinámicos
         dibujarEjes((Graphics2D) g);
@@ -219,13 +884,84 @@ public class AlgoritmoEscape extends JPanel {
         dibujarHUDSuperior(g);
     }
 
+    /**
+     * Pinta el último fotograma terminado. Si la vista ha cambiado desde
+     * entonces, se reescala a su posición en la vista actual mientras el
+     * nuevo se calcula en segundo plano.
+     */
+    private void dibujarImagenActual(Graphics g) {
+        if (imagen == null || vistaImagen == null) return;
+        Vista v = vistaImagen;
+        int w = getWidth(), h = getHeight();
+        if (v.centroX.equals(centroX) && v.centroY.equals(centroY) && v.anchura == anchuraMundo
+                && v.altura == alturaMundo && v.ancho == w && v.alto == h) {
+            g.drawImage(imagen, 0, 0, null);
+            return;
+        }
+        // Posición relativa al centro actual: válida también en zoom profundo
+        double offX = v.centroX.subtract(centroX).doubleValue() / anchuraMundo;
+        double offY = v.centroY.subtract(centroY).doubleValue() / alturaMundo;
+        double sx = v.anchura / anchuraMundo, sy = v.altura / alturaMundo;
+        int dx1 = (int) Math.round((0.5 + offX - sx / 2) * w), dx2 = (int) Math.round((0.5 + offX + sx / 2) * w);
+        int dy1 = (int) Math.round((0.5 - offY - sy / 2) * h), dy2 = (int) Math.round((0.5 - offY + sy / 2) * h);
+        g.drawImage(imagen, dx1, dy1, dx2, dy2, 0, 0, imagen.getWidth(), imagen.getHeight(), null);
+    }
+
     private void dibujarHUDSuperior(Graphics g) {
-        int hudW = 370, hudH = 54, m = 10;
+        List<String> extra = new ArrayList<>();
+        String textoRegion = String.format("Región: [%.6f, %.6f] × [%.6f, %.6f]", xMinimo, xMaximo, yMinimo, yMaximo);
+        String textoProfundo = estadoProfundo;
+        if (textoProfundo != null) {
+            textoRegion = String.format("Zoom profundo: ancho %.3e (%d dígitos)", anchuraMundo,
+                    PerturbacionProfunda.precisionPara(anchuraMundo / Math.max(1, getWidth())).getPrecision());
+            extra.add(textoProfundo);
+        }
+        extra.add(textoPrecision());
+        String textoRelleno = estadoCamino;
+        if (textoRelleno != null) extra.add(textoRelleno);
+        if (estadoSimd != null) extra.add(estadoSimd);
+        if (nucleo != NucleoFractal.CUADRATICO) extra.add("Núcleo: " + nucleo.nombre() + " (N cambia)");
+        if (iteracionesAuto) extra.add(estadoAuto != null ? estadoAuto : "Iteraciones auto: sondeando…");
+        if (progresivo) {
+            Vista vi = vistaImagen;
+            if (vi != null && !vi.progresivo) extra.add("Progresivo: solo en el camino directo (sin P, C, M ni V)");
+            else if (pasoImagen > 1) extra.add(String.format("Progresivo: pasada 1/%d%s",
+                    pasoImagen * pasoImagen, navegando ? " · navegando" : ""));
+            else extra.add("Progresivo: completo");
+        }
+        if (antialias != null) {
+            SupersamplingAdaptativo.Resultado aa = antialiasImagen;
+            Vista vi = vistaImagen;
+            if (vi != null && vi.profunda) extra.add("Antialiasing: no en zoom profundo");
+            else if (aa == null) extra.add("Antialiasing " + antialias.getPatron() + ": pendiente");
+            else extra.add(String.format("Antialiasing %s: %d píxeles (%.1f%%) · %d muestras extra%s",
+                    antialias.getPatron(), aa.getPixeles(), 100.0 * aa.getPixeles() / Math.max(1, valoresImagen.length),
+                    aa.getMuestras(), aa.getCandidatos() > aa.getPixeles()
+                            ? String.format(" · presupuesto agotado (%d candidatos)", aa.getCandidatos()) : ""));
+        }
+        if (usarCache) {
+            extra.add(String.format("Caché: %d aciertos · %d fallos · %d teselas (%d MB)",
+                    cache.getAciertos(), cache.getFallos(), cache.getTeselas(), cache.getBytes() >> 20));
+            AlmacenTeselas disco = cache.getDisco();
+            if (disco != null) {
+                extra.add(String.format("Disco: %d aciertos · %d escritas · %d expulsadas · %d MB en %s",
+                        cache.getAciertosDisco(), disco.getEscritas(), disco.getExpulsadas(),
+                        disco.getBytes() >> 20, disco.getRaiz()));
+            }
+        }
+
+        MetricasRender mr = verMetricas ? metricas : null;
+        if (mr != null) extra.addAll(mr.resumen(nanosPintado));
+
+        int hudW = 370, m = 10;
+        FontMetrics fm = g.getFontMetrics();
+        for (String s : extra) hudW = Math.max(hudW, fm.stringWidth(s) + 20);
+        final int anchoMapa = 160, altoMapa = mr != null ? mr.altoMapa(anchoMapa) : 0;
+        int hudH = 54 + 18 * extra.size() + (altoMapa > 0 ? altoMapa + 4 : 0);
         int xHud = m, yHud = m; // arriba-izquierda
         g.setColor(new Color(0, 0, 0, 160));
         g.fillRect(xHud, yHud, hudW, hudH);
         g.setColor(Color.WHITE);
-        String textoRegion = String.format("Región: [%.6f, %.6f] × [%.6f, %.6f]", xMinimo, xMaximo, yMinimo, yMaximo);
         g.drawString(textoRegion, xHud + 10, yHud + 18);
 
         String textoCursor = "Cursor: —";
@@ -233,13 +969,40 @@ public class AlgoritmoEscape extends JPanel {
             double[] c = pixelAComplejo(cursor.x, cursor.y);
             textoCursor = String.format("Cursor: (%.6f, %.6f)", c[0], c[1]);
         }
+        if (planificador.pendiente()) textoCursor += "   · calculando…";
         g.drawString(textoCursor, xHud + 10, yHud + 36);
+
+        for (int i = 0; i < extra.size(); i++) {
+            g.drawString(extra.get(i), xHud + 10, yHud + 54 + 18 * i);
+        }
+        // Mapa de tiempo por tesela bajo el texto
+        if (altoMapa > 0) mr.dibujarMapa(g, xHud + 10, yHud + 44 + 18 * extra.size(), anchoMapa);
+    }
+
+    /** Nivel de precisión del fotograma visible y el espaciado relativo de la vista actual. */
+    private String textoPrecision() {
+        Vista vi = vistaImagen;
+        if (vi == null) return "Precisión: —";
+        if (vi.profunda) return "Precisión: perturbación (referencia en BigDecimal, deltas en double)";
+        double relativo = anchuraMundo / Math.max(1, getWidth()) / escalaVista();
+        String texto = String.format("Precisión: %s (%d bits) · espaciado relativo %.1e",
+                vi.precision, vi.precision.bits, relativo);
+        if (vi.precision == PrecisionEscape.Nivel.DOUBLE
+                && PrecisionEscape.para(vi.anchura / vi.ancho, escalaVista(), vi.nucleo) == PrecisionEscape.Nivel.FLOAT) {
+            texto += " · float con V o M";
+        } else if (vi.precision == PrecisionEscape.Nivel.DOUBLE && vi.nucleo != NucleoFractal.CUADRATICO
+                && esProfundo(vi.anchura, vi.ancho)) {
+            texto += " · sin doble-double para " + vi.nucleo.nombre();
+        }
+        return texto;
     }
 
     /* ---------- Ejes y marcas dinámicas ---------- */
     private void dibujarEjes(Graphics2D g2) {
         int w = getWidth(), h = getHeight();
         if (w <= 0 || h <= 0) return;
+        // En zoom profundo los límites en double ya no distinguen las marcas
+        if (esProfundo(anchuraMundo, w)) return;
 
         Graphics2D g = (Graphics2D) g2.create();
         g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -329,16 +1092,67 @@ public class AlgoritmoEscape extends JPanel {
                 switch (e.getKeyCode()) {
                     case KeyEvent.VK_PLUS:
                     case KeyEvent.VK_EQUALS:
-                        maxIteraciones = (int) Math.min(200000, Math.round(maxIteraciones * 1.25));
+                        maxIteraciones = (int) Math.min(MAX_ITERACIONES, Math.round(maxIteraciones * 1.25));
+                        iteracionesAuto = false; // el ajuste manual sale del modo automático
                         recalcularTodo(); break;
                     case KeyEvent.VK_MINUS:
                         maxIteraciones = (int) Math.max(10, Math.round(maxIteraciones / 1.25));
+                        iteracionesAuto = false;
                         recalcularTodo(); break;
                     case KeyEvent.VK_R:
-                        xMinimo = -2.5; xMaximo = 1.0; yMinimo = -1.25; yMaximo = 1.25;
+                        fijarVista(new BigDecimal("-0.75"), BigDecimal.ZERO, 3.5, 2.5);
                         ajustarAspectoAlViewport();
                         maxIteraciones = 1000;
                         recalcularTodo(); break;
+                    case KeyEvent.VK_I:
+                        deteccionInterior = !deteccionInterior;
+                        simdVerificado = false;
+                        recalcularTodo(); break;
+                    case KeyEvent.VK_M:
+                        marianiSilver = !marianiSilver;
+                        recalcularTodo(); break;
+                    case KeyEvent.VK_V:
+                        if (nucleoSimd == null) {
+                            estadoSimd = "SIMD no disponible (arrancar con --add-modules jdk.incubator.vector)";
+                            repaint(); break;
+                        }
+                        usarSimd = !usarSimd;
+                        simdVerificado = false;
+                        estadoSimd = usarSimd ? "SIMD: activo en el camino directo (sin M, C ni P)" : null;
+                        recalcularTodo(); break;
+                    case KeyEvent.VK_C:
+                        usarCache = !usarCache;
+                        recalcularTodo(); break;
+                    case KeyEvent.VK_L:
+                        paleta = paleta.siguienteEsquema();
+                        recolorear(); break;
+                    case KeyEvent.VK_COMMA:
+                        paleta = paleta.conContraste(paleta.getContraste() / 1.25);
+                        recolorear(); break;
+                    case KeyEvent.VK_PERIOD:
+                        paleta = paleta.conContraste(paleta.getContraste() * 1.25);
+                        recolorear(); break;
+                    case KeyEvent.VK_P:
+                        perturbacionForzada = !perturbacionForzada;
+                        recalcularTodo(); break;
+                    case KeyEvent.VK_N:
+                        nucleo = NucleoFractal.siguiente(nucleo, false);
+                        recalcularTodo(); break;
+                    case KeyEvent.VK_G:
+                        progresivo = !progresivo;
+                        recalcularTodo(); break;
+                    case KeyEvent.VK_A:
+                        iteracionesAuto = !iteracionesAuto;
+                        estadoAuto = null;
+                        recalcularTodo(); break;
+                    case KeyEvent.VK_T:
+                        verMetricas = !verMetricas;
+                        recalcularTodo(); break;
+                    case KeyEvent.VK_S:
+                        antialias = SupersamplingAdaptativo.siguiente(antialias);
+                        recalcularTodo(); break;
+                    case KeyEvent.VK_1: case KeyEvent.VK_2: case KeyEvent.VK_3: case KeyEvent.VK_4:
+                        irARegion(REGIONES[e.getKeyCode() - KeyEvent.VK_1]); break;
                 }
             }
         });
@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Segundo nivel de CacheTeselas en disco: las mismas teselas del quadtree,
+ * una por fichero, que sobreviven entre sesiones.
+ *
+ * Ruta: raiz/nucleo/it{maxIteraciones}/n{nivel}/{tx}_{ty}.tsl. Formato
+ * (orden de bytes nativo): cabecera de CABECERA bytes (MAGIA, VERSION, LADO,
+ * maxIteraciones, nivel, CRC32C de los datos, tx, ty) y LADO × LADO float.
+ * Se lee mapeando el fichero y copiando los float de golpe; un tamaño, una
+ * cabecera o un CRC que no cuadran cuentan como fallo y el fichero se
+ * borra. Cualquier otro error de E/S es solo un fallo.
+ *
+ * Escrituras en segundo plano, de una en una: fichero temporal mapeado y
+ * renombrado atómico, así que un lector (de este u otro proceso) ve la
+ * tesela entera o no la ve; dos procesos que escriben la misma dejan una
+ * de las dos, que son iguales. Cada lectura renueva en el momento (no
+ * por la cola) la fecha de modificación y, si el total pasa del tope, se
+ * borran las más antiguas hasta quedar en el 90%. Si la cola de escritura
+ * está llena, la tesela no se guarda (se volverá a calcular).
+ */
+public final class AlmacenTeselas {
+
+    private static final int MAGIA = 0x5453454C; // "TSEL"
+    private static final int VERSION = 1;
+    private static final int CABECERA = 40;
+    private static final int LADO = CacheTeselas.LADO;
+    private static final long BYTES_FICHERO = CABECERA + (long) LADO * LADO * Float.BYTES;
+    private static final String EXTENSION = ".tsl";
+
+    private final Path raiz;
+    private final long maxBytes;
+    private final AtomicLong bytes = new AtomicLong();
+    private final LongAdder leidas = new LongAdder(), escritas = new LongAdder(), expulsadas = new LongAdder();
+    private final ThreadPoolExecutor escritor;
+
+    public AlmacenTeselas(Path raiz, long maxBytes) throws IOException {
+        if (maxBytes < BYTES_FICHERO) throw new IllegalArgumentException("tope insuficiente para una tesela: " + maxBytes);
+        this.raiz = Files.createDirectories(raiz);
+        this.maxBytes = maxBytes;
+        escritor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(256), r -> {
+            Thread t = new Thread(r, "almacen-teselas");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        escritor.execute(() -> bytes.set(recorrer(Long.MAX_VALUE)));
+    }
+
+    /**
+     * Almacén por defecto, solo si se pide con -Dfractal.almacen=<ruta>,
+     * con tope -Dfractal.almacenMB (1024). null si no se pide o no se
+     * puede crear el directorio.
+     */
+    public static AlmacenTeselas porDefecto() {
+        String ruta = System.getProperty("fractal.almacen");
+        if (ruta == null || ruta.isBlank()) return null;
+        long megas = Long.getLong("fractal.almacenMB", 1024L);
+        try {
+            AlmacenTeselas a = new AlmacenTeselas(Paths.get(ruta), megas * 1024 * 1024);
+            System.err.printf(Locale.ROOT, "Almacén de teselas en %s (tope %d MB)%n", a.raiz.toAbsolutePath(), megas);
+            return a;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Almacén de teselas desactivado: " + e);
+            return null;
+        }
+    }
+
+    private Path ruta(CacheTeselas.Clave k) {
+        return raiz.resolve(k.nucleo).resolve("it" + k.maxIteraciones).resolve("n" + k.nivel)
+                   .resolve(k.tx + "_" + k.ty + EXTENSION);
+    }
+
+    /** La tesela guardada o null. */
+    public float[] leer(CacheTeselas.Clave k) {
+        Path p = ruta(k);
+        float[] t;
+        try (FileChannel canal = FileChannel.open(p, StandardOpenOption.READ)) {
+            t = cargar(canal, k);
+        } catch (IOException e) {
+            return null; // no está, o fallo pasajero (descriptores, map...): el fichero se queda
+        }
+        if (t == null) {
+            borrar(p); // dañada o de otra versión: se recalculará
+            return null;
+        }
+        leidas.increment();
+        tocar(p); // aquí y no en la cola: no debe quitar sitio a las escrituras
+        return t;
+    }
+
+    /** Los valores del fichero, o null si el tamaño, la cabecera o el CRC no cuadran. */
+    private static float[] cargar(FileChannel canal, CacheTeselas.Clave k) throws IOException {
+        if (canal.size() != BYTES_FICHERO) return null;
+        MappedByteBuffer m = canal.map(FileChannel.MapMode.READ_ONLY, 0, BYTES_FICHERO);
+        m.order(ByteOrder.nativeOrder());
+        if (m.getInt(0) != MAGIA || m.getInt(4) != VERSION || m.getInt(8) != LADO
+                || m.getInt(12) != k.maxIteraciones || m.getInt(16) != k.nivel
+                || m.getLong(24) != k.tx || m.getLong(32) != k.ty) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(m.slice(CABECERA, (int) (BYTES_FICHERO - CABECERA)));
+        if ((int) crc.getValue() != m.getInt(20)) return null;
+        float[] t = new float[LADO * LADO];
+        m.slice(CABECERA, (int) (BYTES_FICHERO - CABECERA)).order(ByteOrder.nativeOrder()).asFloatBuffer().get(t);
+        return t;
+    }
+
+    /** Encola la escritura de la tesela (copia no necesaria: las teselas no se modifican). */
+    public void guardarEnSegundoPlano(CacheTeselas.Clave k, float[] valores) {
+        escritor.execute(() -> escribir(k, valores));
+    }
+
+    private void escribir(CacheTeselas.Clave k, float[] valores) {
+        Path p = ruta(k);
+        if (Files.exists(p)) return;
+        Path tmp = null;
+        try {
+            Files.createDirectories(p.getParent());
+            tmp = p.resolveSibling(".tmp-" + Long.toHexString(ThreadLocalRandom.current().nextLong()));
+            try (FileChannel canal = FileChannel.open(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                MappedByteBuffer m = canal.map(FileChannel.MapMode.READ_WRITE, 0, BYTES_FICHERO);
+                m.order(ByteOrder.nativeOrder());
+                ByteBuffer datos = m.slice(CABECERA, (int) (BYTES_FICHERO - CABECERA)).order(ByteOrder.nativeOrder());
+                datos.asFloatBuffer().put(valores);
+                CRC32C crc = new CRC32C();
+                crc.update(datos);
+                m.putInt(0, MAGIA).putInt(4, VERSION).putInt(8, LADO).putInt(12, k.maxIteraciones)
+                 .putInt(16, k.nivel).putInt(20, (int) crc.getValue()).putLong(24, k.tx).putLong(32, k.ty);
+            }
+            Files.move(tmp, p, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+            escritas.increment();
+            if (bytes.addAndGet(BYTES_FICHERO) > maxBytes) bytes.set(recorrer(maxBytes * 9 / 10));
+        } catch (IOException e) {
+            // disco lleno, permisos...: la tesela sigue en memoria y se recalculará en otra sesión
+        } finally {
+            if (tmp != null) borrar(tmp);
+        }
+    }
+
+    /**
+     * Tamaño de las teselas guardadas (de todos los procesos), tras borrar
+     * las de fecha más antigua hasta no pasar del tope.
+     */
+    private long recorrer(long tope) {
+        List<Path> rutas = new ArrayList<>();
+        List<FileTime> fechas = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> ficheros = Files.walk(raiz)) {
+            for (Path p : (Iterable<Path>) ficheros::iterator) {
+                String nombre = p.getFileName().toString();
+                boolean temporal = nombre.startsWith(".tmp-");
+                if (!temporal && !nombre.endsWith(EXTENSION)) continue;
+                try {
+                    BasicFileAttributes a = Files.readAttributes(p, BasicFileAttributes.class);
+                    if (temporal) { // restos de un proceso que murió escribiendo
+                        if (System.currentTimeMillis() - a.lastModifiedTime().toMillis() > TimeUnit.HOURS.toMillis(1)) borrar(p);
+                        continue;
+                    }
+                    rutas.add(p); fechas.add(a.lastModifiedTime());
+                    total += a.size();
+                } catch (IOException e) {
+                    // expulsada por otro proceso entre el listado y la lectura
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return total;
+        }
+        if (total <= tope) return total;
+        Integer[] orden = new Integer[rutas.size()];
+        for (int i = 0; i < orden.length; i++) orden[i] = i;
+        Arrays.sort(orden, (a, b) -> fechas.get(a).compareTo(fechas.get(b)));
+        for (int i = 0; i < orden.length && total > tope; i++) {
+            if (borrar(rutas.get(orden[i]))) { total -= BYTES_FICHERO; expulsadas.increment(); }
+        }
+        borrarVacios(raiz);
+        return total;
+    }
+
+    private static void borrarVacios(Path dir) {
+        try (DirectoryStream<Path> hijos = Files.newDirectoryStream(dir, Files::isDirectory)) {
+            for (Path h : hijos) {
+                borrarVacios(h);
+                try { Files.delete(h); } catch (IOException e) { /* no vacío u otro proceso escribiendo */ }
+            }
+        } catch (IOException e) {
+            // listado imposible: se intentará en la próxima expulsión
+        }
+    }
+
+    private static void tocar(Path p) {
+        try { Files.setLastModifiedTime(p, FileTime.fromMillis(System.currentTimeMillis())); } catch (IOException e) { /* expulsada */ }
+    }
+
+    private static boolean borrar(Path p) {
+        try { return Files.deleteIfExists(p); } catch (IOException e) { return false; }
+    }
+
+    /** Espera a que se vacíe la cola de escritura (para pruebas y al cerrar); false si no da tiempo. */
+    public boolean esperarEscrituras(long milis) throws InterruptedException {
+        // Un solo hilo y cola FIFO: cuando corre la marca, lo encolado antes ya terminó
+        // (cola y activos pueden estar a 0 a la vez entre sacar una tarea y empezarla)
+        Future<?> marca = escritor.submit(() -> { });
+        try {
+            marca.get(milis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false; // o descartada con la cola llena
+        }
+    }
+
+    public Path getRaiz() { return raiz; }
+    public long getBytes() { return bytes.get(); }
+    public long getLeidas() { return leidas.sum(); }
+    public long getEscritas() { return escritas.sum(); }
+    public long getExpulsadas() { return expulsadas.sum(); }
+}
@@ -0,0 +1,373 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Secuencia de fotogramas de un zoom exponencial del conjunto de Mandelbrot
+ * entre fotogramas clave (centro, anchura, iteraciones).
+ *
+ * En lugar de calcular cada fotograma desde cero se calculan "claves"
+ * sobredimensionadas (sobremuestreo × margen píxeles por lado) cada cierto
+ * factor de zoom, y los fotogramas intermedios se obtienen remuestreando
+ * (bilineal) sus colores. Una clave sirve mientras tenga al
+ * menos 'densidad' muestras por píxel del fotograma; los píxeles que caen
+ * fuera de ella (el centro se desplaza) se calculan directamente. Al
+ * alejarse, la clave de cada tramo es su último fotograma, el más ancho.
+ *
+ * Uso:
+ *   java AnimacionZoom --clave cx,cy,anchura,iter --clave ... --salida dir
+ *        [--claves fichero] [--tam 1280x720] [--fps 30] [--segundos 60]
+ *        [--sobremuestreo 2] [--margen 1.25] [--densidad 1] [--paleta ARCOIRIS] [--directo]
+ * El fichero de claves tiene una por línea: "cx cy anchura iter" (# = comentario).
+ * --directo calcula todos los fotogramas enteros (para comparar).
+ */
+public final class AnimacionZoom {
+
+    /** Fotograma clave del guion o fotograma de la secuencia. */
+    static final class Encuadre {
+        final BigDecimal centroX, centroY;
+        final double anchura;
+        final int iteraciones;
+        Encuadre(BigDecimal centroX, BigDecimal centroY, double anchura, int iteraciones) {
+            this.centroX = centroX; this.centroY = centroY; this.anchura = anchura; this.iteraciones = iteraciones;
+        }
+    }
+
+    /** Búfer de iteraciones de una clave y la región que cubre. */
+    private static final class Clave {
+        final Encuadre encuadre;
+        final int ancho, alto;
+        final double anchura, altura;
+        final float[] valores;
+        Clave(Encuadre encuadre, int ancho, int alto, double anchura, double altura, float[] valores) {
+            this.encuadre = encuadre; this.ancho = ancho; this.alto = alto;
+            this.anchura = anchura; this.altura = altura; this.valores = valores;
+        }
+    }
+
+    private final int ancho, alto;
+    private final int sobremuestreo;
+    private final double margen, densidad;
+    private final PaletaLUT paleta;
+    private final Path salida;
+    private final RenderizadorParalelo renderizador = new RenderizadorParalelo(RenderizadorParalelo.hilosPorDefecto());
+
+    // Estadísticas
+    private final AtomicLong pixelesCalculados = new AtomicLong(), pixelesRecalculados = new AtomicLong();
+    private int claves;
+
+    AnimacionZoom(int ancho, int alto, int sobremuestreo, double margen, double densidad,
+                  PaletaLUT paleta, Path salida) {
+        this.ancho = ancho; this.alto = alto;
+        this.sobremuestreo = sobremuestreo; this.margen = margen; this.densidad = densidad;
+        this.paleta = paleta; this.salida = salida;
+    }
+
+    /* ---------- Guion: interpolación exponencial entre claves ---------- */
+
+    /**
+     * Reparte 'total' fotogramas entre los tramos del guion en proporción a
+     * |ln(anchura siguiente / anchura)| (o a los anchos de pantalla recorridos
+     * si el tramo es sobre todo un desplazamiento), para que la velocidad de
+     * zoom sea constante. Dentro de un tramo la anchura es geométrica y el centro se
+     * mueve de forma que el destino quede fijo en pantalla.
+     */
+    static List<Encuadre> secuencia(List<Encuadre> guion, int total) {
+        int tramos = guion.size() - 1;
+        double[] peso = new double[tramos];
+        double suma = 0;
+        for (int i = 0; i < tramos; i++) {
+            Encuadre a = guion.get(i), b = guion.get(i + 1);
+            double recorrido = Math.hypot(b.centroX.subtract(a.centroX).doubleValue(),
+                                          b.centroY.subtract(a.centroY).doubleValue());
+            peso[i] = Math.max(Math.abs(Math.log(b.anchura / a.anchura)), recorrido / Math.min(a.anchura, b.anchura));
+            suma += peso[i];
+        }
+        List<Encuadre> fotogramas = new ArrayList<>(total);
+        for (int f = 0; f < total; f++) {
+            double t = total == 1 ? 0 : (double) f / (total - 1);
+            // Tramo y posición u en [0, 1] dentro de él
+            int i = 0;
+            double u;
+            if (suma > 0) {
+                double acumulado = t * suma;
+                while (i < tramos - 1 && acumulado > peso[i]) { acumulado -= peso[i]; i++; }
+                u = peso[i] > 0 ? Math.min(1.0, acumulado / peso[i]) : 1.0;
+            } else {
+                double x = t * tramos;
+                i = Math.min(tramos - 1, (int) x);
+                u = x - i;
+            }
+            fotogramas.add(interpolar(guion.get(i), guion.get(i + 1), u));
+        }
+        return fotogramas;
+    }
+
+    private static Encuadre interpolar(Encuadre a, Encuadre b, double u) {
+        double s = a.anchura * Math.pow(b.anchura / a.anchura, u);
+        int iter = (int) Math.round(a.iteraciones * Math.pow((double) b.iteraciones / a.iteraciones, u));
+        MathContext mc = PerturbacionProfunda.precisionPara(Math.min(s, b.anchura) * 1e-4);
+        BigDecimal dx = b.centroX.subtract(a.centroX, mc), dy = b.centroY.subtract(a.centroY, mc);
+        BigDecimal cx, cy;
+        if (a.anchura != b.anchura) {
+            // c = c_b - Δ·(s - s_b)/(s_a - s_b): el factor tiende a 0 y su error relativo no crece
+            BigDecimal resto = new BigDecimal((s - b.anchura) / (a.anchura - b.anchura));
+            cx = b.centroX.subtract(dx.multiply(resto, mc), mc);
+            cy = b.centroY.subtract(dy.multiply(resto, mc), mc);
+        } else {
+            BigDecimal g = new BigDecimal(u);
+            cx = a.centroX.add(dx.multiply(g, mc), mc);
+            cy = a.centroY.add(dy.multiply(g, mc), mc);
+        }
+        return new Encuadre(cx, cy, s, Math.max(1, iter));
+    }
+
+    /* ---------- Render ---------- */
+
+    /** Calcula y escribe todos los fotogramas; directo = sin reutilizar claves. */
+    void renderizar(List<Encuadre> fotogramas, boolean directo) throws IOException {
+        Files.createDirectories(salida);
+        long t0 = System.nanoTime();
+        int desde = 0;
+        while (desde < fotogramas.size()) {
+            // Tramo de fotogramas que puede servir una clave con la anchura y el centro del más
+            // ancho: el primero si el zoom se acerca, el último si se aleja
+            Encuadre primero = fotogramas.get(desde), base = primero;
+            int hasta = desde + 1;
+            int iter = primero.iteraciones;
+            if (directo) {
+                hasta = fotogramas.size(); // sin claves: todos los fotogramas en paralelo
+            } else {
+                boolean alejando = hasta < fotogramas.size() && fotogramas.get(hasta).anchura > primero.anchura;
+                while (hasta < fotogramas.size()) {
+                    Encuadre f = fotogramas.get(hasta);
+                    boolean fuera = alejando
+                            ? f.anchura < fotogramas.get(hasta - 1).anchura
+                              || sobremuestreo * primero.anchura < densidad * f.anchura
+                            : f.anchura > primero.anchura || sobremuestreo * f.anchura < densidad * primero.anchura;
+                    if (fuera) break;
+                    iter = Math.max(iter, f.iteraciones);
+                    hasta++;
+                }
+                if (alejando) base = fotogramas.get(hasta - 1);
+            }
+            final int d = desde, n = hasta - desde;
+            // Un fotograma suelto sale más barato directo que con una clave sobredimensionada
+            final Clave clave = directo || n == 1 ? null : calcularClave(base, iter);
+            renderizador.paraCada(n, k -> {
+                try {
+                    escribir(d + k, derivar(fotogramas.get(d + k), clave));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, () -> false);
+            System.err.printf(Locale.ROOT, "fotogramas %d/%d · %d claves · %.1f s%n",
+                    hasta, fotogramas.size(), claves, (System.nanoTime() - t0) / 1e9);
+            desde = hasta;
+        }
+        long total = (long) fotogramas.size() * ancho * alto;
+        System.err.printf(Locale.ROOT, "Calculados %d píxeles (%.1f%% de %d fotogramas completos), %d fuera de clave%n",
+                pixelesCalculados.get(), 100.0 * pixelesCalculados.get() / total, fotogramas.size(),
+                pixelesRecalculados.get());
+    }
+
+    private Clave calcularClave(Encuadre e, int iter) {
+        int w = alinear(ancho), h = alinear(alto);
+        double espaciado = e.anchura / ((double) ancho * sobremuestreo);
+        double anchura = espaciado * w, altura = espaciado * h;
+        float[] valores = new float[w * h];
+        calcularVista(e.centroX, e.centroY, anchura, altura, w, h, iter, valores);
+        claves++;
+        return new Clave(e, w, h, anchura, altura, valores);
+    }
+
+    /**
+     * Lado de la clave (≈ n · sobremuestreo · margen) con la paridad que hace
+     * que los centros de los píxeles de su fotograma caigan exactamente
+     * sobre muestras de la clave: ese fotograma sale sin interpolar.
+     */
+    private int alinear(int n) {
+        int k = (int) Math.round(n * sobremuestreo * margen);
+        if (((k - 1 + sobremuestreo * (1 - n)) & 1) != 0) k++;
+        return k;
+    }
+
+    /** Búfer de iteraciones de una vista completa (perturbaciones si el double no basta). */
+    private void calcularVista(BigDecimal cx, BigDecimal cy, double anchura, double altura,
+                               int w, int h, int iter, float[] valores) {
+        pixelesCalculados.addAndGet((long) w * h);
+        if (esProfunda(cx, anchura, w)) {
+            new PerturbacionProfunda(renderizador).renderizar(valores, w, h, cx, cy, anchura, altura, iter, 2.0,
+                    (n, zx, zy) -> (float) AlgoritmoEscape.valorSuave(n, zx, zy, iter), () -> false);
+            return;
+        }
+        final double x = cx.doubleValue(), y = cy.doubleValue();
+        renderizador.renderizarValores(valores, w, h, (px, py) -> (float) AlgoritmoEscape.iteracionSuave(
+                x + anchura * ((px + 0.5) / w - 0.5), y - altura * ((py + 0.5) / h - 0.5), iter, 4.0, true),
+                () -> false);
+    }
+
+    private static boolean esProfunda(BigDecimal cx, double anchura, int w) {
+        return anchura / w < AlgoritmoEscape.ESPACIADO_PROFUNDO * Math.max(1.0, Math.abs(cx.doubleValue()));
+    }
+
+    /**
+     * Colores de un fotograma a partir de la clave: interpolación bilineal
+     * de los colores de las cuatro muestras vecinas (interpolar el nº de
+     * iteraciones daría colores falsos con una paleta cíclica). Lo que la
+     * clave no cubre se calcula directamente.
+     */
+    private int[] derivar(Encuadre f, Clave clave) {
+        final int w = ancho, h = alto, iter = f.iteraciones;
+        final double anchura = f.anchura, altura = anchura * h / w;
+        if (clave == null) return colorear(vistaCompleta(f, anchura, altura), iter);
+
+        final double offX = f.centroX.subtract(clave.encuadre.centroX).doubleValue();
+        final double offY = f.centroY.subtract(clave.encuadre.centroY).doubleValue();
+        final boolean profunda = esProfunda(f.centroX, anchura, w);
+        final double x = f.centroX.doubleValue(), y = f.centroY.doubleValue();
+        final int kw = clave.ancho, kh = clave.alto;
+        final float[] kv = clave.valores;
+        int[] colores = new int[w * h];
+        long fuera = 0;
+        for (int py = 0; py < h; py++) {
+            double oy = offY - altura * ((py + 0.5) / h - 0.5);
+            double v = (0.5 - oy / clave.altura) * kh - 0.5;
+            for (int px = 0; px < w; px++) {
+                double ox = offX + anchura * ((px + 0.5) / w - 0.5);
+                double u = (ox / clave.anchura + 0.5) * kw - 0.5;
+                int i = py * w + px;
+                if (u < 0 || v < 0 || u > kw - 1 || v > kh - 1) {
+                    // En zoom profundo no se puede iterar un píxel suelto sin referencia: fotograma completo
+                    if (profunda) {
+                        pixelesRecalculados.addAndGet((long) w * h);
+                        return colorear(vistaCompleta(f, anchura, altura), iter);
+                    }
+                    fuera++;
+                    colores[i] = paleta.color((float) AlgoritmoEscape.iteracionSuave(
+                            x + anchura * ((px + 0.5) / w - 0.5), y - altura * ((py + 0.5) / h - 0.5), iter, 4.0, true), iter);
+                    continue;
+                }
+                int u0 = Math.min((int) u, kw - 2), v0 = Math.min((int) v, kh - 2);
+                double a = u - u0, b = v - v0;
+                int k = v0 * kw + u0;
+                colores[i] = mezclar(color(kv[k], iter), color(kv[k + 1], iter),
+                                     color(kv[k + kw], iter), color(kv[k + kw + 1], iter), a, b);
+            }
+        }
+        pixelesRecalculados.addAndGet(fuera);
+        pixelesCalculados.addAndGet(fuera);
+        return colores;
+    }
+
+    /** Color de una muestra de la clave con el límite del fotograma (la clave se calculó con más iteraciones). */
+    private int color(float nu, int iter) {
+        return paleta.color(nu >= iter ? Float.NaN : nu, iter);
+    }
+
+    private static int mezclar(int c00, int c10, int c01, int c11, double a, double b) {
+        int r = 0;
+        for (int d = 0; d < 24; d += 8) {
+            double s = (1 - b) * ((1 - a) * ((c00 >> d) & 0xFF) + a * ((c10 >> d) & 0xFF))
+                     + b * ((1 - a) * ((c01 >> d) & 0xFF) + a * ((c11 >> d) & 0xFF));
+            r |= (int) (s + 0.5) << d;
+        }
+        return PaletaLUT.NEGRO | r;
+    }
+
+    private float[] vistaCompleta(Encuadre f, double anchura, double altura) {
+        float[] valores = new float[ancho * alto];
+        calcularVista(f.centroX, f.centroY, anchura, altura, ancho, alto, f.iteraciones, valores);
+        return valores;
+    }
+
+    private int[] colorear(float[] valores, int iter) {
+        // El fotograma ya corre en un hilo del pool: coloración secuencial
+        int[] colores = new int[valores.length];
+        for (int i = 0; i < valores.length; i++) colores[i] = paleta.color(valores[i], iter);
+        return colores;
+    }
+
+    private void escribir(int numero, int[] colores) throws IOException {
+        BufferedImage img = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        System.arraycopy(colores, 0, ((DataBufferInt) img.getRaster().getDataBuffer()).getData(), 0, colores.length);
+        ImageIO.write(img, "png", salida.resolve(String.format("fotograma_%05d.png", numero)).toFile());
+    }
+
+    /* ---------- Línea de órdenes ---------- */
+    public static void main(String[] args) throws IOException {
+        List<Encuadre> guion = new ArrayList<>();
+        int ancho = 1280, alto = 720, fps = 30;
+        int sobremuestreo = 2;
+        double segundos = 60, margen = 1.25, densidad = 1;
+        PaletaLUT.Esquema esquema = PaletaLUT.Esquema.ARCOIRIS;
+        Path salida = null;
+        boolean directo = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String a = args[i];
+                if (a.equals("--directo")) { directo = true; continue; }
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Falta el valor de " + a);
+                String v = args[++i];
+                switch (a) {
+                    case "--clave": guion.add(leerEncuadre(v.split(","))); break;
+                    case "--claves":
+                        for (String linea : Files.readAllLines(Paths.get(v))) {
+                            linea = linea.replaceAll("#.*", "").trim();
+                            if (!linea.isEmpty()) guion.add(leerEncuadre(linea.split("\\s+")));
+                        }
+                        break;
+                    case "--tam": {
+                        String[] t = v.toLowerCase(Locale.ROOT).split("x");
+                        ancho = Integer.parseInt(t[0]); alto = Integer.parseInt(t[1]);
+                        break;
+                    }
+                    case "--fps": fps = Integer.parseInt(v); break;
+                    case "--segundos": segundos = Double.parseDouble(v); break;
+                    case "--sobremuestreo": sobremuestreo = Integer.parseInt(v); break;
+                    case "--margen": margen = Double.parseDouble(v); break;
+                    case "--densidad": densidad = Double.parseDouble(v); break;
+                    case "--paleta": esquema = PaletaLUT.Esquema.valueOf(v.toUpperCase(Locale.ROOT)); break;
+                    case "--salida": salida = Paths.get(v); break;
+                    default: throw new IllegalArgumentException("Opción desconocida: " + a);
+                }
+            }
+            if (guion.size() < 2) throw new IllegalArgumentException("Hacen falta al menos dos claves");
+            if (salida == null) throw new IllegalArgumentException("--salida obligatorio");
+            if (sobremuestreo < densidad || margen < 1) {
+                throw new IllegalArgumentException("Se necesita sobremuestreo >= densidad y margen >= 1");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: java AnimacionZoom --clave cx,cy,anchura,iter --clave ... --salida dir\n"
+                    + "       [--claves fichero] [--tam 1280x720] [--fps 30] [--segundos 60]\n"
+                    + "       [--sobremuestreo 2] [--margen 1.25] [--densidad 1] [--paleta ARCOIRIS] [--directo]");
+            System.exit(2);
+            return;
+        }
+        AnimacionZoom animacion = new AnimacionZoom(ancho, alto, sobremuestreo, margen, densidad,
+                new PaletaLUT(esquema, 1.0), salida);
+        try {
+            animacion.renderizar(secuencia(guion, (int) Math.round(segundos * fps)), directo);
+        } finally {
+            animacion.renderizador.cerrar();
+        }
+    }
+
+    private static Encuadre leerEncuadre(String[] t) {
+        if (t.length != 4) throw new IllegalArgumentException("Clave: cx,cy,anchura,iter");
+        return new Encuadre(new BigDecimal(t[0].trim()), new BigDecimal(t[1].trim()),
+                Double.parseDouble(t[2].trim()), Integer.parseInt(t[3].trim()));
+    }
+}
@@ -0,0 +1,116 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché en memoria de teselas de iteraciones (valor suave por píxel) en
+ * coordenadas del mundo. Las teselas forman un quadtree sobre el cuadrado
+ * raíz [-4, 4] × [-4, 4]: en el nivel L hay 2^L × 2^L teselas de
+ * LADO × LADO píxeles. La clave incluye el núcleo y maxIteraciones, porque
+ * el mismo punto con otra función o con otro límite da otro resultado.
+ *
+ * Acotada en bytes con expulsión LRU; cuenta aciertos y fallos. Con un
+ * AlmacenTeselas, un fallo en memoria se busca en disco (acierto de disco)
+ * y cada tesela guardada se escribe también allí en segundo plano.
+ */
+public final class CacheTeselas {
+
+    public static final int LADO = 256;
+    public static final double RAIZ_MIN = -4.0, RAIZ_LADO = 8.0;
+
+    /** Dirección de una tesela en el quadtree más el núcleo y el límite de iteraciones. */
+    public static final class Clave {
+        final String nucleo;
+        final int nivel, maxIteraciones;
+        final long tx, ty;
+
+        public Clave(String nucleo, int nivel, long tx, long ty, int maxIteraciones) {
+            this.nucleo = nucleo;
+            this.nivel = nivel; this.tx = tx; this.ty = ty; this.maxIteraciones = maxIteraciones;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Clave)) return false;
+            Clave k = (Clave) o;
+            return nivel == k.nivel && tx == k.tx && ty == k.ty && maxIteraciones == k.maxIteraciones
+                    && nucleo.equals(k.nucleo);
+        }
+
+        @Override public int hashCode() {
+            long h = tx * 0x9E3779B97F4A7C15L ^ ty * 0xC2B2AE3D27D4EB4FL ^ ((long) nivel << 32 | maxIteraciones);
+            return (int) (h ^ (h >>> 32)) * 31 + nucleo.hashCode();
+        }
+
+        @Override public String toString() { return nucleo + ":" + nivel + "/" + tx + "/" + ty + "@" + maxIteraciones; }
+    }
+
+    private static final long BYTES_TESELA = (long) LADO * LADO * Float.BYTES;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Clave, float[]> teselas = new LinkedHashMap<>(64, 0.75f, true); // orden de acceso
+    private final LongAdder aciertos = new LongAdder(), fallos = new LongAdder(), aciertosDisco = new LongAdder();
+    private final AlmacenTeselas disco; // null: solo memoria
+
+    public CacheTeselas(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    public CacheTeselas(long maxBytes, AlmacenTeselas disco) {
+        if (maxBytes < BYTES_TESELA) throw new IllegalArgumentException("memoria insuficiente para una tesela: " + maxBytes);
+        this.maxBytes = maxBytes;
+        this.disco = disco;
+    }
+
+    /** Tamaño por defecto: -Dfractal.cacheMB (256 MB si no se indica), con almacén en disco si se pide (-Dfractal.almacen). */
+    public static CacheTeselas porDefecto() {
+        return new CacheTeselas(Long.getLong("fractal.cacheMB", 256L) * 1024 * 1024, AlmacenTeselas.porDefecto());
+    }
+
+    /** Lado de una tesela del nivel dado, en unidades del plano. */
+    public static double ladoMundo(int nivel) { return RAIZ_LADO / Math.pow(2, nivel); }
+
+    /** Nivel más grueso cuyo espaciado entre píxeles no supera 'espaciado'. */
+    public static int nivelPara(double espaciado) {
+        double n = Math.log(RAIZ_LADO / (LADO * espaciado)) / Math.log(2);
+        return Math.max(0, (int) Math.ceil(n - 1e-9));
+    }
+
+    /** Devuelve la tesela o null (cuenta acierto/fallo); la lectura de disco se hace fuera del cerrojo. */
+    public float[] obtener(Clave k) {
+        float[] t;
+        synchronized (this) { t = teselas.get(k); }
+        if (t == null && disco != null && (t = disco.leer(k)) != null) {
+            aciertosDisco.increment();
+            synchronized (this) { meter(k, t); }
+        }
+        if (t != null) aciertos.increment(); else fallos.increment();
+        return t;
+    }
+
+    public void guardar(Clave k, float[] valores) {
+        synchronized (this) { meter(k, valores); }
+        if (disco != null) disco.guardarEnSegundoPlano(k, valores);
+    }
+
+    private void meter(Clave k, float[] valores) {
+        teselas.put(k, valores);
+        long sobran = teselas.size() * BYTES_TESELA - maxBytes;
+        for (Iterator<Map.Entry<Clave, float[]>> it = teselas.entrySet().iterator(); sobran > 0 && it.hasNext(); ) {
+            if (it.next().getKey().equals(k)) continue;
+            it.remove(); // la menos usada recientemente
+            sobran -= BYTES_TESELA;
+        }
+    }
+
+    public synchronized void vaciar() { teselas.clear(); }
+
+    public long getAciertos() { return aciertos.sum(); }
+    public long getFallos() { return fallos.sum(); }
+    /** Aciertos servidos desde disco (incluidos en getAciertos). */
+    public long getAciertosDisco() { return aciertosDisco.sum(); }
+    /** null si no hay almacén en disco. */
+    public AlmacenTeselas getDisco() { return disco; }
+    public synchronized int getTeselas() { return teselas.size(); }
+    public synchronized long getBytes() { return teselas.size() * BYTES_TESELA; }
+}
@@ -0,0 +1,65 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Contador de visitas por píxel para la iteración inversa modificada (MIIM).
+ *
+ * Cada nodo del árbol de preimágenes anota una visita en su píxel; cuando
+ * un píxel ya acumula 'umbral' visitas, la rama que llega a él se poda: sus
+ * descendientes caen sobre zonas ya cubiertas. Así el recorrido deja de
+ * revisitar exponencialmente las partes bien cubiertas del conjunto y puede
+ * bajar mucho más (derivada mayor) por las finas.
+ *
+ * Las cuentas son un AtomicIntegerArray: el motor las actualiza desde todos
+ * sus hilos. Las visitas a un píxel ya saturado se siguen contando, así que
+ * las cuentas sirven también como imagen de densidad.
+ */
+public final class DensidadMIIM {
+
+    private final int ancho, alto, umbral;
+    private final double xmin, ymax, sx, sy;
+    private final AtomicIntegerArray cuentas;
+
+    /** Píxel (px, py) = round((x - xmin)·sx, (ymax - y)·sy), el mismo mapeo que el trazado normal. */
+    public DensidadMIIM(int ancho, int alto, double xmin, double xmax, double ymin, double ymax, int umbral) {
+        this.ancho = ancho; this.alto = alto; this.umbral = umbral;
+        this.xmin = xmin; this.ymax = ymax;
+        this.sx = (ancho - 1) / (xmax - xmin);
+        this.sy = (alto - 1) / (ymax - ymin);
+        this.cuentas = new AtomicIntegerArray(ancho * alto);
+    }
+
+    public int getUmbral() { return umbral; }
+
+    /**
+     * Anota una visita en el píxel de (x, y). Devuelve false si el píxel ya
+     * había llegado al umbral (la rama se poda). Fuera de la imagen no se
+     * poda: sus preimágenes pueden volver a caer dentro.
+     */
+    boolean visitar(double x, double y) {
+        int px = (int) Math.round((x - xmin) * sx);
+        int py = (int) Math.round((ymax - y) * sy);
+        if (px < 0 || px >= ancho || py < 0 || py >= alto) return true;
+        return cuentas.getAndIncrement(py * ancho + px) < umbral;
+    }
+
+    /** Visitas anotadas en el píxel. */
+    public int cuenta(int px, int py) { return cuentas.get(py * ancho + px); }
+
+    /** Trazado clásico: negro en los píxeles visitados, sin tocar el resto. */
+    public void pintarPuntos(int[] argb, RenderizadorParalelo renderizador) {
+        renderizador.recorrer(ancho, alto, (px, py, i) -> {
+            if (cuentas.get(i) > 0) argb[i] = 0xFF000000;
+        }, () -> false);
+    }
+
+    /** Densidad en escala logarítmica: blanco sin visitas, negro en el píxel más visitado. */
+    public void pintarDensidad(int[] argb, RenderizadorParalelo renderizador) {
+        int maximo = 1;
+        for (int i = 0, n = cuentas.length(); i < n; i++) maximo = Math.max(maximo, cuentas.get(i));
+        final double escala = 1.0 / Math.log1p(maximo);
+        renderizador.recorrer(ancho, alto, (px, py, i) -> {
+            int v = 255 - (int) Math.round(255 * Math.log1p(cuentas.get(i)) * escala);
+            argb[i] = 0xFF000000 | (v << 16) | (v << 8) | v;
+        }, () -> false);
+    }
+}
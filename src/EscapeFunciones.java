@@ -1,6 +1,9 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 
 public class EscapeFunciones extends JPanel {
 
@@ -9,11 +12,40 @@ public class EscapeFunciones extends JPanel {
     private double escape = 5.0;
 
     private BufferedImage img;
+    private float[] valores; // nº de iteraciones por píxel (NaN = conjunto de Julia)
+
+    // Coloración con paleta precalculada; tecla L cambia de esquema y , . el contraste
+    private PaletaLUT paleta = new PaletaLUT(PaletaLUT.Esquema.TONO, 1.0);
+
+    // Relleno por subdivisión (Mariani–Silver); tecla M
+    private boolean marianiSilver = false;
+    private long pixelesSaltados = -1;
+    // Núcleo vectorial si la JVM arrancó con jdk.incubator.vector; tecla V
+    private final NucleoSIMD nucleoSimd = NucleoSIMD.cargar();
+    private boolean usarSimd = false, simdVerificado = false;
+    private String estadoSimd = null;
+    private final RenderizadorParalelo renderizador = new RenderizadorParalelo(RenderizadorParalelo.hilosPorDefecto());
+
+    // Antialiasing adaptativo (tecla S: RGSS 4, 3×3, 4×4, desactivado)
+    private SupersamplingAdaptativo antialias = null;
+    private SupersamplingAdaptativo.Resultado antialiasado; // muestras extra de 'valores' (o null)
 
     // Valor fijo de c (puedes cambiarlo directamente en el código)
     private double cRe = 0;
     private double cIm = 0;
 
+    // Función de iteración (tecla N); el núcleo vectorial es solo del cuadrático
+    private NucleoFractal nucleo = NucleoFractal.CUADRATICO;
+
+    // Detección de ciclos (Brent): los puntos con órbita periódica salen antes
+    private boolean deteccionInterior = true;
+    private static final double TOLERANCIA_PERIODO = NucleoFractal.TOLERANCIA_PERIODO;
+
+    // Precisión del último render: float si el espaciado entre píxeles lo
+    // permite (PrecisionEscape) y va por SIMD, si no double. Sin bordes en
+    // BigDecimal el doble-double no resolvería nada que double no resuelva
+    private PrecisionEscape.Nivel precision = PrecisionEscape.Nivel.DOUBLE;
+
     public EscapeFunciones(int width, int height,
                            double xmin, double xmax,
                            double ymin, double ymax) {
@@ -28,31 +60,127 @@ public class EscapeFunciones extends JPanel {
         return new double[]{x, y};
     }
 
-    private int colorAt(double zx, double zy) {
-        double r2 = escape * escape;
-        int n = 0;
-        for (; n < maxIter; n++) {
-            double zx2 = zx * zx - zy * zy + cRe;
-            double zy2 = 2.0 * zx * zy + cIm;
-            zx = zx2;
-            zy = zy2;
-            if (zx * zx + zy * zy > r2) break;
-        }
-        if (n == maxIter) return 0xFF000000; // negro para el conjunto de Julia
+    /** Nº de iteraciones hasta escapar desde z0 = (zx, zy); NaN si no escapa. */
+    private float iteracionesEn(double zx, double zy) {
+        return nucleo.dinamico(zx, zy, cRe, cIm, maxIter, escape * escape, deteccionInterior);
+    }
 
-        // Coloración sencilla con HSB
-        float hue = (float) n / maxIter;
-        return Color.HSBtoRGB(hue, 0.8f, 1.0f);
+    /** z^2 + c con c y los límites explícitos (render por lotes). */
+    static float iteracionesEn(double zx, double zy, double cRe, double cIm, int maxIter, double r2,
+                               boolean periodos) {
+        return NucleoFractal.CUADRATICO.dinamico(zx, zy, cRe, cIm, maxIter, r2, periodos);
+    }
+
+    /**
+     * Valor en un punto continuo de la imagen (el centro del píxel (px, py)
+     * es px + 0.5, py + 0.5) con la precisión elegida; en double, mismo
+     * cálculo que pixelToComplex.
+     */
+    private SupersamplingAdaptativo.Muestra muestreador(int w, int h) {
+        final double x0 = xmin, spanX = xmax - xmin, y0 = ymax, spanY = ymax - ymin;
+        if (precision == PrecisionEscape.Nivel.FLOAT) {
+            final float r2 = (float) (escape * escape), re = (float) cRe, im = (float) cIm;
+            final int max = maxIter;
+            final boolean periodos = deteccionInterior;
+            return (x, y) -> PrecisionEscape.julia((float) (x0 + spanX * x / w), (float) (y0 - spanY * y / h),
+                                                   re, im, max, r2, periodos);
+        }
+        return (x, y) -> iteracionesEn(x0 + spanX * x / w, y0 - spanY * y / h);
     }
 
     private void render() {
         int w = getWidth(), h = getHeight();
-        img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-                double[] z0 = pixelToComplex(x, y);
-                img.setRGB(x, y, colorAt(z0[0], z0[1]));
+        valores = new float[w * h];
+        antialiasado = null;
+        pixelesSaltados = -1;
+        final double x0 = xmin, spanX = xmax - xmin, y0 = ymax, spanY = ymax - ymin;
+        double escala = Math.max(1.0, Math.max(Math.max(Math.abs(xmin), Math.abs(xmax)),
+                                               Math.max(Math.abs(ymin), Math.abs(ymax))));
+        boolean simd = usarSimd && nucleo == NucleoFractal.CUADRATICO && !marianiSilver
+                && (simdVerificado || verificarSimd());
+        precision = simd && PrecisionEscape.para(Math.min(spanX / w, spanY / h), escala, nucleo)
+                == PrecisionEscape.Nivel.FLOAT ? PrecisionEscape.Nivel.FLOAT : PrecisionEscape.Nivel.DOUBLE;
+        final SupersamplingAdaptativo.Muestra muestra = muestreador(w, h);
+        RenderizadorParalelo.FuncionValor f = (px, py) -> muestra.valor(px + 0.5, py + 0.5);
+        if (simd) {
+            final double r2 = escape * escape;
+            final boolean periodos = deteccionInterior;
+            if (precision == PrecisionEscape.Nivel.FLOAT) {
+                final float re = (float) cRe, im = (float) cIm;
+                renderizador.recorrerFilas(w, h, (py, xa, xb, i) -> {
+                    float[] zx = new float[xb - xa];
+                    for (int x = xa; x < xb; x++) zx[x - xa] = (float) (x0 + spanX * (x + 0.5) / w);
+                    nucleoSimd.julia(zx, (float) (y0 - spanY * (py + 0.5) / h), xb - xa, re, im, maxIter, (float) r2,
+                                     periodos, PrecisionEscape.TOLERANCIA_FLOAT, valores, i);
+                }, () -> false);
+            } else {
+                renderizador.recorrerFilas(w, h, (py, xa, xb, i) -> {
+                    double[] zx = new double[xb - xa];
+                    for (int x = xa; x < xb; x++) zx[x - xa] = x0 + spanX * (x + 0.5) / w;
+                    nucleoSimd.julia(zx, y0 - spanY * (py + 0.5) / h, xb - xa, cRe, cIm, maxIter, r2,
+                                     periodos, TOLERANCIA_PERIODO, valores, i);
+                }, () -> false);
+            }
+        } else if (marianiSilver) {
+            RellenoMarianiSilver relleno = new RellenoMarianiSilver(renderizador);
+            relleno.renderizar(valores, w, h, f, () -> false);
+            pixelesSaltados = relleno.getPixelesSaltados();
+        } else {
+            renderizador.renderizarValores(valores, w, h, f, () -> false);
+        }
+        colorear();
+    }
+
+    /**
+     * Compara bit a bit el núcleo vectorial con iteracionesEn (y sus carriles
+     * float con PrecisionEscape) en una rejilla de muestra.
+     */
+    private boolean verificarSimd() {
+        final int lado = 64;
+        final float r2 = (float) (escape * escape);
+        float[] vectorial = new float[2 * lado * lado], escalar = new float[2 * lado * lado];
+        double[] zx = new double[lado];
+        float[] fx = new float[lado];
+        for (int py = 0; py < lado; py++) {
+            double zy = ymax - (ymax - ymin) * (py + 0.5) / lado;
+            for (int px = 0; px < lado; px++) {
+                zx[px] = xmin + (xmax - xmin) * (px + 0.5) / lado;
+                fx[px] = (float) zx[px];
+                escalar[py * lado + px] = iteracionesEn(zx[px], zy);
+                escalar[(lado + py) * lado + px] = PrecisionEscape.julia(fx[px], (float) zy, (float) cRe, (float) cIm,
+                                                                         maxIter, r2, deteccionInterior);
             }
+            nucleoSimd.julia(zx, zy, lado, cRe, cIm, maxIter, escape * escape,
+                             deteccionInterior, TOLERANCIA_PERIODO, vectorial, py * lado);
+            nucleoSimd.julia(fx, (float) zy, lado, (float) cRe, (float) cIm, maxIter, r2,
+                             deteccionInterior, PrecisionEscape.TOLERANCIA_FLOAT, vectorial, (lado + py) * lado);
+        }
+        int distintos = NucleoSIMD.verificar(vectorial, escalar);
+        simdVerificado = distintos == 0;
+        usarSimd = simdVerificado;
+        estadoSimd = simdVerificado
+                ? String.format("SIMD: %d carriles double, %d float · verificado contra escalar",
+                                nucleoSimd.carriles(), nucleoSimd.carrilesFloat())
+                : String.format("SIMD desactivado: %d de %d muestras difieren", distintos, 2 * lado * lado);
+        return simdVerificado;
+    }
+
+    /**
+     * Pasada de coloración sobre el búfer de iteraciones (no vuelve a iterar).
+     * Con antialiasing, la primera tras render() calcula las muestras extra
+     * de los bordes; las siguientes (cambio de paleta) las vuelven a promediar.
+     */
+    private void colorear() {
+        int w = getWidth(), h = getHeight();
+        if (valores == null || valores.length != w * h) { render(); return; }
+        img = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        int[] datos = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+        paleta.colorear(valores, datos, w, h, maxIter, renderizador, () -> false);
+        if (antialiasado != null) {
+            antialiasado.aplicar(datos, paleta, maxIter);
+        } else if (antialias != null) {
+            antialiasado = antialias.suavizar(datos, valores, w, h, muestreador(w, h),
+                    paleta, maxIter, renderizador, () -> false);
         }
     }
 
@@ -61,6 +189,82 @@ public class EscapeFunciones extends JPanel {
         super.paintComponent(g);
         if (img == null) render();
         g.drawImage(img, 0, 0, null);
+        int y = 10;
+        dibujarTexto(g, String.format("Precisión: %s (%d bits)", precision, precision.bits), y);
+        y += 28;
+        if (pixelesSaltados >= 0) {
+            String texto = String.format("Mariani–Silver: %d píxeles saltados (%.1f%%)",
+                    pixelesSaltados, 100.0 * pixelesSaltados / ((long) img.getWidth() * img.getHeight()));
+            dibujarTexto(g, texto, y);
+            y += 28;
+        }
+        if (estadoSimd != null) {
+            dibujarTexto(g, estadoSimd, y);
+            y += 28;
+        }
+        if (antialiasado != null) {
+            dibujarTexto(g, String.format("AA %s: %d px · %d muestras", antialias.getPatron(),
+                    antialiasado.getPixeles(), antialiasado.getMuestras()), y);
+            y += 28;
+        }
+        if (nucleo != NucleoFractal.CUADRATICO) dibujarTexto(g, "Núcleo: " + nucleo.nombre() + " (N cambia)", y);
+    }
+
+    private static void dibujarTexto(Graphics g, String texto, int y) {
+        g.setColor(new Color(0, 0, 0, 160));
+        g.fillRect(10, y, Math.max(300, g.getFontMetrics().stringWidth(texto) + 20), 24);
+        g.setColor(Color.WHITE);
+        g.drawString(texto, 20, y + 17);
+    }
+
+    /* ---------- Teclado ---------- */
+    private void asignarTeclas(JFrame frame) {
+        frame.addKeyListener(new KeyAdapter() {
+            @Override public void keyPressed(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_I:
+                        deteccionInterior = !deteccionInterior;
+                        simdVerificado = false;
+                        img = null;
+                        break;
+                    case KeyEvent.VK_M:
+                        marianiSilver = !marianiSilver;
+                        img = null;
+                        break;
+                    case KeyEvent.VK_V:
+                        if (nucleoSimd == null) {
+                            estadoSimd = "SIMD no disponible (--add-modules jdk.incubator.vector)";
+                        } else {
+                            usarSimd = !usarSimd;
+                            simdVerificado = false;
+                            estadoSimd = null;
+                            img = null;
+                        }
+                        break;
+                    case KeyEvent.VK_N:
+                        nucleo = NucleoFractal.siguiente(nucleo, false);
+                        img = null;
+                        break;
+                    case KeyEvent.VK_S:
+                        antialias = SupersamplingAdaptativo.siguiente(antialias);
+                        img = null;
+                        break;
+                    case KeyEvent.VK_L:
+                        paleta = paleta.siguienteEsquema();
+                        if (valores != null) colorear();
+                        break;
+                    case KeyEvent.VK_COMMA:
+                        paleta = paleta.conContraste(paleta.getContraste() / 1.25);
+                        if (valores != null) colorear();
+                        break;
+                    case KeyEvent.VK_PERIOD:
+                        paleta = paleta.conContraste(paleta.getContraste() * 1.25);
+                        if (valores != null) colorear();
+                        break;
+                }
+                repaint();
+            }
+        });
     }
 
     public static void main(String[] args) {
@@ -72,6 +276,7 @@ public class EscapeFunciones extends JPanel {
             f.pack();
             f.setLocationRelativeTo(null);
             f.setVisible(true);
+            panel.asignarTeclas(f);
         });
     }
 }
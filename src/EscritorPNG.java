@@ -0,0 +1,164 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Escritor PNG (RGB, 8 bits) por franjas: cada franja de filas se comprime
+ * y se escribe como un chunk IDAT propio, sin tener la imagen en memoria.
+ *
+ * El flujo zlib se escribe a mano (cabecera + deflate crudo + Adler-32):
+ * cada franja termina con FULL_FLUSH, que cierra el bloque en un límite de
+ * byte y olvida el diccionario, así que tras una interrupción basta con
+ * truncar el fichero al final de la última franja y seguir con un Deflater
+ * nuevo. Para reanudar se guardan solo la posición y el Adler-32 acumulado.
+ */
+public final class EscritorPNG implements Closeable {
+
+    private static final byte[] FIRMA = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    // Firma + chunk IHDR (4 longitud + 4 tipo + 13 datos + 4 CRC)
+    public static final long CABECERA = FIRMA.length + 25;
+
+    private final FileChannel canal;
+    private final int ancho;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final byte[] salida = new byte[1 << 16];
+    private long adler;
+    private long posicion;
+
+    private EscritorPNG(FileChannel canal, int ancho, long posicion, long adler) {
+        this.canal = canal; this.ancho = ancho; this.posicion = posicion; this.adler = adler;
+    }
+
+    /** Crea (o sobrescribe) el fichero y escribe la firma y la cabecera IHDR. */
+    public static EscritorPNG crear(Path ruta, int ancho, int alto) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer ihdr = ByteBuffer.allocate(13);
+        ihdr.putInt(ancho).putInt(alto).put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+        EscritorPNG e = new EscritorPNG(canal, ancho, 0, 1);
+        e.escribir(ByteBuffer.wrap(FIRMA));
+        e.chunk("IHDR", ihdr.array(), 13);
+        return e;
+    }
+
+    /** Reabre un PNG a medias: descarta lo escrito después de 'posicion' y sigue desde ahí. */
+    public static EscritorPNG reanudar(Path ruta, int ancho, long posicion, long adler) throws IOException {
+        FileChannel canal = FileChannel.open(ruta, StandardOpenOption.WRITE);
+        if (canal.size() < posicion) {
+            canal.close();
+            throw new IOException("El fichero es más corto que el progreso guardado: " + ruta);
+        }
+        canal.truncate(posicion);
+        canal.position(posicion);
+        return new EscritorPNG(canal, ancho, posicion, adler);
+    }
+
+    /** Bytes por fila ya filtrada (byte de filtro + RGB). */
+    public int bytesPorFila() { return 1 + 3 * ancho; }
+
+    /** Posición al final de la última franja completa. */
+    public long getPosicion() { return posicion; }
+
+    /** Adler-32 de todos los datos sin comprimir escritos hasta ahora. */
+    public long getAdler() { return adler; }
+
+    /**
+     * Filtra (Sub) una fila ARGB y la deja en filas[off..off + bytesPorFila()).
+     * Sub solo depende de la propia fila: ninguna franja necesita la anterior.
+     */
+    public void filtrarFila(int[] argb, int desde, byte[] filas, int off) {
+        filas[off++] = 1; // filtro Sub
+        int r0 = 0, g0 = 0, b0 = 0;
+        for (int x = 0; x < ancho; x++) {
+            int c = argb[desde + x];
+            int r = (c >> 16) & 0xFF, g = (c >> 8) & 0xFF, b = c & 0xFF;
+            filas[off++] = (byte) (r - r0);
+            filas[off++] = (byte) (g - g0);
+            filas[off++] = (byte) (b - b0);
+            r0 = r; g0 = g; b0 = b;
+        }
+    }
+
+    /** Comprime filas[0..longitud) (filas ya filtradas) como un IDAT; la última cierra el flujo zlib. */
+    public void escribirFranja(byte[] filas, int longitud, boolean ultima) throws IOException {
+        BufferCreciente datos = new BufferCreciente(longitud / 4 + 64);
+        if (posicion == CABECERA) datos.escribir(new byte[]{0x78, (byte) 0x9C}, 2); // cabecera zlib
+
+        Adler32 a = new Adler32();
+        a.update(filas, 0, longitud);
+        adler = combinarAdler(adler, a.getValue(), longitud);
+
+        deflater.setInput(filas, 0, longitud);
+        if (ultima) deflater.finish();
+        while (true) {
+            int n = deflater.deflate(salida, 0, salida.length, ultima ? Deflater.NO_FLUSH : Deflater.FULL_FLUSH);
+            datos.escribir(salida, n);
+            if (ultima ? deflater.finished() : n < salida.length) break;
+        }
+        if (ultima) {
+            byte[] cola = {(byte) (adler >>> 24), (byte) (adler >>> 16), (byte) (adler >>> 8), (byte) adler};
+            datos.escribir(cola, 4);
+        }
+        chunk("IDAT", datos.bytes, datos.longitud);
+        if (ultima) chunk("IEND", new byte[0], 0);
+        canal.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        canal.close();
+    }
+
+    /* ---------- Chunks ---------- */
+    private void chunk(String tipo, byte[] datos, int longitud) throws IOException {
+        byte[] t = tipo.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(t);
+        crc.update(datos, 0, longitud);
+        ByteBuffer cab = ByteBuffer.allocate(8).putInt(longitud).put(t);
+        cab.flip();
+        escribir(cab);
+        escribir(ByteBuffer.wrap(datos, 0, longitud));
+        escribir(ByteBuffer.allocate(4).putInt(0, (int) crc.getValue()));
+    }
+
+    private void escribir(ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) posicion += canal.write(b);
+    }
+
+    /** Adler-32 de la concatenación a partir de los de cada parte (adler32_combine de zlib). */
+    static long combinarAdler(long adler1, long adler2, long longitud2) {
+        final long BASE = 65521;
+        long resto = longitud2 % BASE;
+        long suma1 = adler1 & 0xFFFF;
+        long suma2 = (resto * suma1) % BASE;
+        suma1 += (adler2 & 0xFFFF) + BASE - 1;
+        suma2 += ((adler1 >>> 16) & 0xFFFF) + ((adler2 >>> 16) & 0xFFFF) + BASE - resto;
+        if (suma1 >= BASE) suma1 -= BASE;
+        if (suma1 >= BASE) suma1 -= BASE;
+        if (suma2 >= 2 * BASE) suma2 -= 2 * BASE;
+        if (suma2 >= BASE) suma2 -= BASE;
+        return suma1 | (suma2 << 16);
+    }
+
+    /** Búfer de bytes creciente (el IDAT de una franja). */
+    private static final class BufferCreciente {
+        byte[] bytes;
+        int longitud;
+        BufferCreciente(int capacidad) { bytes = new byte[capacidad]; }
+        void escribir(byte[] b, int n) {
+            if (longitud + n > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, longitud + n));
+            System.arraycopy(b, 0, bytes, longitud, n);
+            longitud += n;
+        }
+    }
+}
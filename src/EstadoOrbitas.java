@@ -0,0 +1,67 @@
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estado por píxel de las órbitas de una vista, para no repetir trabajo al
+ * cambiar maxIteraciones: al subirlo solo se continúan los píxeles que no
+ * habían escapado (desde su z y n guardados); al bajarlo la respuesta sale
+ * de los recuentos ya guardados sin iterar nada.
+ *
+ * Por píxel i:
+ *   nu[i]  iteración continua si escapó, NaN si no;
+ *   n[i]   nº de iteración en que escapó, o hasta dónde se ha iterado,
+ *          o INTERIOR si se demostró que no escapa nunca (cardioide/ciclo);
+ *   zx, zy z en la iteración n[i] (solo relevante si está pendiente).
+ */
+public final class EstadoOrbitas {
+
+    public static final int INTERIOR = -1;
+
+    private final BigDecimal centroX, centroY;
+    private final double anchura, altura;
+    final int ancho, alto;
+    final NucleoFractal nucleo; // función con la que se iteraron las órbitas
+    final boolean periodos;     // y si con detección de interior: cambia qué queda pendiente
+
+    final double[] zx, zy;
+    final int[] n;
+    final float[] nu;
+
+    private final LongAdder iterados = new LongAdder();
+
+    public EstadoOrbitas(BigDecimal centroX, BigDecimal centroY, double anchura, double altura, int ancho, int alto,
+                         NucleoFractal nucleo, boolean periodos) {
+        this.centroX = centroX; this.centroY = centroY; this.anchura = anchura; this.altura = altura;
+        this.ancho = ancho; this.alto = alto; this.nucleo = nucleo; this.periodos = periodos;
+        int total = ancho * alto;
+        zx = new double[total];
+        zy = new double[total];
+        n = new int[total];
+        nu = new float[total];
+        java.util.Arrays.fill(nu, Float.NaN);
+    }
+
+    /** true si el estado corresponde exactamente a esta vista. */
+    public boolean mismaVista(BigDecimal cx, BigDecimal cy, double anchura, double altura, int ancho, int alto) {
+        return centroX.equals(cx) && centroY.equals(cy) && this.anchura == anchura && this.altura == altura
+                && this.ancho == ancho && this.alto == alto;
+    }
+
+    /** El píxel aún no ha escapado ni se ha iterado hasta maxIteraciones. */
+    public boolean pendiente(int i, int maxIteraciones) {
+        return nu[i] != nu[i] && n[i] != INTERIOR && n[i] < maxIteraciones;
+    }
+
+    /** Apunta que el píxel i se ha (re)iterado en la última pasada. */
+    void contarIterado() { iterados.increment(); }
+
+    /** Píxeles iterados desde el último reiniciarCuenta(). */
+    public long getIterados() { return iterados.sum(); }
+    public void reiniciarCuenta() { iterados.reset(); }
+
+    /** Valor visible con el límite dado: escapado antes del límite => nu; si no, NaN. */
+    public float valor(int i, int maxIteraciones) {
+        float v = nu[i];
+        return (v == v && n[i] < maxIteraciones) ? v : Float.NaN;
+    }
+}
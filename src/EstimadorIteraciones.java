@@ -0,0 +1,87 @@
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Límite de iteraciones automático a partir de un sondeo a baja resolución.
+ *
+ * Se calcula una rejilla gruesa de la vista con límites que se doblan (256,
+ * 512, ...) hasta que la última octava (L/2, L] apenas añade píxeles que
+ * escapan: más iteraciones ya no descubren detalle. Con el histograma de
+ * los conteos de escape de ese sondeo, el límite es el percentil
+ * PERCENTIL por un margen (la rejilla gruesa no ve los bordes más finos de
+ * la imagen completa), entre un mínimo y un máximo.
+ *
+ * Mientras nada escapa se sigue doblando: en zoom profundo los conteos
+ * pueden empezar en miles. Si pasado el límite actual siguen sin escapar
+ * durante OCTAVAS_SIN_ESCAPES octavas (una vista toda interior, que iría
+ * hasta el máximo por nada), se deja el límite actual.
+ */
+public final class EstimadorIteraciones {
+
+    /** Valores continuos de la rejilla con el límite dado (NaN = no escapa); null si se cancela. */
+    @FunctionalInterface
+    public interface Sonda {
+        float[] valores(int maxIteraciones);
+    }
+
+    public static final int LIMITE_INICIAL = 256;
+    /** Fracción de escapados que debe quedar por debajo del límite. */
+    public static final double PERCENTIL = 0.999;
+    public static final double MARGEN = 2.0;
+    /** Por debajo de esta fracción de la rejilla, la última octava no aporta detalle. */
+    public static final double TOLERANCIA_OCTAVA = 5e-4;
+    /** Octavas por encima del límite actual sin ningún escape tras las que se deja ese límite. */
+    public static final int OCTAVAS_SIN_ESCAPES = 3;
+
+    private final int minimo, maximo;
+
+    private int limite, sondeado, escapados, total;
+    private double percentil;
+
+    public EstimadorIteraciones(int minimo, int maximo) {
+        if (minimo < 1 || maximo < minimo) throw new IllegalArgumentException("Límites no válidos: " + minimo + ".." + maximo);
+        this.minimo = minimo;
+        this.maximo = maximo;
+    }
+
+    /** Sondea y devuelve el límite estimado (actual si nada escapa); -1 si se canceló. */
+    public int estimar(Sonda sonda, int actual, BooleanSupplier cancelado) {
+        float[] v = null;
+        int L = Math.min(LIMITE_INICIAL, maximo), anteriores = 0, octavas = 0;
+        while (true) {
+            if (cancelado.getAsBoolean() || (v = sonda.valores(L)) == null) return -1;
+            int esc = 0;
+            for (float x : v) if (x == x) esc++;
+            if (esc == 0 && L > actual && ++octavas >= OCTAVAS_SIN_ESCAPES) break;
+            int nuevos = esc - anteriores;
+            anteriores = esc;
+            boolean sinDetalle = esc > 0 && nuevos < Math.max(1, TOLERANCIA_OCTAVA * v.length);
+            if (sinDetalle || L >= maximo) break;
+            L = (int) Math.min((long) L * 2, maximo);
+        }
+        sondeado = L;
+        total = v.length;
+        escapados = anteriores;
+        if (escapados == 0) {
+            percentil = 0;
+            return limite = actual;
+        }
+        float[] conteos = new float[escapados];
+        int k = 0;
+        for (float x : v) if (x == x) conteos[k++] = x;
+        Arrays.sort(conteos);
+        percentil = conteos[Math.min(escapados - 1, (int) Math.ceil(PERCENTIL * escapados) - 1)];
+        long estimado = (long) Math.ceil(percentil * MARGEN);
+        return limite = (int) Math.max(minimo, Math.min(maximo, estimado));
+    }
+
+    public int getLimite() { return limite; }
+
+    /** Resumen del último sondeo para el HUD. */
+    public String resumen() {
+        return String.format(Locale.ROOT, "Iteraciones auto: %d (p%.1f = %.0f ×%.1f · sondeo hasta %d · %.1f%% sin escapar)",
+                limite, 100 * PERCENTIL, percentil, MARGEN, sondeado,
+                total > 0 ? 100.0 * (total - escapados) / total : 0.0);
+    }
+}
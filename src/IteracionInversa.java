@@ -1,9 +1,17 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 
 public class IteracionInversa extends JPanel {
 
+    /** Destino de los puntos que genera el recorrido de preimágenes. */
+    @FunctionalInterface
+    interface Trazador {
+        void punto(double x, double y);
+    }
+
     // --- Parámetros de imagen ---
     private final int pixels = 1000;   // imagen pixels x pixels (cuadrada)
 
@@ -11,9 +19,21 @@ public class IteracionInversa extends JPanel {
     private double cRe = 0;
     private double cIm = 0;
 
-    // --- Control de recursión ---
-    private final double maxIter = 1e11;     // # niveles (genera 2^maxIter puntos)
+    // --- Función de iteración (tecla N: solo los núcleos con inversa) ---
+    private NucleoFractal nucleo = NucleoFractal.CUADRATICO;
+
+    // --- Límites del recorrido (MotorIteracionInversa) ---
+    private final int maxIter = 4096;        // # niveles del árbol de preimágenes
     private final double D = 1e6;      // umbral para derAcu
+    private final long presupuesto = 2_000_000_000L; // # máximo de nodos visitados
+
+    // --- MIIM: poda por visitas por píxel (tecla M) ---
+    private boolean miim = false;
+    private final int umbralMIIM = 100;      // visitas por píxel antes de podar
+    private final double D_MIIM = 1e20;      // con poda se puede bajar mucho más
+    private boolean verDensidad = false;     // tecla H: densidad log en vez de puntos
+    private DensidadMIIM densidad;
+    private long nodos;
 
     // --- Viewport (centrado y zoom) ---
     // Centro de la ventana en el plano complejo:
@@ -30,6 +50,7 @@ public class IteracionInversa extends JPanel {
     private final double xmin, xmax, ymin, ymax;
 
     private BufferedImage img;
+    private final RenderizadorParalelo renderizador = new RenderizadorParalelo(RenderizadorParalelo.hilosPorDefecto());
 
     public IteracionInversa() {
         // calcular viewport respetando aspecto 1:1 (imagen cuadrada)
@@ -39,81 +60,52 @@ public class IteracionInversa extends JPanel {
         ymin = cy - halfY; ymax = cy + halfY;
 
         img = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_RGB);
-        pintarFondo(Color.WHITE);
-
-        // 1) PRECÁLCULO: z0 punto fijo repulsivo de z^2 - z + c = 0
-        Complex c = new Complex(cRe, cIm);
-        Complex z0 = fixedPointRepulsivo(c); // elige raíz con |2 z0| > 1
-
-        // 2) ENTRADA: z=z0, derAcu=1, nIter=0
-        iterarInversamente(z0, 1.0, 0);
+        calcular();
+
+        setFocusable(true);
+        addKeyListener(new KeyAdapter() {
+            @Override public void keyPressed(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_M: miim = !miim; calcular(); break;
+                    case KeyEvent.VK_N: nucleo = NucleoFractal.siguiente(nucleo, true); calcular(); break;
+                    case KeyEvent.VK_H: verDensidad = !verDensidad; if (miim) pintarMIIM(); break;
+                    default: return;
+                }
+                repaint();
+            }
+        });
     }
 
-    // ---------- Algoritmo principal ----------
-    private void iterarInversamente(Complex z, double derAcu, int nIter) {
-        // 3) Corte
-        if (nIter >= maxIter || derAcu > D) return;
-
-        // 6) derAcu <- derAcu · |2z|
-        derAcu *= 2.0 * z.abs();
-
-        // 7-10) pintar
-        int[] p = getPixelPosition(z.re, z.im);
-        int px = p[0], py = p[1];
-        if (0 <= px && px < pixels && 0 <= py && py < pixels) {
-            img.setRGB(px, py, 0x000000);
+    // ---------- Recorrido ----------
+    private void calcular() {
+        pintarFondo(Color.WHITE);
+        final int[] raster = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+        if (miim) {
+            densidad = new DensidadMIIM(pixels, pixels, xmin, xmax, ymin, ymax, umbralMIIM);
+            nodos = new MotorIteracionInversa(renderizador, nucleo, maxIter, D_MIIM, presupuesto).recorrer(cRe, cIm, densidad);
+            pintarMIIM();
+            return;
         }
-
-        // 11) raiz <- sqrt(z - c)
-        Complex raiz = sqrtPrincipal(z.sub(new Complex(cRe, cIm)));
-
-        // 12-13) Llamadas recursivas con ambas ramas
-        iterarInversamente(raiz,       derAcu, nIter + 1);
-        iterarInversamente(raiz.neg(), derAcu, nIter + 1);
-    }
-
-    // ---------- Utilidades complejas ----------
-    private static class Complex {
-        final double re, im;
-        Complex(double re, double im) { this.re = re; this.im = im; }
-        Complex add(Complex w) { return new Complex(re + w.re, im + w.im); }
-        Complex sub(Complex w) { return new Complex(re - w.re, im - w.im); }
-        Complex neg() { return new Complex(-re, -im); }
-        double abs() { return Math.hypot(re, im); }
-    }
-
-    // sqrt complejo (rama principal): sqrt(r) * e^{i theta/2}
-    private Complex sqrtPrincipal(Complex w) {
-        double r = w.abs();
-        if (r == 0.0) return new Complex(0, 0);
-        double theta = Math.atan2(w.im, w.re);
-        double rootR = Math.sqrt(r);
-        double a = 0.5 * theta;
-        return new Complex(rootR * Math.cos(a), rootR * Math.sin(a));
-    }
-
-    // z0 repulsivo: raíz de z^2 - z + c = 0 con |2z|>1
-    private Complex fixedPointRepulsivo(Complex c) {
-        // z = (1 ± sqrt(1 - 4c)) / 2
-        Complex disc = sqrtPrincipal(new Complex(1 - 4*c.re, -4*c.im));
-        Complex zPlus  = new Complex( (1 + disc.re)/2.0,  disc.im/2.0);
-        Complex zMinus = new Complex( (1 - disc.re)/2.0, -disc.im/2.0);
-        double dPlus  = 2.0 * Math.hypot(zPlus.re,  zPlus.im);
-        double dMinus = 2.0 * Math.hypot(zMinus.re, zMinus.im);
-        boolean repPlus  = dPlus  > 1.0;
-        boolean repMinus = dMinus > 1.0;
-        if (repPlus && !repMinus) return zPlus;
-        if (repMinus && !repPlus) return zMinus;
-        return zPlus; // si ambos o ninguno, coge zPlus
+        densidad = null;
+        // El motor pinta desde varios hilos sobre el mismo ráster: siempre escriben negro, sin cerrojos
+        final double sx = (pixels - 1) / (xmax - xmin), sy = (pixels - 1) / (ymax - ymin);
+        nodos = new MotorIteracionInversa(renderizador, nucleo, maxIter, D, presupuesto).recorrer(cRe, cIm, (x, y) -> {
+            int px = (int) Math.round((x - xmin) * sx);
+            int py = (int) Math.round((ymax - y) * sy);
+            if (0 <= px && px < pixels && 0 <= py && py < pixels) {
+                raster[py * pixels + px] = 0x000000;
+            }
+        });
     }
 
-    // ---------- Mapeo a píxel con viewport ----------
-    private int[] getPixelPosition(double x, double y) {
-        // px = 0 en x = xmin, px = pixels-1 en x = xmax
-        int px = (int) Math.round((x - xmin) * (pixels - 1) / (xmax - xmin));
-        // Invertimos vertical: y = ymax -> py = 0 ; y = ymin -> py = pixels-1
-        int py = (int) Math.round((ymax - y) * (pixels - 1) / (ymax - ymin));
-        return new int[]{px, py};
+    private void pintarMIIM() {
+        final int[] raster = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+        if (verDensidad) {
+            densidad.pintarDensidad(raster, renderizador);
+        } else {
+            pintarFondo(Color.WHITE);
+            densidad.pintarPuntos(raster, renderizador);
+        }
     }
 
     // ---------- Dibujo ----------
@@ -128,6 +120,10 @@ public class IteracionInversa extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         g.drawImage(img, 0, 0, null);
+        g.setColor(Color.RED);
+        String modo = miim ? "MIIM (umbral " + umbralMIIM + (verDensidad ? ", densidad" : "") + ")" : "clásica";
+        g.drawString(String.format("%s · %s · %,d nodos · M: modo · H: densidad · N: núcleo",
+                nucleo.nombre(), modo, nodos), 10, 20);
     }
 
     // ---------- Arranque ----------
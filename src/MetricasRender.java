@@ -0,0 +1,237 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Métricas de un fotograma: tiempo de pared (cálculo + coloreado),
+ * píxeles/s, iteraciones, fracción de píxeles que llegan a maxIteraciones
+ * y, si el camino recorre la imagen por teselas, el tiempo de cada tesela.
+ *
+ * Las iteraciones se estiman a partir de los valores ya calculados, sin
+ * contar dentro de los bucles: un píxel que escapa suma su valor continuo
+ * redondeado (±1) y uno que no escapa suma maxIteraciones, aunque un atajo
+ * de interior lo haya resuelto antes; así la media dice cuánto pesa la
+ * profundidad y la fracción en maxIteraciones cuánto pesa el interior.
+ *
+ * Se muestran en el HUD del visor y se emiten como eventos JFR
+ * (fractales.Fotograma, fractales.Tesela y fractales.Pintado) para
+ * analizar una sesión grabada con -XX:StartFlightRecording.
+ */
+public final class MetricasRender {
+
+    final int ancho, alto, maxIteraciones;
+    final String camino;
+    final int teselasX, teselasY;
+    private final long[] nanosTesela; // null si el camino no va por teselas
+
+    private final EventoFotograma evento = new EventoFotograma();
+    private final long inicio;
+    private long nanosSondeo, nanosCalculo, nanosColor, nanosAntialias, nanosTotal;
+    private long muestrasAntialias;
+    private long iteraciones = -1, pixelesEnMaximo;
+
+    /** Empieza a medir; porTeselas reserva el mapa de tiempos por tesela. */
+    public MetricasRender(int ancho, int alto, int maxIteraciones, String camino, boolean porTeselas) {
+        this.ancho = ancho; this.alto = alto; this.maxIteraciones = maxIteraciones; this.camino = camino;
+        this.teselasX = RenderizadorParalelo.teselasX(ancho);
+        this.teselasY = RenderizadorParalelo.teselasY(alto);
+        this.nanosTesela = porTeselas ? new long[teselasX * teselasY] : null;
+        evento.begin();
+        inicio = System.nanoTime();
+    }
+
+    /** Mapa para RenderizadorParalelo.recorrer/recorrerFilas; null si no se mide por teselas. */
+    long[] nanosTesela() { return nanosTesela; }
+
+    /** Sondeo previo del límite automático, hecho antes de empezar a medir (cuenta en el total). */
+    void sumarSondeo(long nanos) { nanosSondeo += nanos; }
+    void sumarCalculo(long nanos) { nanosCalculo += nanos; }
+    void sumarColor(long nanos) { nanosColor += nanos; }
+    void sumarAntialias(long nanos, long muestras) { nanosAntialias += nanos; muestrasAntialias += muestras; }
+
+    /** Iteraciones estimadas y píxeles en maxIteraciones a partir de los valores (NaN = no escapa). */
+    private void contar(float[] valores) {
+        long total = 0, enMaximo = 0;
+        for (float v : valores) {
+            if (v != v) { total += maxIteraciones; enMaximo++; }
+            else total += Math.min(maxIteraciones, Math.max(0, Math.round(v)));
+        }
+        iteraciones = total;
+        pixelesEnMaximo = enMaximo;
+    }
+
+    /**
+     * Cierra la medida del fotograma y emite los eventos JFR (sin coste si no
+     * hay grabación). Las iteraciones se cuentan después de parar el reloj,
+     * y solo si hay grabación o si contar (el HUD las pide).
+     */
+    void terminar(float[] valores, boolean contar) {
+        nanosTotal = System.nanoTime() - inicio + nanosSondeo;
+        evento.end();
+        if (contar || evento.shouldCommit()) contar(valores);
+        if (evento.shouldCommit()) {
+            evento.ancho = ancho; evento.alto = alto; evento.maxIteraciones = maxIteraciones;
+            evento.camino = camino;
+            evento.sondeo = nanosSondeo; evento.calculo = nanosCalculo; evento.coloreado = nanosColor;
+            evento.antialias = nanosAntialias; evento.muestrasAntialias = muestrasAntialias;
+            evento.pixelesPorSegundo = pixelesPorSegundo();
+            evento.iteraciones = iteraciones;
+            evento.iteracionesMedias = iteracionesMedias();
+            evento.fraccionMaximo = fraccionMaximo();
+            if (nanosTesela != null) {
+                int lenta = teselaMasLenta();
+                evento.teselaMaxima = nanosTesela[lenta];
+                evento.teselaMedia = mediaTesela();
+            }
+            evento.commit();
+        }
+        if (nanosTesela == null) return;
+        for (int t = 0; t < nanosTesela.length; t++) {
+            EventoTesela e = new EventoTesela();
+            if (!e.shouldCommit()) break;
+            e.tx = t % teselasX; e.ty = t / teselasX;
+            e.lado = RenderizadorParalelo.LADO_TESELA;
+            e.tiempo = nanosTesela[t];
+            e.commit();
+        }
+    }
+
+    public long getNanosTotal() { return nanosTotal; }
+
+    public double pixelesPorSegundo() {
+        return nanosTotal > 0 ? (double) ancho * alto * 1e9 / nanosTotal : 0.0;
+    }
+
+    /** -1 si no se contaron (ni HUD ni grabación). */
+    public long getIteraciones() { return iteraciones; }
+
+    public double iteracionesMedias() {
+        return iteraciones < 0 ? Double.NaN : (double) iteraciones / ((long) ancho * alto);
+    }
+
+    public double fraccionMaximo() {
+        return iteraciones < 0 ? Double.NaN : (double) pixelesEnMaximo / ((long) ancho * alto);
+    }
+
+    private int teselaMasLenta() {
+        int lenta = 0;
+        for (int t = 1; t < nanosTesela.length; t++) if (nanosTesela[t] > nanosTesela[lenta]) lenta = t;
+        return lenta;
+    }
+
+    private long mediaTesela() {
+        long suma = 0;
+        for (long n : nanosTesela) suma += n;
+        return suma / nanosTesela.length;
+    }
+
+    /** Líneas compactas para el HUD; nanosPintado es el último drawImage del panel. */
+    List<String> resumen(long nanosPintado) {
+        List<String> l = new ArrayList<>();
+        String sondeo = nanosSondeo > 0 ? String.format(Locale.ROOT, "sondeo %.1f · ", nanosSondeo / 1e6) : "";
+        String aa = nanosAntialias > 0 ? String.format(Locale.ROOT, " · antialias %.1f", nanosAntialias / 1e6) : "";
+        l.add(String.format(Locale.ROOT, "Fotograma %.1f ms (%scálculo %.1f · color %.1f%s · pintado %.1f) · %.1f Mpx/s",
+                nanosTotal / 1e6, sondeo, nanosCalculo / 1e6, nanosColor / 1e6, aa, nanosPintado / 1e6,
+                pixelesPorSegundo() / 1e6));
+        if (iteraciones >= 0) {
+            l.add(String.format(Locale.ROOT, "Iteraciones ≈ %.3g (media %.0f) · %.1f%% en maxIter (%s)",
+                    (double) iteraciones, iteracionesMedias(), 100.0 * fraccionMaximo(), camino));
+        }
+        if (nanosTesela != null) {
+            int lenta = teselaMasLenta();
+            long media = mediaTesela();
+            l.add(String.format(Locale.ROOT, "Teselas: máx %.2f ms en (%d, %d), ×%.1f la media",
+                    nanosTesela[lenta] / 1e6, lenta % teselasX, lenta / teselasX,
+                    media > 0 ? (double) nanosTesela[lenta] / media : 0.0));
+        } else {
+            l.add("Teselas: sin mapa en el camino " + camino);
+        }
+        return l;
+    }
+
+    /** Alto en píxeles del mapa de teselas dibujado con anchura anchoMapa (0 si no hay mapa). */
+    int altoMapa(int anchoMapa) {
+        return nanosTesela == null ? 0 : Math.max(1, anchoMapa * teselasY / teselasX);
+    }
+
+    /** Mapa de calor del tiempo por tesela (negro = rápida, amarillo = la más lenta). */
+    void dibujarMapa(Graphics g, int x, int y, int anchoMapa) {
+        if (nanosTesela == null) return;
+        long max = Math.max(1, nanosTesela[teselaMasLenta()]);
+        int altoMapa = altoMapa(anchoMapa);
+        for (int t = 0; t < nanosTesela.length; t++) {
+            int i = t % teselasX, j = t / teselasX;
+            int x0 = x + i * anchoMapa / teselasX, x1 = x + (i + 1) * anchoMapa / teselasX;
+            int y0 = y + j * altoMapa / teselasY, y1 = y + (j + 1) * altoMapa / teselasY;
+            float f = (float) Math.sqrt((double) nanosTesela[t] / max);
+            g.setColor(new Color(f, f * f, 0f));
+            g.fillRect(x0, y0, Math.max(1, x1 - x0), Math.max(1, y1 - y0));
+        }
+    }
+
+    /** Ejecuta el pintado del fotograma midiéndolo (evento fractales.Pintado); devuelve su duración en ns. */
+    static long medirPintado(Runnable pintado) {
+        EventoPintado e = new EventoPintado();
+        e.begin();
+        long t0 = System.nanoTime();
+        pintado.run();
+        long nanos = System.nanoTime() - t0;
+        e.commit();
+        return nanos;
+    }
+
+    /* ---------- Eventos JFR ---------- */
+
+    @Name("fractales.Fotograma")
+    @Label("Fotograma")
+    @Category({"Fractales", "Render"})
+    @Description("Un fotograma calculado y coloreado; la duración es el tiempo de pared total")
+    @StackTrace(false)
+    static final class EventoFotograma extends Event {
+        @Label("Ancho") int ancho;
+        @Label("Alto") int alto;
+        @Label("Máx. iteraciones") int maxIteraciones;
+        @Label("Camino") String camino;
+        @Label("Sondeo del límite") @Timespan(Timespan.NANOSECONDS) long sondeo;
+        @Label("Cálculo") @Timespan(Timespan.NANOSECONDS) long calculo;
+        @Label("Coloreado") @Timespan(Timespan.NANOSECONDS) long coloreado;
+        @Label("Antialiasing") @Timespan(Timespan.NANOSECONDS) long antialias;
+        @Label("Muestras de antialiasing") long muestrasAntialias;
+        @Label("Píxeles por segundo") double pixelesPorSegundo;
+        @Label("Iteraciones (estimadas)") long iteraciones;
+        @Label("Iteraciones medias por píxel") double iteracionesMedias;
+        @Label("Fracción en maxIteraciones") @Percentage double fraccionMaximo;
+        @Label("Tesela más lenta") @Timespan(Timespan.NANOSECONDS) long teselaMaxima;
+        @Label("Tesela media") @Timespan(Timespan.NANOSECONDS) long teselaMedia;
+    }
+
+    @Name("fractales.Tesela")
+    @Label("Tesela")
+    @Category({"Fractales", "Render"})
+    @Description("Tiempo de cálculo de una tesela del último fotograma")
+    @StackTrace(false)
+    static final class EventoTesela extends Event {
+        @Label("Columna") int tx;
+        @Label("Fila") int ty;
+        @Label("Lado en píxeles") int lado;
+        @Label("Tiempo") @Timespan(Timespan.NANOSECONDS) long tiempo;
+    }
+
+    @Name("fractales.Pintado")
+    @Label("Pintado")
+    @Category({"Fractales", "Swing"})
+    @Description("drawImage del fotograma en paintComponent")
+    @StackTrace(false)
+    static final class EventoPintado extends Event {
+    }
+}
@@ -0,0 +1,186 @@
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Iteración inversa de z -> f(z) + c sin recursión ni objetos por nodo.
+ *
+ * Desde el punto inicial del núcleo (un punto fijo repulsivo), cada nodo z
+ * que no supera los límites (nivel, derivada acumulada, presupuesto de
+ * nodos) acumula |f'(z)| en la derivada, se pinta y genera sus preimágenes
+ * (±sqrt(z - c) en el cuadrático). Los primeros niveles del árbol se
+ * reparten como tareas fork-join (una por subárbol); por debajo, cada tarea
+ * recorre su subárbol en profundidad con una pila de arrays primitivos.
+ *
+ * En el cuadrático la raíz cuadrada es algebraica (sin atan2/cos/sin), con
+ * la misma rama principal; los puntos pueden diferir del cálculo
+ * trigonométrico en el último bit, lo que rara vez cambia el píxel.
+ *
+ * El trazador se llama desde varios hilos a la vez: debe admitir escrituras
+ * concurrentes (p. ej. escribir siempre el mismo valor en un array).
+ *
+ * Con una DensidadMIIM (iteración inversa modificada) cada nodo anota una
+ * visita en su píxel y no se expande si el píxel ya estaba saturado.
+ */
+public final class MotorIteracionInversa {
+
+    // Subárboles que se reparten como tareas como mucho (12 niveles en el cuadrático)
+    private static final int TAREAS_REPARTO = 1 << 12;
+    // Nodos que una tarea reserva de golpe del presupuesto común
+    private static final int LOTE_PRESUPUESTO = 4096;
+
+    private final RenderizadorParalelo renderizador;
+    private final NucleoFractal nucleo;
+    private final int nivelesReparto;
+    private final int profundidadMaxima;
+    private final double derivadaMaxima;
+    private final long presupuesto;
+
+    private final LongAdder visitados = new LongAdder();
+    private volatile boolean agotado;
+
+    /**
+     * @param profundidadMaxima nº máximo de preimágenes encadenadas (nivel del árbol)
+     * @param derivadaMaxima    corte por derivada acumulada (la D del original)
+     * @param presupuesto       nº máximo de nodos visitados en total
+     */
+    public MotorIteracionInversa(RenderizadorParalelo renderizador, int profundidadMaxima,
+                                 double derivadaMaxima, long presupuesto) {
+        this(renderizador, NucleoFractal.CUADRATICO, profundidadMaxima, derivadaMaxima, presupuesto);
+    }
+
+    /** Con otro núcleo; debe tener inversa (NucleoFractal.tieneInversa). */
+    public MotorIteracionInversa(RenderizadorParalelo renderizador, NucleoFractal nucleo, int profundidadMaxima,
+                                 double derivadaMaxima, long presupuesto) {
+        if (!nucleo.tieneInversa()) {
+            throw new IllegalArgumentException("El núcleo " + nucleo.nombre() + " no tiene iteración inversa");
+        }
+        this.renderizador = renderizador;
+        this.nucleo = nucleo;
+        int niveles = 0;
+        for (long t = nucleo.maxPreimagenes(); t <= TAREAS_REPARTO; t *= nucleo.maxPreimagenes()) niveles++;
+        this.nivelesReparto = niveles;
+        this.profundidadMaxima = profundidadMaxima;
+        this.derivadaMaxima = derivadaMaxima;
+        this.presupuesto = presupuesto;
+    }
+
+    /** Nodos visitados en el último recorrido (incluidos los podados). */
+    public long getVisitados() { return visitados.sum(); }
+
+    /** true si el último recorrido se cortó por presupuesto. */
+    public boolean isAgotado() { return agotado; }
+
+    /** Recorre el árbol de preimágenes; devuelve el nº de nodos visitados. */
+    public long recorrer(double cRe, double cIm, IteracionInversa.Trazador trazador) {
+        return recorrer(cRe, cIm, trazador, null);
+    }
+
+    /** MIIM: recorre el árbol anotando las visitas en 'densidad' y podando los píxeles saturados. */
+    public long recorrer(double cRe, double cIm, DensidadMIIM densidad) {
+        return recorrer(cRe, cIm, (x, y) -> { }, densidad);
+    }
+
+    private long recorrer(double cRe, double cIm, IteracionInversa.Trazador trazador, DensidadMIIM poda) {
+        visitados.reset();
+        agotado = false;
+        AtomicLong restante = new AtomicLong(presupuesto);
+        double[] z0 = new double[2];
+        nucleo.puntoInicial(cRe, cIm, z0);
+        renderizador.invocar(new Subarbol(z0[0], z0[1], 1.0, 0, cRe, cIm, trazador, poda, restante));
+        return visitados.sum();
+    }
+
+    /* ---------- Subárbol: reparto fork-join + recorrido con pila primitiva ---------- */
+    private final class Subarbol extends RecursiveAction {
+        private final double zx, zy, derivada;
+        private final int nivel;
+        private final double cRe, cIm;
+        private final IteracionInversa.Trazador trazador;
+        private final DensidadMIIM poda; // null sin MIIM
+        private final AtomicLong restante;
+        private long cuota; // nodos reservados del presupuesto y aún sin gastar
+
+        Subarbol(double zx, double zy, double derivada, int nivel, double cRe, double cIm,
+                 IteracionInversa.Trazador trazador, DensidadMIIM poda, AtomicLong restante) {
+            this.zx = zx; this.zy = zy; this.derivada = derivada; this.nivel = nivel;
+            this.cRe = cRe; this.cIm = cIm; this.trazador = trazador; this.poda = poda;
+            this.restante = restante;
+        }
+
+        @Override
+        protected void compute() {
+            if (nivel < nivelesReparto) {
+                if (nivel >= profundidadMaxima || derivada > derivadaMaxima || !gastar()) return;
+                visitados.increment();
+                if (poda != null && !poda.visitar(zx, zy)) return;
+                double der = derivada * nucleo.factorDerivada(zx, zy);
+                trazador.punto(zx, zy);
+                double[] r = new double[2 * nucleo.maxPreimagenes()];
+                int k = nucleo.preimagenes(zx, zy, cRe, cIm, r);
+                Subarbol[] hijos = new Subarbol[k];
+                for (int j = 0; j < k; j++) {
+                    hijos[j] = new Subarbol(r[2 * j], r[2 * j + 1], der, nivel + 1, cRe, cIm, trazador, poda, restante);
+                }
+                invokeAll(hijos);
+                return;
+            }
+            recorrerPila();
+            if (cuota > 0) restante.addAndGet(cuota); // devuelve lo no usado
+        }
+
+        private void recorrerPila() {
+            final int maxNivel = profundidadMaxima;
+            final double maxDer = derivadaMaxima;
+            final double cr = cRe, ci = cIm;
+            final DensidadMIIM densidad = poda;
+            final NucleoFractal f = nucleo;
+            int cap = 64;
+            double[] px = new double[cap], py = new double[cap], pd = new double[cap];
+            int[] pn = new int[cap];
+            int tope = 0;
+            px[0] = zx; py[0] = zy; pd[0] = derivada; pn[0] = nivel; tope = 1;
+            double[] r = new double[2 * f.maxPreimagenes()];
+            long vistos = 0;
+            while (tope > 0) {
+                tope--;
+                double x = px[tope], y = py[tope], der = pd[tope];
+                int n = pn[tope];
+                if (n >= maxNivel || der > maxDer) continue;
+                if (!gastar()) break;
+                vistos++;
+                if (densidad != null && !densidad.visitar(x, y)) continue;
+                der *= f.factorDerivada(x, y);
+                trazador.punto(x, y);
+                int k = f.preimagenes(x, y, cr, ci, r);
+                if (tope + k > cap) {
+                    cap = Math.max(cap << 1, tope + k);
+                    px = Arrays.copyOf(px, cap); py = Arrays.copyOf(py, cap);
+                    pd = Arrays.copyOf(pd, cap); pn = Arrays.copyOf(pn, cap);
+                }
+                // Se apilan en orden inverso: la primera preimagen se visita antes, como en la recursión
+                for (int j = k - 1; j >= 0; j--) {
+                    px[tope] = r[2 * j]; py[tope] = r[2 * j + 1]; pd[tope] = der; pn[tope] = n + 1; tope++;
+                }
+            }
+            visitados.add(vistos);
+        }
+
+        /**
+         * Descuenta un nodo del presupuesto. Los subárboles reservan por lotes
+         * para no contender; los nodos del reparto, de uno en uno.
+         */
+        private boolean gastar() {
+            if (cuota == 0) {
+                if (agotado) return false;
+                int lote = nivel < nivelesReparto ? 1 : LOTE_PRESUPUESTO;
+                long antes = restante.getAndUpdate(v -> v - Math.min(v, lote));
+                if (antes <= 0) { agotado = true; return false; }
+                cuota = Math.min(lote, antes);
+            }
+            cuota--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/** Burning Ship: (|x| + i|y|)^2 + c. */
+final class NucleoBurningShip implements NucleoFractal {
+
+    @Override public String nombre() { return "burningship"; }
+    @Override public int grado() { return 2; }
+
+    @Override
+    public double parametro(double cx, double cy, int maxIter, double r2, boolean periodos) {
+        double zx = 0.0, zy = 0.0;
+        double guardadoX = 0.0, guardadoY = 0.0;
+        int paso = 0, tramo = 2;
+        int n = 0;
+        for (; n < maxIter; n++) {
+            double ax = Math.abs(zx), ay = Math.abs(zy);
+            double zx2 = ax * ax - ay * ay + cx;
+            double zy2 = 2.0 * ax * ay + cy;
+            zx = zx2; zy = zy2;
+            if (zx * zx + zy * zy > r2) break;
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    n = maxIter; break;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        return NucleoFractal.valorSuave(n, zx, zy, maxIter, 2);
+    }
+
+    @Override
+    public float dinamico(double zx, double zy, double cRe, double cIm, int maxIter, double r2, boolean periodos) {
+        double guardadoX = zx, guardadoY = zy;
+        int paso = 0, tramo = 2;
+        int n = 0;
+        for (; n < maxIter; n++) {
+            double ax = Math.abs(zx), ay = Math.abs(zy);
+            double zx2 = ax * ax - ay * ay + cRe;
+            double zy2 = 2.0 * ax * ay + cIm;
+            zx = zx2; zy = zy2;
+            if (zx * zx + zy * zy > r2) break;
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    n = maxIter; break;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        if (n == maxIter) return Float.NaN;
+        return n;
+    }
+
+    @Override
+    public void continuar(EstadoOrbitas e, int i, double cx, double cy, int maxIter, double r2, boolean periodos) {
+        double zx = e.zx[i], zy = e.zy[i];
+        double guardadoX = zx, guardadoY = zy;
+        int paso = 0, tramo = 2;
+        int n = e.n[i];
+        for (; n < maxIter; n++) {
+            double ax = Math.abs(zx), ay = Math.abs(zy);
+            double zx2 = ax * ax - ay * ay + cx;
+            double zy2 = 2.0 * ax * ay + cy;
+            zx = zx2; zy = zy2;
+            if (zx * zx + zy * zy > r2) {
+                e.n[i] = n;
+                e.nu[i] = (float) NucleoFractal.valorSuave(n, zx, zy, Integer.MAX_VALUE, 2);
+                return;
+            }
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    e.n[i] = EstadoOrbitas.INTERIOR; return;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        e.zx[i] = zx; e.zy[i] = zy; e.n[i] = n;
+    }
+
+    /* ---------- Inversa ---------- */
+    @Override public boolean tieneInversa() { return true; }
+    @Override public int maxPreimagenes() { return 4; }
+
+    /**
+     * (|x| + i|y|)^2 = w - c necesita una raíz en el primer cuadrante, que
+     * solo existe si w - c está en el semiplano superior; entonces las cuatro
+     * combinaciones de signo (±x, ±y) son preimágenes.
+     */
+    @Override
+    public int preimagenes(double wx, double wy, double cRe, double cIm, double[] salida) {
+        if (wy - cIm < 0) return 0;
+        NucleoCuadratico.raiz(wx - cRe, wy - cIm, salida);
+        double x = salida[0], y = salida[1];
+        salida[2] = -x; salida[3] = y;
+        salida[4] = x;  salida[5] = -y;
+        salida[6] = -x; salida[7] = -y;
+        return 4;
+    }
+
+    @Override public double factorDerivada(double zx, double zy) { return 2.0 * Math.hypot(zx, zy); }
+}
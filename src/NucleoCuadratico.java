@@ -0,0 +1,140 @@
+/**
+ * z^2 + c: Mandelbrot en el plano de parámetros y Julia en el dinámico.
+ * Mismos bucles (mismo orden de operaciones) que tenían los visores, para
+ * que el núcleo vectorial y las órbitas guardadas den los mismos bits.
+ */
+final class NucleoCuadratico implements NucleoFractal {
+
+    @Override public String nombre() { return "cuadratico"; }
+    @Override public int grado() { return 2; }
+
+    @Override
+    public double parametro(double cx, double cy, int maxIter, double r2, boolean periodos) {
+        // Interior conocido: ni siquiera se itera
+        if (periodos && enCardioideOBulbo(cx, cy)) return Double.NaN;
+
+        double zx = 0.0, zy = 0.0;
+        // Detección de ciclos de Brent: se compara z con un punto guardado que
+        // se renueva en potencias de 2; si la órbita vuelve a él, es periódica.
+        double guardadoX = 0.0, guardadoY = 0.0;
+        int paso = 0, tramo = 2;
+        int n = 0;
+        for (; n < maxIter; n++) {
+            double zx2 = zx * zx - zy * zy + cx;
+            double zy2 = 2.0 * zx * zy + cy;
+            zx = zx2; zy = zy2;
+            if (zx * zx + zy * zy > r2) break;
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    n = maxIter; break;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        return NucleoFractal.valorSuave(n, zx, zy, maxIter, 2);
+    }
+
+    @Override
+    public float dinamico(double zx, double zy, double cRe, double cIm, int maxIter, double r2, boolean periodos) {
+        double guardadoX = zx, guardadoY = zy;
+        int paso = 0, tramo = 2;
+        int n = 0;
+        for (; n < maxIter; n++) {
+            double zx2 = zx * zx - zy * zy + cRe;
+            double zy2 = 2.0 * zx * zy + cIm;
+            zx = zx2;
+            zy = zy2;
+            if (zx * zx + zy * zy > r2) break;
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    n = maxIter; break;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        if (n == maxIter) return Float.NaN;
+        return n;
+    }
+
+    @Override
+    public void continuar(EstadoOrbitas e, int i, double cx, double cy, int maxIter, double r2, boolean periodos) {
+        if (e.n[i] == 0 && periodos && enCardioideOBulbo(cx, cy)) { e.n[i] = EstadoOrbitas.INTERIOR; return; }
+
+        double zx = e.zx[i], zy = e.zy[i];
+        double guardadoX = zx, guardadoY = zy;
+        int paso = 0, tramo = 2;
+        int n = e.n[i];
+        for (; n < maxIter; n++) {
+            double zx2 = zx * zx - zy * zy + cx;
+            double zy2 = 2.0 * zx * zy + cy;
+            zx = zx2; zy = zy2;
+            if (zx * zx + zy * zy > r2) {
+                e.n[i] = n;
+                e.nu[i] = (float) NucleoFractal.valorSuave(n, zx, zy, Integer.MAX_VALUE, 2); // el límite se aplica al leer
+                return;
+            }
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    e.n[i] = EstadoOrbitas.INTERIOR; return;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        e.zx[i] = zx; e.zy[i] = zy; e.n[i] = n;
+    }
+
+    /** Cardioide principal o bulbo de periodo 2 (forma cerrada): siempre interior. */
+    static boolean enCardioideOBulbo(double x, double y) {
+        double xm = x - 0.25, y2 = y * y;
+        double q = xm * xm + y2;
+        if (q * (q + xm) <= 0.25 * y2) return true;
+        double xb = x + 1.0;
+        return xb * xb + y2 <= 0.0625;
+    }
+
+    /* ---------- Inversa: ±sqrt(w - c) ---------- */
+    @Override public boolean tieneInversa() { return true; }
+
+    @Override
+    public int preimagenes(double wx, double wy, double cRe, double cIm, double[] salida) {
+        raiz(wx - cRe, wy - cIm, salida);
+        salida[2] = -salida[0];
+        salida[3] = -salida[1];
+        return 2;
+    }
+
+    @Override public double factorDerivada(double zx, double zy) { return 2.0 * Math.hypot(zx, zy); }
+
+    /** Punto fijo repulsivo de z^2 - z + c = 0: z = (1 ± sqrt(1 - 4c)) / 2, el de |2z| > 1. */
+    @Override
+    public void puntoInicial(double cRe, double cIm, double[] salida) {
+        double[] d = new double[2];
+        raiz(1 - 4 * cRe, -4 * cIm, d);
+        double px = (1 + d[0]) / 2.0, py = d[1] / 2.0;
+        double mx = (1 - d[0]) / 2.0, my = -d[1] / 2.0;
+        boolean repMas = 2.0 * Math.hypot(px, py) > 1.0, repMenos = 2.0 * Math.hypot(mx, my) > 1.0;
+        boolean menos = repMenos && !repMas; // si ambos o ninguno, el "+"
+        salida[0] = menos ? mx : px;
+        salida[1] = menos ? my : py;
+    }
+
+    /**
+     * sqrt(a + bi) en la rama principal, en forma algebraica:
+     * re = sqrt((r + a)/2), im = signo(b)·sqrt((r - a)/2), r = |a + bi|,
+     * calculando la componente pequeña como b/(2·grande) para no restar
+     * números casi iguales.
+     */
+    static void raiz(double a, double b, double[] salida) {
+        double r = Math.hypot(a, b);
+        if (r == 0.0) { salida[0] = 0.0; salida[1] = 0.0; return; }
+        if (a >= 0) {
+            double re = Math.sqrt((r + a) / 2);
+            salida[0] = re;
+            salida[1] = b / (2 * re);
+        } else {
+            double im = Math.copySign(Math.sqrt((r - a) / 2), b);
+            salida[0] = b / (2 * im);
+            salida[1] = im;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Función de iteración z -> f(z) + c compartida por los visores, el render
+ * por franjas y la iteración inversa.
+ *
+ * Cada núcleo es una clase final con su propio bucle completo: la llamada
+ * virtual se paga una vez por píxel (o por nodo en la iteración inversa),
+ * nunca por iteración, y dentro del bucle todo es monomórfico.
+ *
+ * Convenios: el plano de parámetros parte de z0 = 0 con c = punto; el
+ * plano dinámico parte de z0 = punto con c fijo; NaN = no escapa (interior
+ * o conjunto de Julia).
+ */
+public interface NucleoFractal {
+
+    /** Tolerancia de la detección de ciclos de Brent. */
+    double TOLERANCIA_PERIODO = 1e-14;
+
+    NucleoFractal CUADRATICO = new NucleoCuadratico();
+
+    String nombre();
+
+    /** Grado de f: suavizado del conteo y nº de preimágenes. */
+    int grado();
+
+    /** Plano de parámetros: nº de iteraciones continuo en c = (cx, cy); NaN si no escapa. */
+    double parametro(double cx, double cy, int maxIter, double r2, boolean periodos);
+
+    /** Plano dinámico: nº entero de iteraciones desde z0 = (zx, zy); NaN si no escapa. */
+    float dinamico(double zx, double zy, double cRe, double cIm, int maxIter, double r2, boolean periodos);
+
+    /**
+     * Plano de parámetros desde el estado guardado del píxel i hasta maxIter
+     * (misma dinámica que parametro), dejando el resultado en el estado.
+     */
+    void continuar(EstadoOrbitas e, int i, double cx, double cy, int maxIter, double r2, boolean periodos);
+
+    /**
+     * Preimágenes de w = (wx, wy) por z -> f(z) + c, como pares (x, y)
+     * consecutivos en salida; devuelve cuántas hay (0 si el núcleo no tiene
+     * inversa o w no tiene preimagen). salida debe admitir 2·maxPreimagenes() valores.
+     */
+    default int preimagenes(double wx, double wy, double cRe, double cIm, double[] salida) { return 0; }
+
+    /** Cota del nº de preimágenes de un punto (normalmente el grado). */
+    default int maxPreimagenes() { return grado(); }
+
+    /** true si preimagenes() está implementada (iteración inversa). */
+    default boolean tieneInversa() { return false; }
+
+    /** |f'(z)|: factor por el que crece la derivada acumulada en la iteración inversa. */
+    default double factorDerivada(double zx, double zy) {
+        return grado() * Math.pow(Math.hypot(zx, zy), grado() - 1);
+    }
+
+    /**
+     * Punto de partida de la iteración inversa, en el conjunto de Julia: un
+     * punto fijo repulsivo. Por defecto se aplica muchas veces la primera
+     * rama inversa, que converge a uno.
+     */
+    default void puntoInicial(double cRe, double cIm, double[] salida) {
+        double[] p = new double[2 * maxPreimagenes()];
+        double x = 1.0, y = 0.0;
+        for (int k = 0; k < 256 && preimagenes(x, y, cRe, cIm, p) > 0; k++) { x = p[0]; y = p[1]; }
+        salida[0] = x; salida[1] = y;
+    }
+
+    /* ---------- Catálogo ---------- */
+
+    /** Núcleos incorporados, en el orden en que los recorre la tecla N. */
+    static List<NucleoFractal> todos() {
+        return Catalogo.TODOS;
+    }
+
+    /** El siguiente del catálogo (cíclico); si soloInversa, salta los que no tienen inversa. */
+    static NucleoFractal siguiente(NucleoFractal actual, boolean soloInversa) {
+        List<NucleoFractal> t = todos();
+        int i = Math.max(0, t.indexOf(actual));
+        for (int k = 1; k <= t.size(); k++) {
+            NucleoFractal n = t.get((i + k) % t.size());
+            if (!soloInversa || n.tieneInversa()) return n;
+        }
+        return actual;
+    }
+
+    /** Por nombre: "cuadratico", "multibrotD" (D entero >= 2), "burningship", "tricorn", "newton". */
+    static NucleoFractal porNombre(String nombre) {
+        String s = nombre.trim().toLowerCase(Locale.ROOT);
+        for (NucleoFractal n : todos()) if (n.nombre().equals(s)) return n;
+        if (s.startsWith("multibrot")) {
+            try {
+                return new NucleoMultibrot(Integer.parseInt(s.substring("multibrot".length())));
+            } catch (NumberFormatException e) {
+                // cae al error de abajo
+            }
+        }
+        throw new IllegalArgumentException("Núcleo desconocido: " + nombre);
+    }
+
+    /** Conteo suavizado estándar de un núcleo de escape de grado d; NaN si no escapó. */
+    static double valorSuave(int n, double zx, double zy, int maxIter, int d) {
+        if (n == maxIter) return Double.NaN;
+        double modulo = Math.sqrt(zx * zx + zy * zy);
+        return n + 1 - Math.log(Math.log(modulo)) / Math.log(d);
+    }
+
+    /** Lista fija aparte: los campos de una interfaz no pueden ser privados. */
+    final class Catalogo {
+        private static final List<NucleoFractal> TODOS = List.of(
+                CUADRATICO, new NucleoMultibrot(3), new NucleoBurningShip(), new NucleoTricorn(), new NucleoNewton());
+        private Catalogo() { }
+    }
+}
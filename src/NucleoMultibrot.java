@@ -0,0 +1,110 @@
+/** z^d + c con d entero >= 2 (z^d por multiplicaciones sucesivas). */
+final class NucleoMultibrot implements NucleoFractal {
+
+    private final int d;
+
+    NucleoMultibrot(int d) {
+        if (d < 2) throw new IllegalArgumentException("El grado del Multibrot debe ser >= 2: " + d);
+        this.d = d;
+    }
+
+    @Override public String nombre() { return "multibrot" + d; }
+    @Override public int grado() { return d; }
+
+    @Override
+    public double parametro(double cx, double cy, int maxIter, double r2, boolean periodos) {
+        double zx = 0.0, zy = 0.0;
+        double guardadoX = 0.0, guardadoY = 0.0;
+        int paso = 0, tramo = 2;
+        int n = 0;
+        final int d = this.d;
+        for (; n < maxIter; n++) {
+            double px = zx, py = zy;
+            for (int k = 1; k < d; k++) {
+                double t = px * zx - py * zy;
+                py = px * zy + py * zx;
+                px = t;
+            }
+            zx = px + cx; zy = py + cy;
+            if (zx * zx + zy * zy > r2) break;
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    n = maxIter; break;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        return NucleoFractal.valorSuave(n, zx, zy, maxIter, d);
+    }
+
+    @Override
+    public float dinamico(double zx, double zy, double cRe, double cIm, int maxIter, double r2, boolean periodos) {
+        double guardadoX = zx, guardadoY = zy;
+        int paso = 0, tramo = 2;
+        int n = 0;
+        final int d = this.d;
+        for (; n < maxIter; n++) {
+            double px = zx, py = zy;
+            for (int k = 1; k < d; k++) {
+                double t = px * zx - py * zy;
+                py = px * zy + py * zx;
+                px = t;
+            }
+            zx = px + cRe; zy = py + cIm;
+            if (zx * zx + zy * zy > r2) break;
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    n = maxIter; break;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        if (n == maxIter) return Float.NaN;
+        return n;
+    }
+
+    @Override
+    public void continuar(EstadoOrbitas e, int i, double cx, double cy, int maxIter, double r2, boolean periodos) {
+        double zx = e.zx[i], zy = e.zy[i];
+        double guardadoX = zx, guardadoY = zy;
+        int paso = 0, tramo = 2;
+        int n = e.n[i];
+        final int d = this.d;
+        for (; n < maxIter; n++) {
+            double px = zx, py = zy;
+            for (int k = 1; k < d; k++) {
+                double t = px * zx - py * zy;
+                py = px * zy + py * zx;
+                px = t;
+            }
+            zx = px + cx; zy = py + cy;
+            if (zx * zx + zy * zy > r2) {
+                e.n[i] = n;
+                e.nu[i] = (float) NucleoFractal.valorSuave(n, zx, zy, Integer.MAX_VALUE, d);
+                return;
+            }
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    e.n[i] = EstadoOrbitas.INTERIOR; return;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        e.zx[i] = zx; e.zy[i] = zy; e.n[i] = n;
+    }
+
+    /* ---------- Inversa: las d raíces d-ésimas de w - c ---------- */
+    @Override public boolean tieneInversa() { return true; }
+
+    @Override
+    public int preimagenes(double wx, double wy, double cRe, double cIm, double[] salida) {
+        double ax = wx - cRe, ay = wy - cIm;
+        double r = Math.pow(Math.hypot(ax, ay), 1.0 / d);
+        double theta = Math.atan2(ay, ax) / d, paso = 2 * Math.PI / d;
+        for (int k = 0; k < d; k++) {
+            salida[2 * k] = r * Math.cos(theta + k * paso);
+            salida[2 * k + 1] = r * Math.sin(theta + k * paso);
+        }
+        return d;
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Método de Newton para el cúbico p(z) = z^3 + (c - 1)z - c, cuyas raíces
+ * son 1 y las de z^2 + z + c (con c = 0: 0 y ±1):
+ *   N(z) = z - p(z)/p'(z) = (2z^3 + c) / (3z^2 + c - 1).
+ *
+ * Aquí "escapar" es converger a una raíz (paso |N(z) - z|^2 < CONVERGENCIA);
+ * el valor es el nº de iteraciones hasta entonces, sin suavizar, y r2 no
+ * se usa. En el plano de parámetros se parte de z0 = 0, el punto crítico
+ * libre de N (p''(0) = 0): el negro son los c en que no converge.
+ * Sin iteración inversa (invertir N es resolver un cúbico por nodo).
+ */
+final class NucleoNewton implements NucleoFractal {
+
+    private static final double CONVERGENCIA = 1e-12;
+
+    @Override public String nombre() { return "newton"; }
+    @Override public int grado() { return 3; }
+
+    @Override
+    public double parametro(double cx, double cy, int maxIter, double r2, boolean periodos) {
+        return dinamico(0.0, 0.0, cx, cy, maxIter, r2, periodos);
+    }
+
+    @Override
+    public float dinamico(double zx, double zy, double cRe, double cIm, int maxIter, double r2, boolean periodos) {
+        double guardadoX = zx, guardadoY = zy;
+        int paso = 0, tramo = 2;
+        for (int n = 0; n < maxIter; n++) {
+            double z2x = zx * zx - zy * zy, z2y = 2.0 * zx * zy;
+            double nx = 2.0 * (z2x * zx - z2y * zy) + cRe, ny = 2.0 * (z2x * zy + z2y * zx) + cIm;
+            double dx = 3.0 * z2x + cRe - 1.0, dy = 3.0 * z2y + cIm;
+            double q = dx * dx + dy * dy;
+            if (!(q > 0.0)) return Float.NaN; // p'(z) = 0: Newton no está definido
+            double sx = (nx * dx + ny * dy) / q, sy = (ny * dx - nx * dy) / q;
+            double ex = sx - zx, ey = sy - zy;
+            zx = sx; zy = sy;
+            double d2 = ex * ex + ey * ey;
+            if (d2 < CONVERGENCIA) return n;
+            if (!(d2 < Double.POSITIVE_INFINITY)) return Float.NaN;
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    return Float.NaN;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        return Float.NaN;
+    }
+
+    @Override
+    public void continuar(EstadoOrbitas e, int i, double cx, double cy, int maxIter, double r2, boolean periodos) {
+        double zx = e.zx[i], zy = e.zy[i];
+        double guardadoX = zx, guardadoY = zy;
+        int paso = 0, tramo = 2;
+        int n = e.n[i];
+        for (; n < maxIter; n++) {
+            double z2x = zx * zx - zy * zy, z2y = 2.0 * zx * zy;
+            double nx = 2.0 * (z2x * zx - z2y * zy) + cx, ny = 2.0 * (z2x * zy + z2y * zx) + cy;
+            double dx = 3.0 * z2x + cx - 1.0, dy = 3.0 * z2y + cy;
+            double q = dx * dx + dy * dy;
+            if (!(q > 0.0)) { e.n[i] = EstadoOrbitas.INTERIOR; return; }
+            double sx = (nx * dx + ny * dy) / q, sy = (ny * dx - nx * dy) / q;
+            double ex = sx - zx, ey = sy - zy;
+            zx = sx; zy = sy;
+            double d2 = ex * ex + ey * ey;
+            if (d2 < CONVERGENCIA) { e.n[i] = n; e.nu[i] = n; return; }
+            if (!(d2 < Double.POSITIVE_INFINITY)) { e.n[i] = EstadoOrbitas.INTERIOR; return; }
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    e.n[i] = EstadoOrbitas.INTERIOR; return;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        e.zx[i] = zx; e.zy[i] = zy; e.n[i] = n;
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Núcleo de escape que itera un lote de píxeles de una fila a la vez.
+ * La implementación vectorial (NucleoVectorial, sobre jdk.incubator.vector)
+ * se carga por reflexión: si la JVM no arranca con
+ * --add-modules jdk.incubator.vector, cargar() devuelve null y los paneles
+ * siguen por el camino escalar.
+ *
+ * Los resultados deben coincidir bit a bit con los bucles escalares de
+ * AlgoritmoEscape.iteracionSuave y EscapeFunciones.iteracionesEn, o con los
+ * de PrecisionEscape en float (mismas operaciones en el mismo orden, sin
+ * FMA); verificar() lo comprueba.
+ */
+public interface NucleoSIMD {
+
+    /** Nº de píxeles por vector (4 con AVX2, 8 con AVX-512). */
+    int carriles();
+
+    /**
+     * Mandelbrot desde z0 = 0 para c = (cx[k], cy), k en [0, cuantos):
+     * destino[off + k] = iteración continua, o NaN si no escapa. Con
+     * interior se aplican la cardioide/bulbo y la detección de ciclos.
+     */
+    void mandelbrot(double[] cx, double cy, int cuantos, int maxIter, double r2,
+                    boolean interior, double tolerancia, float[] destino, int off);
+
+    /**
+     * Julia desde z0 = (zx[k], zy) con c fijo: destino[off + k] = nº de
+     * iteraciones hasta escapar, o NaN si no escapa.
+     */
+    void julia(double[] zx, double zy, int cuantos, double cRe, double cIm, int maxIter, double r2,
+               boolean periodos, double tolerancia, float[] destino, int off);
+
+    /** Nº de píxeles por vector en float (el doble que en double). */
+    int carrilesFloat();
+
+    /** mandelbrot en float: mismos resultados que PrecisionEscape.mandelbrot(float...). */
+    void mandelbrot(float[] cx, float cy, int cuantos, int maxIter, float r2,
+                    boolean interior, float tolerancia, float[] destino, int off);
+
+    /** julia en float: mismos resultados que PrecisionEscape.julia(float...). */
+    void julia(float[] zx, float zy, int cuantos, float cRe, float cIm, int maxIter, float r2,
+               boolean periodos, float tolerancia, float[] destino, int off);
+
+    /** El núcleo vectorial si el módulo está disponible (y no se desactiva con -Dfractal.simd=false). */
+    static NucleoSIMD cargar() {
+        if (!Boolean.parseBoolean(System.getProperty("fractal.simd", "true"))) return null;
+        try {
+            return (NucleoSIMD) Class.forName("NucleoVectorial").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            return null; // sin jdk.incubator.vector
+        }
+    }
+
+    /** Compara píxel a píxel (bits del float) con el cálculo escalar; devuelve cuántos difieren. */
+    static int verificar(float[] vectorial, float[] escalar) {
+        int distintos = 0;
+        for (int i = 0; i < vectorial.length; i++) {
+            if (Float.floatToIntBits(vectorial[i]) != Float.floatToIntBits(escalar[i])) distintos++;
+        }
+        return distintos;
+    }
+}
@@ -0,0 +1,87 @@
+/** Tricorn (Mandelbar): conj(z)^2 + c. */
+final class NucleoTricorn implements NucleoFractal {
+
+    @Override public String nombre() { return "tricorn"; }
+    @Override public int grado() { return 2; }
+
+    @Override
+    public double parametro(double cx, double cy, int maxIter, double r2, boolean periodos) {
+        double zx = 0.0, zy = 0.0;
+        double guardadoX = 0.0, guardadoY = 0.0;
+        int paso = 0, tramo = 2;
+        int n = 0;
+        for (; n < maxIter; n++) {
+            double zx2 = zx * zx - zy * zy + cx;
+            double zy2 = -2.0 * zx * zy + cy;
+            zx = zx2; zy = zy2;
+            if (zx * zx + zy * zy > r2) break;
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    n = maxIter; break;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        return NucleoFractal.valorSuave(n, zx, zy, maxIter, 2);
+    }
+
+    @Override
+    public float dinamico(double zx, double zy, double cRe, double cIm, int maxIter, double r2, boolean periodos) {
+        double guardadoX = zx, guardadoY = zy;
+        int paso = 0, tramo = 2;
+        int n = 0;
+        for (; n < maxIter; n++) {
+            double zx2 = zx * zx - zy * zy + cRe;
+            double zy2 = -2.0 * zx * zy + cIm;
+            zx = zx2; zy = zy2;
+            if (zx * zx + zy * zy > r2) break;
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    n = maxIter; break;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        if (n == maxIter) return Float.NaN;
+        return n;
+    }
+
+    @Override
+    public void continuar(EstadoOrbitas e, int i, double cx, double cy, int maxIter, double r2, boolean periodos) {
+        double zx = e.zx[i], zy = e.zy[i];
+        double guardadoX = zx, guardadoY = zy;
+        int paso = 0, tramo = 2;
+        int n = e.n[i];
+        for (; n < maxIter; n++) {
+            double zx2 = zx * zx - zy * zy + cx;
+            double zy2 = -2.0 * zx * zy + cy;
+            zx = zx2; zy = zy2;
+            if (zx * zx + zy * zy > r2) {
+                e.n[i] = n;
+                e.nu[i] = (float) NucleoFractal.valorSuave(n, zx, zy, Integer.MAX_VALUE, 2);
+                return;
+            }
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_PERIODO && Math.abs(zy - guardadoY) < TOLERANCIA_PERIODO) {
+                    e.n[i] = EstadoOrbitas.INTERIOR; return;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        e.zx[i] = zx; e.zy[i] = zy; e.n[i] = n;
+    }
+
+    /* ---------- Inversa: conj(±sqrt(w - c)) ---------- */
+    @Override public boolean tieneInversa() { return true; }
+
+    @Override
+    public int preimagenes(double wx, double wy, double cRe, double cIm, double[] salida) {
+        NucleoCuadratico.raiz(wx - cRe, wy - cIm, salida);
+        salida[1] = -salida[1];
+        salida[2] = -salida[0];
+        salida[3] = -salida[1];
+        return 2;
+    }
+
+    @Override public double factorDerivada(double zx, double zy) { return 2.0 * Math.hypot(zx, zy); }
+}
@@ -0,0 +1,223 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * Núcleo de escape con la Vector API: cada carril del DoubleVector (o del
+ * FloatVector, con el doble de carriles) es un píxel. Todos los carriles
+ * avanzan juntos; los que escapan (o se detectan periódicos) salen de la
+ * máscara de activos y se anota su resultado, y el lote termina cuando no
+ * queda ninguno activo o se llega a maxIter.
+ *
+ * Requiere --add-modules jdk.incubator.vector al compilar y al ejecutar;
+ * se instancia solo a través de NucleoSIMD.cargar().
+ */
+final class NucleoVectorial implements NucleoSIMD {
+
+    private static final VectorSpecies<Double> ESPECIE = DoubleVector.SPECIES_PREFERRED;
+    private static final int L = ESPECIE.length();
+    private static final VectorSpecies<Float> ESPECIE_F = FloatVector.SPECIES_PREFERRED;
+    private static final int LF = ESPECIE_F.length();
+
+    @Override public int carriles() { return L; }
+    @Override public int carrilesFloat() { return LF; }
+
+    @Override
+    public void mandelbrot(double[] cx, double cy, int cuantos, int maxIter, double r2,
+                           boolean interior, double tolerancia, float[] destino, int off) {
+        double[] relleno = new double[L];
+        for (int k = 0; k < cuantos; k += L) {
+            int m = Math.min(L, cuantos - k);
+            long activos = mascara(m);
+            if (interior) {
+                for (int j = 0; j < m; j++) {
+                    if (AlgoritmoEscape.enCardioideOBulbo(cx[k + j], cy)) {
+                        destino[off + k + j] = Float.NaN;
+                        activos &= ~(1L << j);
+                    }
+                }
+            }
+            if (activos == 0) continue;
+            DoubleVector c = cargar(cx, k, m, relleno);
+            loteMandelbrot(c, cy, activos, maxIter, r2, interior, tolerancia, destino, off + k);
+        }
+    }
+
+    private static void loteMandelbrot(DoubleVector cx, double cyEscalar, long activos, int maxIter, double r2,
+                                       boolean periodos, double tolerancia, float[] destino, int off) {
+        DoubleVector cy = DoubleVector.broadcast(ESPECIE, cyEscalar);
+        DoubleVector zx = DoubleVector.zero(ESPECIE), zy = zx;
+        DoubleVector guardadoX = zx, guardadoY = zx;
+        int paso = 0, tramo = 2;
+        for (int n = 0; n < maxIter && activos != 0; n++) {
+            // Mismo orden que el bucle escalar: (zx*zx - zy*zy) + cx, (2*zx)*zy + cy
+            DoubleVector zx2 = zx.mul(zx).sub(zy.mul(zy)).add(cx);
+            DoubleVector zy2 = zx.mul(2.0).mul(zy).add(cy);
+            zx = zx2; zy = zy2;
+            long escapan = zx.mul(zx).add(zy.mul(zy)).compare(VectorOperators.GT, r2).toLong() & activos;
+            if (escapan != 0) {
+                activos &= ~escapan;
+                for (long b = escapan; b != 0; b &= b - 1) {
+                    int j = Long.numberOfTrailingZeros(b);
+                    destino[off + j] = (float) AlgoritmoEscape.valorSuave(n, zx.lane(j), zy.lane(j), maxIter);
+                }
+            }
+            if (periodos) {
+                long ciclo = zx.sub(guardadoX).abs().compare(VectorOperators.LT, tolerancia)
+                        .and(zy.sub(guardadoY).abs().compare(VectorOperators.LT, tolerancia)).toLong() & activos;
+                if (ciclo != 0) {
+                    activos &= ~ciclo;
+                    anotarNaN(ciclo, destino, off);
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        anotarNaN(activos, destino, off); // llegaron a maxIter
+    }
+
+    @Override
+    public void julia(double[] zx0, double zy0, int cuantos, double cRe, double cIm, int maxIter, double r2,
+                      boolean periodos, double tolerancia, float[] destino, int off) {
+        double[] relleno = new double[L];
+        DoubleVector cx = DoubleVector.broadcast(ESPECIE, cRe), cy = DoubleVector.broadcast(ESPECIE, cIm);
+        for (int k = 0; k < cuantos; k += L) {
+            int m = Math.min(L, cuantos - k);
+            long activos = mascara(m);
+            DoubleVector zx = cargar(zx0, k, m, relleno), zy = DoubleVector.broadcast(ESPECIE, zy0);
+            DoubleVector guardadoX = zx, guardadoY = zy;
+            int paso = 0, tramo = 2;
+            for (int n = 0; n < maxIter && activos != 0; n++) {
+                DoubleVector zx2 = zx.mul(zx).sub(zy.mul(zy)).add(cx);
+                DoubleVector zy2 = zx.mul(2.0).mul(zy).add(cy);
+                zx = zx2; zy = zy2;
+                long escapan = zx.mul(zx).add(zy.mul(zy)).compare(VectorOperators.GT, r2).toLong() & activos;
+                if (escapan != 0) {
+                    activos &= ~escapan;
+                    for (long b = escapan; b != 0; b &= b - 1) destino[off + k + Long.numberOfTrailingZeros(b)] = n;
+                }
+                if (periodos) {
+                    long ciclo = zx.sub(guardadoX).abs().compare(VectorOperators.LT, tolerancia)
+                            .and(zy.sub(guardadoY).abs().compare(VectorOperators.LT, tolerancia)).toLong() & activos;
+                    if (ciclo != 0) {
+                        activos &= ~ciclo;
+                        anotarNaN(ciclo, destino, off + k);
+                    }
+                    if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+                }
+            }
+            anotarNaN(activos, destino, off + k);
+        }
+    }
+
+    /* ---------- float ---------- */
+
+    @Override
+    public void mandelbrot(float[] cx, float cy, int cuantos, int maxIter, float r2,
+                           boolean interior, float tolerancia, float[] destino, int off) {
+        float[] relleno = new float[LF];
+        for (int k = 0; k < cuantos; k += LF) {
+            int m = Math.min(LF, cuantos - k);
+            long activos = mascara(m);
+            if (interior) {
+                for (int j = 0; j < m; j++) {
+                    if (AlgoritmoEscape.enCardioideOBulbo(cx[k + j], cy)) {
+                        destino[off + k + j] = Float.NaN;
+                        activos &= ~(1L << j);
+                    }
+                }
+            }
+            if (activos == 0) continue;
+            loteMandelbrot(cargar(cx, k, m, relleno), cy, activos, maxIter, r2, interior, tolerancia, destino, off + k);
+        }
+    }
+
+    private static void loteMandelbrot(FloatVector cx, float cyEscalar, long activos, int maxIter, float r2,
+                                       boolean periodos, float tolerancia, float[] destino, int off) {
+        FloatVector cy = FloatVector.broadcast(ESPECIE_F, cyEscalar);
+        FloatVector zx = FloatVector.zero(ESPECIE_F), zy = zx;
+        FloatVector guardadoX = zx, guardadoY = zx;
+        int paso = 0, tramo = 2;
+        for (int n = 0; n < maxIter && activos != 0; n++) {
+            FloatVector zx2 = zx.mul(zx).sub(zy.mul(zy)).add(cx);
+            FloatVector zy2 = zx.mul(2f).mul(zy).add(cy);
+            zx = zx2; zy = zy2;
+            long escapan = zx.mul(zx).add(zy.mul(zy)).compare(VectorOperators.GT, r2).toLong() & activos;
+            if (escapan != 0) {
+                activos &= ~escapan;
+                for (long b = escapan; b != 0; b &= b - 1) {
+                    int j = Long.numberOfTrailingZeros(b);
+                    destino[off + j] = (float) AlgoritmoEscape.valorSuave(n, zx.lane(j), zy.lane(j), maxIter);
+                }
+            }
+            if (periodos) {
+                long ciclo = zx.sub(guardadoX).abs().compare(VectorOperators.LT, tolerancia)
+                        .and(zy.sub(guardadoY).abs().compare(VectorOperators.LT, tolerancia)).toLong() & activos;
+                if (ciclo != 0) {
+                    activos &= ~ciclo;
+                    anotarNaN(ciclo, destino, off);
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        anotarNaN(activos, destino, off);
+    }
+
+    @Override
+    public void julia(float[] zx0, float zy0, int cuantos, float cRe, float cIm, int maxIter, float r2,
+                      boolean periodos, float tolerancia, float[] destino, int off) {
+        float[] relleno = new float[LF];
+        FloatVector cx = FloatVector.broadcast(ESPECIE_F, cRe), cy = FloatVector.broadcast(ESPECIE_F, cIm);
+        for (int k = 0; k < cuantos; k += LF) {
+            int m = Math.min(LF, cuantos - k);
+            long activos = mascara(m);
+            FloatVector zx = cargar(zx0, k, m, relleno), zy = FloatVector.broadcast(ESPECIE_F, zy0);
+            FloatVector guardadoX = zx, guardadoY = zy;
+            int paso = 0, tramo = 2;
+            for (int n = 0; n < maxIter && activos != 0; n++) {
+                FloatVector zx2 = zx.mul(zx).sub(zy.mul(zy)).add(cx);
+                FloatVector zy2 = zx.mul(2f).mul(zy).add(cy);
+                zx = zx2; zy = zy2;
+                long escapan = zx.mul(zx).add(zy.mul(zy)).compare(VectorOperators.GT, r2).toLong() & activos;
+                if (escapan != 0) {
+                    activos &= ~escapan;
+                    for (long b = escapan; b != 0; b &= b - 1) destino[off + k + Long.numberOfTrailingZeros(b)] = n;
+                }
+                if (periodos) {
+                    long ciclo = zx.sub(guardadoX).abs().compare(VectorOperators.LT, tolerancia)
+                            .and(zy.sub(guardadoY).abs().compare(VectorOperators.LT, tolerancia)).toLong() & activos;
+                    if (ciclo != 0) {
+                        activos &= ~ciclo;
+                        anotarNaN(ciclo, destino, off + k);
+                    }
+                    if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+                }
+            }
+            anotarNaN(activos, destino, off + k);
+        }
+    }
+
+    /* ---------- Utilidades ---------- */
+    private static long mascara(int m) { return m == 64 ? -1L : (1L << m) - 1; }
+
+    /** Carga m valores desde a[k]; si el lote está incompleto, los carriles sobrantes valen 0 (inactivos). */
+    private static DoubleVector cargar(double[] a, int k, int m, double[] relleno) {
+        if (m == L) return DoubleVector.fromArray(ESPECIE, a, k);
+        Arrays.fill(relleno, 0.0);
+        System.arraycopy(a, k, relleno, 0, m);
+        return DoubleVector.fromArray(ESPECIE, relleno, 0);
+    }
+
+    private static FloatVector cargar(float[] a, int k, int m, float[] relleno) {
+        if (m == LF) return FloatVector.fromArray(ESPECIE_F, a, k);
+        Arrays.fill(relleno, 0f);
+        System.arraycopy(a, k, relleno, 0, m);
+        return FloatVector.fromArray(ESPECIE_F, relleno, 0);
+    }
+
+    private static void anotarNaN(long carriles, float[] destino, int off) {
+        for (long b = carriles; b != 0; b &= b - 1) destino[off + Long.numberOfTrailingZeros(b)] = Float.NaN;
+    }
+}
@@ -0,0 +1,94 @@
+import java.awt.*;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Paleta precalculada: tabla de colores ARGB indexada por t = nu / maxIter
+ * en [0, 1]. Separa la coloración de la dinámica: cambiar de esquema o de
+ * contraste solo rehace la tabla (microsegundos) y una pasada paralela
+ * sobre el búfer de iteraciones, sin volver a iterar.
+ */
+public final class PaletaLUT {
+
+    public enum Esquema {
+        /** La de AlgoritmoEscape: 10 vueltas de tono desde 0.95. */
+        ARCOIRIS,
+        /** La de EscapeFunciones: tono = n / maxIter. */
+        TONO,
+        FUEGO,
+        GRISES;
+
+        Esquema siguiente() { return values()[(ordinal() + 1) % values().length]; }
+    }
+
+    public static final int TAMANO = 1 << 14;
+    public static final int NEGRO = 0xFF000000;
+
+    private final Esquema esquema;
+    private final double contraste; // t' = t^contraste
+    private final int[] tabla = new int[TAMANO];
+
+    public PaletaLUT(Esquema esquema, double contraste) {
+        this.esquema = esquema;
+        this.contraste = contraste;
+        for (int k = 0; k < TAMANO; k++) {
+            double t = Math.pow((double) k / (TAMANO - 1), contraste);
+            tabla[k] = NEGRO | (colorBase(esquema, t) & 0x00FFFFFF);
+        }
+    }
+
+    private static int colorBase(Esquema e, double t) {
+        switch (e) {
+            case ARCOIRIS: {
+                float tono = (float) (0.95f + 10.0 * t); tono = tono - (float) Math.floor(tono);
+                return Color.HSBtoRGB(tono, 0.75f, 1.0f);
+            }
+            case TONO:
+                return Color.HSBtoRGB((float) t, 0.8f, 1.0f);
+            case FUEGO: {
+                double u = (8.0 * t) % 1.0; // 8 ciclos negro → rojo → amarillo → blanco
+                int r = (int) (255 * Math.min(1.0, 3 * u));
+                int g = (int) (255 * Math.max(0.0, Math.min(1.0, 3 * u - 1)));
+                int b = (int) (255 * Math.max(0.0, Math.min(1.0, 3 * u - 2)));
+                return (r << 16) | (g << 8) | b;
+            }
+            default: {
+                int v = (int) (255 * (0.5 - 0.5 * Math.cos(2 * Math.PI * 6 * t)));
+                return (v << 16) | (v << 8) | v;
+            }
+        }
+    }
+
+    public Esquema getEsquema() { return esquema; }
+    public double getContraste() { return contraste; }
+
+    public PaletaLUT conEsquema(Esquema e) { return new PaletaLUT(e, contraste); }
+    public PaletaLUT siguienteEsquema() { return conEsquema(esquema.siguiente()); }
+    public PaletaLUT conContraste(double c) { return new PaletaLUT(esquema, Math.max(0.05, Math.min(20.0, c))); }
+
+    /** Color de un valor de iteración continuo (NaN = interior, negro). */
+    public int color(float nu, int maxIteraciones) {
+        if (nu != nu) return NEGRO;
+        return tabla[indice(nu, escala(maxIteraciones))];
+    }
+
+    private static float escala(int maxIteraciones) { return (float) (TAMANO - 1) / maxIteraciones; }
+
+    /** Entrada de la tabla para v (no NaN): la misma en color y colorear. */
+    private static int indice(float v, float escala) {
+        float k = v * escala + 0.5f;
+        return k <= 0f ? 0 : (k >= TAMANO - 1 ? TAMANO - 1 : (int) k);
+    }
+
+    /** Pasada de coloración en paralelo: destino[i] = color(valores[i]). */
+    public boolean colorear(float[] valores, int[] destino, int ancho, int alto, int maxIteraciones,
+                            RenderizadorParalelo renderizador, BooleanSupplier cancelado) {
+        final int[] t = tabla;
+        final float escala = escala(maxIteraciones);
+        return renderizador.recorrer(ancho, alto, (px, py, i) -> {
+            float v = valores[i];
+            destino[i] = v != v ? NEGRO : t[indice(v, escala)];
+        }, cancelado);
+    }
+
+    @Override public String toString() { return String.format("%s ×%.2f", esquema, contraste); }
+}
@@ -0,0 +1,234 @@
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Zoom profundo del conjunto de Mandelbrot por teoría de perturbaciones.
+ *
+ * Se calcula una sola órbita de referencia Z_n en alta precisión (BigDecimal)
+ * y cada píxel itera en double solo su desviación dz_n respecto a ella:
+ *   dz_{n+1} = 2·Z_n·dz_n + dz_n² + dc
+ * La aproximación por series (dz_n ≈ A·dc + B·dc² + C·dc³) se salta las
+ * primeras iteraciones de todos los píxeles a la vez. Los píxeles cuya
+ * órbita se acerca demasiado a la referencia (glitch) se recalculan con
+ * una referencia nueva tomada dentro de la zona afectada.
+ *
+ * Sin escalado de exponentes: válido mientras dc quepa en un double (~1e-300).
+ */
+public final class PerturbacionProfunda {
+
+    /** Valor final de un píxel (iteración continua) a partir de su nº de iteraciones y z final. */
+    @FunctionalInterface
+    public interface ValorFinal {
+        float valor(int n, double zx, double zy);
+    }
+
+    // Criterio de Pauldelbrot: |z|² < TOL·|Z|² indica pérdida de precisión
+    private static final double TOLERANCIA_GLITCH = 1e-6;
+    // Error relativo máximo de la serie frente a los puntos de sondeo
+    private static final double TOLERANCIA_SERIE = 1e-9;
+    private static final int MAX_REBASES = 16;
+    // Iteraciones en BigDecimal entre consultas de cancelación (potencia de 2)
+    private static final int PASO_CANCELACION = 256;
+
+    private final RenderizadorParalelo renderizador;
+
+    // Estadísticas del último render (para el HUD)
+    private volatile int iteracionesSaltadas, rebases, pixelesGlitch;
+
+    public PerturbacionProfunda(RenderizadorParalelo renderizador) {
+        this.renderizador = renderizador;
+    }
+
+    public int getIteracionesSaltadas() { return iteracionesSaltadas; }
+    public int getRebases() { return rebases; }
+    public int getPixelesGlitch() { return pixelesGlitch; }
+
+    /** Precisión decimal suficiente para distinguir píxeles separados 'espaciado'. */
+    public static MathContext precisionPara(double espaciado) {
+        int digitos = 20;
+        if (espaciado > 0) digitos = Math.max(20, (int) Math.ceil(-Math.log10(espaciado)) + 15);
+        return new MathContext(digitos);
+    }
+
+    /* ---------- Órbita de referencia ---------- */
+    private static final class Orbita {
+        final double[] re, im;
+        final int longitud; // Z_0..Z_longitud válidos
+        Orbita(double[] re, double[] im, int longitud) { this.re = re; this.im = im; this.longitud = longitud; }
+    }
+
+    /** Órbita exacta de c (redondeada a double); null si se cancela por el camino. */
+    private static Orbita orbitaReferencia(BigDecimal cx, BigDecimal cy, int maxIter, double r2, MathContext mc,
+                                           BooleanSupplier cancelado) {
+        double[] re = new double[maxIter + 1], im = new double[maxIter + 1];
+        BigDecimal zx = BigDecimal.ZERO, zy = BigDecimal.ZERO;
+        int n = 0;
+        while (n < maxIter) {
+            if ((n & (PASO_CANCELACION - 1)) == 0 && cancelado.getAsBoolean()) return null;
+            BigDecimal zx2 = zx.multiply(zx, mc).subtract(zy.multiply(zy, mc), mc).add(cx, mc);
+            BigDecimal zy2 = zx.multiply(zy, mc).multiply(BigDecimal.valueOf(2), mc).add(cy, mc);
+            zx = zx2; zy = zy2;
+            n++;
+            re[n] = zx.doubleValue(); im[n] = zy.doubleValue();
+            if (re[n] * re[n] + im[n] * im[n] > r2) break;
+        }
+        return new Orbita(re, im, n);
+    }
+
+    /* ---------- Aproximación por series ---------- */
+
+    /**
+     * Avanza A, B, C mientras la serie reproduzca la iteración exacta de
+     * los puntos de sondeo (las esquinas). Deja en coef los coeficientes
+     * {Ar, Ai, Br, Bi, Cr, Ci} y devuelve el nº de iteraciones que se saltan.
+     */
+    private static int aproximarSerie(Orbita o, int maxIter, double r2,
+                                      double[] sondeoX, double[] sondeoY, double[] coef) {
+        double Ar = 0, Ai = 0, Br = 0, Bi = 0, Cr = 0, Ci = 0;
+        int k = sondeoX.length;
+        double[] dx = new double[k], dy = new double[k];
+        int salto = 0;
+        for (int n = 0; n < Math.min(maxIter, o.longitud); n++) {
+            double zr = 2 * o.re[n], zi = 2 * o.im[n];
+            double nAr = zr * Ar - zi * Ai + 1, nAi = zr * Ai + zi * Ar;
+            double nBr = zr * Br - zi * Bi + (Ar * Ar - Ai * Ai), nBi = zr * Bi + zi * Br + 2 * Ar * Ai;
+            double abr = Ar * Br - Ai * Bi, abi = Ar * Bi + Ai * Br;
+            double nCr = zr * Cr - zi * Ci + 2 * abr, nCi = zr * Ci + zi * Cr + 2 * abi;
+            Ar = nAr; Ai = nAi; Br = nBr; Bi = nBi; Cr = nCr; Ci = nCi;
+
+            boolean valida = true;
+            for (int j = 0; j < k; j++) {
+                double x = dx[j], y = dy[j];
+                dx[j] = zr * x - zi * y + (x * x - y * y) + sondeoX[j];
+                dy[j] = zr * y + zi * x + 2 * x * y + sondeoY[j];
+                double px = o.re[n + 1] + dx[j], py = o.im[n + 1] + dy[j];
+                if (px * px + py * py > r2) { valida = false; break; } // el sondeo escapa
+                double sx = evaluarRe(Ar, Ai, Br, Bi, Cr, Ci, sondeoX[j], sondeoY[j]);
+                double sy = evaluarIm(Ar, Ai, Br, Bi, Cr, Ci, sondeoX[j], sondeoY[j]);
+                double ex = sx - dx[j], ey = sy - dy[j];
+                double m = dx[j] * dx[j] + dy[j] * dy[j];
+                if (!(ex * ex + ey * ey <= TOLERANCIA_SERIE * TOLERANCIA_SERIE * m)) { valida = false; break; }
+            }
+            if (!valida) break;
+            salto = n + 1;
+            coef[0] = Ar; coef[1] = Ai; coef[2] = Br; coef[3] = Bi; coef[4] = Cr; coef[5] = Ci;
+        }
+        return salto;
+    }
+
+    private static double evaluarRe(double Ar, double Ai, double Br, double Bi, double Cr, double Ci,
+                                    double x, double y) {
+        double x2 = x * x - y * y, y2 = 2 * x * y;
+        double x3 = x2 * x - y2 * y, y3 = x2 * y + y2 * x;
+        return (Ar * x - Ai * y) + (Br * x2 - Bi * y2) + (Cr * x3 - Ci * y3);
+    }
+    private static double evaluarIm(double Ar, double Ai, double Br, double Bi, double Cr, double Ci,
+                                    double x, double y) {
+        double x2 = x * x - y * y, y2 = 2 * x * y;
+        double x3 = x2 * x - y2 * y, y3 = x2 * y + y2 * x;
+        return (Ar * y + Ai * x) + (Br * y2 + Bi * x2) + (Cr * y3 + Ci * x3);
+    }
+
+    /* ---------- Render ---------- */
+
+    /**
+     * Calcula la vista centrada en (centroX, centroY) de tamaño anchura × altura
+     * en el plano. Devuelve false si se canceló.
+     */
+    public boolean renderizar(float[] destino, int ancho, int alto,
+                              BigDecimal centroX, BigDecimal centroY, double anchura, double altura,
+                              int maxIter, double radioEscape, ValorFinal valorFinal, BooleanSupplier cancelado) {
+        final double r2 = radioEscape * radioEscape;
+        final MathContext mc = precisionPara(Math.min(anchura / ancho, altura / alto));
+        final boolean[] glitch = new boolean[ancho * alto];
+
+        // Referencia inicial: el centro de la vista, con aproximación por series
+        Orbita ref = orbitaReferencia(centroX, centroY, maxIter, r2, mc, cancelado);
+        if (ref == null) return false;
+        double hx = anchura / 2, hy = altura / 2;
+        double[] coef = new double[6];
+        int salto = aproximarSerie(ref, maxIter, r2,
+                new double[]{-hx, hx, -hx, hx}, new double[]{-hy, -hy, hy, hy}, coef);
+        iteracionesSaltadas = salto;
+        final double sAr = coef[0], sAi = coef[1], sBr = coef[2], sBi = coef[3], sCr = coef[4], sCi = coef[5];
+
+        final Orbita o0 = ref;
+        boolean ok = renderizador.renderizarValores(destino, ancho, alto, (px, py) -> {
+            double dcx = anchura * ((px + 0.5) / ancho - 0.5);
+            double dcy = -altura * ((py + 0.5) / alto - 0.5);
+            double dx = 0, dy = 0;
+            if (salto > 0) {
+                dx = evaluarRe(sAr, sAi, sBr, sBi, sCr, sCi, dcx, dcy);
+                dy = evaluarIm(sAr, sAi, sBr, sBi, sCr, sCi, dcx, dcy);
+            }
+            return iterarPixel(o0, salto, dx, dy, dcx, dcy, maxIter, r2, glitch, py * ancho + px, valorFinal);
+        }, cancelado);
+        if (!ok) return false;
+
+        // Rebases: nueva referencia dentro de la zona con glitch, solo para esos píxeles
+        int rebasesHechos = 0, restantes = contarGlitch(glitch);
+        while (restantes > 0 && rebasesHechos < MAX_REBASES) {
+            // El glitch mediano (en orden de barrido) cae aproximadamente en el centro de la mancha
+            int elegido = glitchNumero(glitch, restantes / 2);
+            int rx = elegido % ancho, ry = elegido / ancho;
+            final double offX = anchura * ((rx + 0.5) / ancho - 0.5);
+            final double offY = -altura * ((ry + 0.5) / alto - 0.5);
+            final Orbita o = orbitaReferencia(centroX.add(new BigDecimal(offX), mc),
+                                              centroY.add(new BigDecimal(offY), mc), maxIter, r2, mc, cancelado);
+            if (o == null) return false;
+            ok = renderizador.renderizarValores(destino, ancho, alto, (px, py) -> {
+                int i = py * ancho + px;
+                if (!glitch[i]) return destino[i];
+                glitch[i] = false;
+                double dcx = anchura * ((px + 0.5) / ancho - 0.5) - offX;
+                double dcy = -altura * ((py + 0.5) / alto - 0.5) - offY;
+                return iterarPixel(o, 0, 0, 0, dcx, dcy, maxIter, r2, glitch, i, valorFinal);
+            }, cancelado);
+            if (!ok) return false;
+            rebasesHechos++;
+            restantes = contarGlitch(glitch);
+        }
+        rebases = rebasesHechos;
+        pixelesGlitch = restantes;
+        return true;
+    }
+
+    private static int contarGlitch(boolean[] glitch) {
+        int n = 0;
+        for (boolean g : glitch) if (g) n++;
+        return n;
+    }
+
+    private static int glitchNumero(boolean[] glitch, int k) {
+        for (int i = 0; i < glitch.length; i++) {
+            if (glitch[i] && k-- == 0) return i;
+        }
+        return -1;
+    }
+
+    /** Itera la desviación de un píxel desde la iteración n0; marca glitch si procede. */
+    private static float iterarPixel(Orbita o, int n0, double dx, double dy, double dcx, double dcy,
+                                     int maxIter, double r2, boolean[] glitch, int indice, ValorFinal valorFinal) {
+        final double[] re = o.re, im = o.im;
+        double zx = re[n0] + dx, zy = im[n0] + dy;
+        if (n0 > 0 && zx * zx + zy * zy > r2) {
+            // El píxel escapó dentro del tramo saltado: se itera desde el principio
+            n0 = 0; dx = dy = 0; zx = zy = 0;
+        }
+        int n = n0;
+        for (; n < maxIter; n++) {
+            if (n >= o.longitud) { glitch[indice] = true; break; } // la referencia escapó antes
+            double Zx = re[n], Zy = im[n];
+            double ndx = 2.0 * (Zx * dx - Zy * dy) + (dx * dx - dy * dy) + dcx;
+            double ndy = 2.0 * (Zx * dy + Zy * dx) + 2.0 * dx * dy + dcy;
+            dx = ndx; dy = ndy;
+            double Rx = re[n + 1], Ry = im[n + 1];
+            zx = Rx + dx; zy = Ry + dy;
+            double m = zx * zx + zy * zy;
+            if (m > r2) break;
+            if (m < TOLERANCIA_GLITCH * (Rx * Rx + Ry * Ry)) { glitch[indice] = true; break; }
+        }
+        return valorFinal.valor(n, zx, zy);
+    }
+}
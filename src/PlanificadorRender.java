@@ -0,0 +1,86 @@
+import javax.swing.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Planificador de renders en segundo plano con números de generación.
+ * Cada solicitud nueva deja obsoleta (y cancela) la anterior; solo el
+ * resultado de la última generación llega a entregarse, siempre en el EDT.
+ */
+public final class PlanificadorRender<R> {
+
+    /** Trabajo de render; debe consultar cancelado() y devolver null si se aborta. */
+    @FunctionalInterface
+    public interface Tarea<R> {
+        R ejecutar(BooleanSupplier cancelado);
+    }
+
+    /** Tarea que además entrega resultados intermedios (refinamiento progresivo). */
+    @FunctionalInterface
+    public interface TareaProgresiva<R> {
+        R ejecutar(BooleanSupplier cancelado, Consumer<R> parcial);
+    }
+
+    private final AtomicLong generacion = new AtomicLong();
+    private volatile long entregada = 0;
+
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "planificador-render");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Encola una tarea. Las tareas obsoletas que aún no han empezado se
+     * descartan sin ejecutarse; la que está en curso ve cancelado() == true.
+     */
+    public long solicitar(Tarea<R> tarea, Consumer<R> alTerminar) {
+        return solicitarProgresivo((cancelado, parcial) -> tarea.ejecutar(cancelado), alTerminar);
+    }
+
+    /**
+     * Como solicitar, pero cada resultado parcial que publique la tarea se
+     * entrega también a alTerminar (en el EDT y solo si sigue siendo la
+     * última generación); pendiente() sigue siendo true hasta el final.
+     */
+    public long solicitarProgresivo(TareaProgresiva<R> tarea, Consumer<R> alTerminar) {
+        final long gen = generacion.incrementAndGet();
+        BooleanSupplier cancelado = () -> generacion.get() != gen;
+        Consumer<R> parcial = r -> {
+            if (r == null || cancelado.getAsBoolean()) return;
+            SwingUtilities.invokeLater(() -> {
+                if (generacion.get() == gen) alTerminar.accept(r);
+            });
+        };
+        ejecutor.execute(() -> {
+            if (cancelado.getAsBoolean()) return;
+            R resultado = tarea.ejecutar(cancelado, parcial);
+            if (resultado == null || cancelado.getAsBoolean()) return;
+            SwingUtilities.invokeLater(() -> {
+                // Comprobación final en el EDT: nunca pintar un resultado viejo
+                if (generacion.get() != gen) return;
+                entregada = gen;
+                alTerminar.accept(resultado);
+            });
+        });
+        return gen;
+    }
+
+    /** Invalida cualquier render pendiente o en curso. */
+    public void cancelar() {
+        entregada = generacion.incrementAndGet();
+    }
+
+    /** true si la última solicitud aún no se ha entregado. */
+    public boolean pendiente() {
+        return entregada != generacion.get();
+    }
+
+    public void cerrar() {
+        cancelar();
+        ejecutor.shutdownNow();
+    }
+}
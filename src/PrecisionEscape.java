@@ -0,0 +1,203 @@
+import java.math.BigDecimal;
+
+/**
+ * Niveles de precisión del bucle de escape: float, double y doble-double
+ * (un valor = hi + lo, unos 106 bits de mantisa), con sus bucles.
+ *
+ * Se usa el nivel más barato cuyo espaciado relativo mínimo (espaciado
+ * entre píxeles / magnitud de las coordenadas) no supera el de la vista.
+ * El float solo compensa en lotes SIMD (el doble de carriles); a 1e-3 aún
+ * discrepa del doble-double en menos del 1% de los píxeles, todos en el
+ * borde caótico. Para z^2 + c, por debajo del double es mucho más barata
+ * la perturbación (PerturbacionProfunda) que el doble-double, que queda
+ * para el Burning Ship y el Tricorn, que no tienen perturbación.
+ *
+ * Los bucles hacen lo mismo que los de los núcleos (cardioide/bulbo, ciclos
+ * de Brent y conteo suavizado), con la tolerancia de ciclo de su formato.
+ */
+public final class PrecisionEscape {
+
+    public enum Nivel {
+        FLOAT("float", 24, 1e-3),
+        DOUBLE("double", 53, AlgoritmoEscape.ESPACIADO_PROFUNDO),
+        DOBLE_DOBLE("doble-double", 106, 1e-28);
+
+        private final String nombre;
+        public final int bits;
+        /** Espaciado relativo mínimo que resuelve este nivel. */
+        public final double espaciadoMinimo;
+
+        Nivel(String nombre, int bits, double espaciadoMinimo) {
+            this.nombre = nombre; this.bits = bits; this.espaciadoMinimo = espaciadoMinimo;
+        }
+
+        @Override public String toString() { return nombre; }
+    }
+
+    static final float TOLERANCIA_FLOAT = 1e-7f;
+    static final double TOLERANCIA_DD = 1e-30;
+
+    private PrecisionEscape() { }
+
+    /**
+     * El nivel más barato que resuelve el espaciado (en unidades del plano)
+     * con coordenadas de magnitud escala, entre los que tiene el núcleo:
+     * float solo hay para z^2 + c; doble-double, para los cuadráticos
+     * (tieneDobleDouble). Si ninguno basta, el más preciso del núcleo.
+     */
+    public static Nivel para(double espaciado, double escala, NucleoFractal n) {
+        double relativo = espaciado / Math.max(1.0, escala);
+        Nivel nivel = Nivel.DOBLE_DOBLE;
+        for (Nivel k : Nivel.values()) if (relativo >= k.espaciadoMinimo) { nivel = k; break; }
+        if (nivel == Nivel.FLOAT && !(n instanceof NucleoCuadratico)) return Nivel.DOUBLE;
+        if (nivel == Nivel.DOBLE_DOBLE && !tieneDobleDouble(n)) return Nivel.DOUBLE;
+        return nivel;
+    }
+
+    /** Núcleos con bucle en doble-double: z^2 + c, Burning Ship y Tricorn. */
+    public static boolean tieneDobleDouble(NucleoFractal n) {
+        return forma(n) >= 0;
+    }
+
+    private static final int CUADRATICA = 0, BURNING_SHIP = 1, TRICORN = 2;
+
+    private static int forma(NucleoFractal n) {
+        if (n instanceof NucleoCuadratico) return CUADRATICA;
+        if (n instanceof NucleoBurningShip) return BURNING_SHIP;
+        if (n instanceof NucleoTricorn) return TRICORN;
+        return -1;
+    }
+
+    /* ---------- float ---------- */
+
+    /** Mandelbrot en float; mismo resultado que NucleoCuadratico.parametro salvo por el redondeo. */
+    public static float mandelbrot(float cx, float cy, int maxIter, float r2, boolean periodos) {
+        if (periodos && NucleoCuadratico.enCardioideOBulbo(cx, cy)) return Float.NaN;
+        float zx = 0f, zy = 0f, guardadoX = 0f, guardadoY = 0f;
+        int paso = 0, tramo = 2;
+        int n = 0;
+        for (; n < maxIter; n++) {
+            float zx2 = zx * zx - zy * zy + cx;
+            float zy2 = 2f * zx * zy + cy;
+            zx = zx2; zy = zy2;
+            if (zx * zx + zy * zy > r2) break;
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_FLOAT && Math.abs(zy - guardadoY) < TOLERANCIA_FLOAT) {
+                    n = maxIter; break;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        return (float) NucleoFractal.valorSuave(n, zx, zy, maxIter, 2);
+    }
+
+    /** Julia en float: nº de iteraciones hasta escapar desde z0; NaN si no escapa. */
+    public static float julia(float zx, float zy, float cRe, float cIm, int maxIter, float r2, boolean periodos) {
+        float guardadoX = zx, guardadoY = zy;
+        int paso = 0, tramo = 2;
+        int n = 0;
+        for (; n < maxIter; n++) {
+            float zx2 = zx * zx - zy * zy + cRe;
+            float zy2 = 2f * zx * zy + cIm;
+            zx = zx2; zy = zy2;
+            if (zx * zx + zy * zy > r2) break;
+            if (periodos) {
+                if (Math.abs(zx - guardadoX) < TOLERANCIA_FLOAT && Math.abs(zy - guardadoY) < TOLERANCIA_FLOAT) {
+                    n = maxIter; break;
+                }
+                if (++paso == tramo) { guardadoX = zx; guardadoY = zy; paso = 0; tramo <<= 1; }
+            }
+        }
+        return n == maxIter ? Float.NaN : n;
+    }
+
+    /* ---------- doble-double ---------- */
+
+    /** Parte alta y baja de un decimal: hi = el double más cercano, lo = el resto redondeado. */
+    public static double[] partir(BigDecimal x) {
+        double hi = x.doubleValue();
+        return new double[]{hi, x.subtract(new BigDecimal(hi)).doubleValue()};
+    }
+
+    /**
+     * Plano de parámetros en doble-double para c = (cxHi + cxLo + dx,
+     * cyHi + cyLo + dy): el centro de la vista partido en dos double más el
+     * desplazamiento del píxel, que en double no pierde nada.
+     */
+    public static float parametro(NucleoFractal n, double cxHi, double cxLo, double dx,
+                                  double cyHi, double cyLo, double dy, int maxIter, double r2, boolean periodos) {
+        int forma = forma(n);
+        double s = cxHi + dx, v = s - cxHi, t = (cxHi - (s - v)) + (dx - v) + cxLo;
+        double cxh = s + t, cxl = t - (cxh - s);
+        s = cyHi + dy; v = s - cyHi; t = (cyHi - (s - v)) + (dy - v) + cyLo;
+        double cyh = s + t, cyl = t - (cyh - s);
+        if (periodos && forma == CUADRATICA && NucleoCuadratico.enCardioideOBulbo(cxh, cyh)) return Float.NaN;
+        return iterar(forma, 0.0, 0.0, 0.0, 0.0, cxh, cxl, cyh, cyl, maxIter, r2, periodos, true);
+    }
+
+    /** Plano dinámico en doble-double desde z0 = (zxHi + zxLo + dx, zyHi + zyLo + dy). */
+    public static float dinamico(NucleoFractal n, double zxHi, double zxLo, double dx,
+                                 double zyHi, double zyLo, double dy,
+                                 double cRe, double cIm, int maxIter, double r2, boolean periodos) {
+        double s = zxHi + dx, v = s - zxHi, t = (zxHi - (s - v)) + (dx - v) + zxLo;
+        double xh = s + t, xl = t - (xh - s);
+        s = zyHi + dy; v = s - zyHi; t = (zyHi - (s - v)) + (dy - v) + zyLo;
+        double yh = s + t, yl = t - (yh - s);
+        return iterar(forma(n), xh, xl, yh, yl, cRe, 0.0, cIm, 0.0, maxIter, r2, periodos, false);
+    }
+
+    /**
+     * El bucle de los tres cuadráticos: (x, y) -> (x² - y², ±2xy) + c, con
+     * |x|, |y| antes en el Burning Ship y el signo - en el Tricorn. Los
+     * productos exactos usan Math.fma; el escape y el conteo suavizado, la
+     * parte alta.
+     */
+    private static float iterar(int forma, double xh, double xl, double yh, double yl,
+                                double cxh, double cxl, double cyh, double cyl,
+                                int maxIter, double r2, boolean periodos, boolean suave) {
+        final double signoXY = forma == TRICORN ? -2.0 : 2.0;
+        double gxh = xh, gxl = xl, gyh = yh, gyl = yl;
+        int paso = 0, tramo = 2;
+        int n = 0;
+        for (; n < maxIter; n++) {
+            if (forma == BURNING_SHIP) {
+                if (xh < 0) { xh = -xh; xl = -xl; }
+                if (yh < 0) { yh = -yh; yl = -yl; }
+            }
+            // x², y² y x·y a 106 bits (producto exacto de las partes altas + términos cruzados)
+            double p = xh * xh, e = Math.fma(xh, xh, -p) + 2.0 * xh * xl;
+            double x2h = p + e, x2l = e - (x2h - p);
+            p = yh * yh;
+            e = Math.fma(yh, yh, -p) + 2.0 * yh * yl;
+            double y2h = p + e, y2l = e - (y2h - p);
+            p = xh * yh;
+            e = Math.fma(xh, yh, -p) + xh * yl + xl * yh;
+            double xyh = p + e, xyl = e - (xyh - p);
+            xyh *= signoXY; xyl *= signoXY; // por ±2: exacto
+
+            // x' = (x² - y²) + cx
+            double s = x2h - y2h, v = s - x2h;
+            double t = (x2h - (s - v)) + (-y2h - v) + x2l - y2l;
+            double ah = s + t, al = t - (ah - s);
+            s = ah + cxh; v = s - ah;
+            t = (ah - (s - v)) + (cxh - v) + al + cxl;
+            double nxh = s + t, nxl = t - (nxh - s);
+
+            // y' = ±2·x·y + cy
+            s = xyh + cyh; v = s - xyh;
+            t = (xyh - (s - v)) + (cyh - v) + xyl + cyl;
+            yh = s + t; yl = t - (yh - s);
+            xh = nxh; xl = nxl;
+
+            if (xh * xh + yh * yh > r2) break;
+            if (periodos) {
+                if (Math.abs((xh - gxh) + (xl - gxl)) < TOLERANCIA_DD && Math.abs((yh - gyh) + (yl - gyl)) < TOLERANCIA_DD) {
+                    n = maxIter; break;
+                }
+                if (++paso == tramo) { gxh = xh; gxl = xl; gyh = yh; gyl = yl; paso = 0; tramo <<= 1; }
+            }
+        }
+        if (!suave) return n == maxIter ? Float.NaN : n;
+        return (float) NucleoFractal.valorSuave(n, xh, yh, maxIter, 2);
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Render por subdivisión de Mariani–Silver: de cada rectángulo solo se
+ * calcula el borde; si todo el borde tiene el mismo valor se rellena el
+ * interior sin iterar, y si no se parte en cuatro y se repite. Los valores
+ * son los del búfer de iteraciones (iguales bit a bit; NaN = interior).
+ *
+ * Cada rectángulo calcula la cruz que lo divide antes de lanzar a sus
+ * hijos, así ningún píxel se calcula dos veces y los hijos corren en
+ * paralelo sobre el pool del RenderizadorParalelo.
+ */
+public final class RellenoMarianiSilver {
+
+    // Por debajo de este lado ya no compensa subdividir: se calcula todo
+    private static final int LADO_MINIMO = 6;
+
+    private final RenderizadorParalelo renderizador;
+    private final LongAdder saltados = new LongAdder();
+
+    public RellenoMarianiSilver(RenderizadorParalelo renderizador) {
+        this.renderizador = renderizador;
+    }
+
+    /** Píxeles rellenados sin calcular en el último render. */
+    public long getPixelesSaltados() { return saltados.sum(); }
+
+    /** Rellena destino con f(px, py) (valores iguales => región uniforme). false si se canceló. */
+    public boolean renderizar(float[] destino, int ancho, int alto,
+                              RenderizadorParalelo.FuncionValor f, BooleanSupplier cancelado) {
+        saltados.reset();
+        if (ancho <= 0 || alto <= 0) return true;
+        int x1 = ancho - 1, y1 = alto - 1;
+        for (int x = 0; x <= x1; x++) {
+            destino[x] = f.valor(x, 0);
+            destino[y1 * ancho + x] = f.valor(x, y1);
+        }
+        for (int y = 1; y < y1; y++) {
+            destino[y * ancho] = f.valor(0, y);
+            destino[y * ancho + x1] = f.valor(x1, y);
+        }
+        renderizador.invocar(new Rectangulo(destino, ancho, f, cancelado, 0, 0, x1, y1));
+        return !cancelado.getAsBoolean();
+    }
+
+    /* ---------- Rectángulo [x0..x1] × [y0..y1] con el borde ya calculado ---------- */
+    private final class Rectangulo extends RecursiveAction {
+        private final float[] d;
+        private final int ancho;
+        private final RenderizadorParalelo.FuncionValor f;
+        private final BooleanSupplier cancelado;
+        private final int x0, y0, x1, y1;
+
+        Rectangulo(float[] d, int ancho, RenderizadorParalelo.FuncionValor f, BooleanSupplier cancelado,
+                   int x0, int y0, int x1, int y1) {
+            this.d = d; this.ancho = ancho; this.f = f; this.cancelado = cancelado;
+            this.x0 = x0; this.y0 = y0; this.x1 = x1; this.y1 = y1;
+        }
+
+        @Override
+        protected void compute() {
+            if (x1 - x0 < 2 || y1 - y0 < 2 || cancelado.getAsBoolean()) return; // sin interior
+
+            if (bordeUniforme()) {
+                float v = d[y0 * ancho + x0];
+                for (int y = y0 + 1; y < y1; y++) {
+                    int fila = y * ancho;
+                    for (int x = x0 + 1; x < x1; x++) d[fila + x] = v;
+                }
+                saltados.add((long) (x1 - x0 - 1) * (y1 - y0 - 1));
+                return;
+            }
+
+            if (x1 - x0 <= LADO_MINIMO || y1 - y0 <= LADO_MINIMO) {
+                for (int y = y0 + 1; y < y1; y++) {
+                    int fila = y * ancho;
+                    for (int x = x0 + 1; x < x1; x++) d[fila + x] = f.valor(x, y);
+                }
+                return;
+            }
+
+            // Cruz divisoria: pasa a ser borde de los cuatro hijos
+            int mx = (x0 + x1) >>> 1, my = (y0 + y1) >>> 1;
+            for (int y = y0 + 1; y < y1; y++) d[y * ancho + mx] = f.valor(mx, y);
+            for (int x = x0 + 1; x < x1; x++) {
+                if (x != mx) d[my * ancho + x] = f.valor(x, my);
+            }
+            invokeAll(new Rectangulo(d, ancho, f, cancelado, x0, y0, mx, my),
+                      new Rectangulo(d, ancho, f, cancelado, mx, y0, x1, my),
+                      new Rectangulo(d, ancho, f, cancelado, x0, my, mx, y1),
+                      new Rectangulo(d, ancho, f, cancelado, mx, my, x1, y1));
+        }
+
+        // Comparación bit a bit: así NaN (interior) es igual a NaN
+        private boolean bordeUniforme() {
+            int v = Float.floatToRawIntBits(d[y0 * ancho + x0]);
+            int arriba = y0 * ancho, abajo = y1 * ancho;
+            for (int x = x0; x <= x1; x++) {
+                if (Float.floatToRawIntBits(d[arriba + x]) != v || Float.floatToRawIntBits(d[abajo + x]) != v) return false;
+            }
+            for (int y = y0 + 1; y < y1; y++) {
+                int fila = y * ancho;
+                if (Float.floatToRawIntBits(d[fila + x0]) != v || Float.floatToRawIntBits(d[fila + x1]) != v) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,518 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * RenderPorFranjas repartido entre procesos trabajadores por TCP.
+ *
+ * El coordinador parte la imagen en teselas y las reparte a los
+ * trabajadores que se conectan (los lanza él mismo con --locales N, en
+ * esta máquina y por loopback). Cada trabajador calcula las teselas con el
+ * mismo RenderPorFranjas.calcularBloque (la imagen sale idéntica a la de un
+ * solo proceso) y devuelve los valores de iteración, no colores: los float
+ * por planos de bytes y comprimidos con deflate. El coordinador colorea y
+ * escribe la imagen por filas de teselas, en cuanto cada fila está completa.
+ *
+ * Reparto por robo de trabajo: las teselas se reparten de antemano en una
+ * cola por trabajador, intercaladas en orden de filas. Cada trabajador pide
+ * de la cabeza de la suya (lo más cercano a la fila que se escribe); cuando
+ * no le queda nada, roba de la cola con más trabajo por el final (lo más
+ * lejano). Solo se dan teselas de las VENTANA_FILAS filas siguientes a la
+ * que se escribe, robos incluidos: una tesela lenta detiene a los demás en
+ * el borde de la ventana en vez de dejar que el resto de la imagen se
+ * acumule en el coordinador, que así guarda a lo sumo la ventana, como la
+ * salida por franjas. Un trabajador que llega tarde empieza robando. Si
+ * una conexión se cae o no responde en --plazo segundos, sus teselas en
+ * vuelo vuelven a repartirse (hasta MAX_INTENTOS veces cada una).
+ *
+ * Protocolo (DataOutputStream, big-endian):
+ *   trabajador -> HOLA: MAGIA, VERSION, hilos
+ *   coordinador -> PARAMETROS, n, n × UTF (los argumentos de RenderPorFranjas)
+ *   coordinador -> TESELA, id, x0, y0, ancho, alto        (hasta EN_VUELO seguidas)
+ *   trabajador -> RESULTADO, id, bytes, datos comprimidos (en el orden recibido)
+ *   coordinador -> FIN
+ *
+ * Uso:
+ *   java RenderDistribuido coordinador mandelbrot|julia --tam ANCHOxALTO --salida imagen.png|imagen.rgb
+ *        [--region ...] [--iter N] [--c re,im] [--paleta ...] [--nucleo NOMBRE]
+ *        [--tesela LADO] [--locales N] [--puerto P] [--escuchar DIRECCION] [--plazo SEGUNDOS]
+ *   java RenderDistribuido trabajador --host HOST --puerto P [--hilos N]
+ */
+public final class RenderDistribuido {
+
+    private static final int MAGIA = 0x46524143; // "FRAC"
+    private static final int VERSION = 1;
+    private static final byte PARAMETROS = 1, TESELA = 2, RESULTADO = 3, FIN = 4;
+
+    // Teselas enviadas a un trabajador sin esperar respuesta: mientras calcula
+    // una, la siguiente ya está en su búfer
+    private static final int EN_VUELO = 2;
+    private static final int MAX_INTENTOS = 3;
+    // Filas de teselas por delante de la que se escribe que pueden estar repartidas
+    // (más si la imagen es estrecha, hasta tener VENTANA_MIN_TESELAS teselas)
+    private static final int VENTANA_FILAS = 4, VENTANA_MIN_TESELAS = 64;
+
+    private RenderDistribuido() { }
+
+    public static void main(String[] args) throws Exception {
+        String uso = "Uso: java RenderDistribuido coordinador mandelbrot|julia --tam ANCHOxALTO --salida imagen.png|imagen.rgb\n"
+                + "       [opciones de RenderPorFranjas] [--tesela LADO] [--locales N] [--puerto P]\n"
+                + "       [--escuchar DIRECCION] [--plazo SEGUNDOS]\n"
+                + "   o: java RenderDistribuido trabajador --host HOST --puerto P [--hilos N]";
+        try {
+            if (args.length > 0 && args[0].equals("coordinador")) { coordinar(Arrays.copyOfRange(args, 1, args.length)); return; }
+            if (args.length > 0 && args[0].equals("trabajador")) { trabajar(Arrays.copyOfRange(args, 1, args.length)); return; }
+            throw new IllegalArgumentException("Falta el papel: coordinador o trabajador");
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(uso);
+            System.exit(2);
+        }
+    }
+
+    /* ---------- Tesela y codificación de los valores ---------- */
+    private static final class Tesela {
+        final int id, fila, x0, y0, ancho, alto;
+        int intentos;
+
+        Tesela(int id, int fila, int x0, int y0, int ancho, int alto) {
+            this.id = id; this.fila = fila; this.x0 = x0; this.y0 = y0; this.ancho = ancho; this.alto = alto;
+        }
+    }
+
+    /**
+     * Los n primeros valores por planos de bytes (todos los bytes altos,
+     * luego los segundos...) y deflate: signo y exponente se repiten mucho y
+     * así quedan juntos; el interior (NaN) se reduce a casi nada.
+     */
+    static byte[] comprimir(float[] valores, int n) {
+        byte[] planos = new byte[4 * n];
+        for (int i = 0; i < n; i++) {
+            int b = Float.floatToRawIntBits(valores[i]);
+            planos[i] = (byte) (b >>> 24);
+            planos[n + i] = (byte) (b >>> 16);
+            planos[2 * n + i] = (byte) (b >>> 8);
+            planos[3 * n + i] = (byte) b;
+        }
+        Deflater d = new Deflater(Deflater.BEST_SPEED);
+        d.setInput(planos);
+        d.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(n);
+        byte[] buf = new byte[1 << 16];
+        while (!d.finished()) out.write(buf, 0, d.deflate(buf));
+        d.end();
+        return out.toByteArray();
+    }
+
+    static void descomprimir(byte[] datos, float[] valores, int n) throws IOException {
+        byte[] planos = new byte[4 * n];
+        Inflater inf = new Inflater();
+        try {
+            inf.setInput(datos);
+            int k = 0;
+            while (k < planos.length && !inf.finished()) {
+                int leidos = inf.inflate(planos, k, planos.length - k);
+                if (leidos == 0 && inf.needsInput()) break;
+                k += leidos;
+            }
+            if (k != planos.length || !inf.finished()) throw new IOException("Tesela truncada o de otro tamaño");
+        } catch (DataFormatException e) {
+            throw new IOException("Tesela corrupta", e);
+        } finally {
+            inf.end();
+        }
+        for (int i = 0; i < n; i++) {
+            valores[i] = Float.intBitsToFloat((planos[i] & 0xFF) << 24 | (planos[n + i] & 0xFF) << 16
+                    | (planos[2 * n + i] & 0xFF) << 8 | (planos[3 * n + i] & 0xFF));
+        }
+    }
+
+    /* ---------- Reparto con robo de trabajo ---------- */
+    private static final class Reparto {
+        private final List<ArrayDeque<Tesela>> colas = new ArrayList<>();
+        private final ArrayDeque<Tesela> reintentos = new ArrayDeque<>();
+        private final float[][] hechas;      // valores por id; null = pendiente o ya escrita
+        private final boolean[] entregada;
+        private final int[] pendientesFila;
+        private final int ventanaFilas;
+        private int restantes, sinDueno;
+        private int siguienteFila;           // la próxima que se escribe
+        private String error;
+        private long ultimoAvance = System.nanoTime();
+        private int robadas, reintentadas;
+
+        Reparto(List<Tesela> teselas, int filas, int porFila, int numColas) {
+            ventanaFilas = Math.max(VENTANA_FILAS, (VENTANA_MIN_TESELAS + porFila - 1) / porFila);
+            for (int k = 0; k < numColas; k++) colas.add(new ArrayDeque<>());
+            hechas = new float[teselas.size()][];
+            entregada = new boolean[teselas.size()];
+            pendientesFila = new int[filas];
+            for (Tesela t : teselas) {
+                colas.get(t.id % numColas).addLast(t);
+                pendientesFila[t.fila]++;
+            }
+            restantes = teselas.size();
+        }
+
+        /** Cola para un trabajador nuevo: una de las repartidas si queda sin dueño, si no una vacía. */
+        synchronized int asignarCola() {
+            if (sinDueno < colas.size()) return sinDueno++;
+            colas.add(new ArrayDeque<>());
+            return colas.size() - 1;
+        }
+
+        /**
+         * Reintentos primero (ya estuvieron en la ventana), luego la propia
+         * por la cabeza, luego robo de la última dentro de la ventana; null
+         * si no hay nada dentro de la ventana.
+         */
+        synchronized Tesela tomar(int propia) {
+            if (error != null) return null;
+            Tesela t = reintentos.pollFirst();
+            if (t != null) return t;
+            int limite = siguienteFila + ventanaFilas;
+            ArrayDeque<Tesela> mia = colas.get(propia);
+            if (!mia.isEmpty() && mia.peekFirst().fila < limite) return mia.pollFirst();
+            ArrayDeque<Tesela> victima = null;
+            int mas = 0;
+            for (ArrayDeque<Tesela> c : colas) {
+                int k = enVentana(c, limite);
+                if (k > mas) { mas = k; victima = c; }
+            }
+            if (victima == null) return null;
+            robadas++;
+            for (Iterator<Tesela> it = victima.descendingIterator(); ; ) {
+                t = it.next();
+                if (t.fila < limite) { it.remove(); return t; }
+            }
+        }
+
+        /** Teselas de la cola (en orden de filas) anteriores a la fila limite. */
+        private static int enVentana(ArrayDeque<Tesela> cola, int limite) {
+            int k = 0;
+            for (Tesela t : cola) {
+                if (t.fila >= limite) break;
+                k++;
+            }
+            return k;
+        }
+
+        /** Como tomar, pero espera a que aparezca trabajo (un reintento o la ventana avanza); null cuando ya no queda. */
+        synchronized Tesela esperarTesela(int propia) throws InterruptedException {
+            while (error == null && restantes > 0) {
+                Tesela t = tomar(propia);
+                if (t != null) return t;
+                wait();
+            }
+            return null;
+        }
+
+        synchronized void entregar(Tesela t, float[] valores) {
+            if (entregada[t.id]) return;
+            entregada[t.id] = true;
+            hechas[t.id] = valores;
+            restantes--;
+            pendientesFila[t.fila]--;
+            ultimoAvance = System.nanoTime();
+            notifyAll();
+        }
+
+        /** Teselas de un trabajador perdido: vuelven a repartirse. */
+        synchronized void devolver(Collection<Tesela> teselas) {
+            for (Tesela t : teselas) {
+                if (entregada[t.id]) continue;
+                if (++t.intentos >= MAX_INTENTOS) {
+                    error = String.format(Locale.ROOT, "La tesela %d (%d, %d) falló %d veces", t.id, t.x0, t.y0, t.intentos);
+                } else {
+                    reintentos.addLast(t);
+                    reintentadas++;
+                }
+            }
+            notifyAll();
+        }
+
+        synchronized void fallar(String motivo) {
+            if (error == null) error = motivo;
+            notifyAll();
+        }
+
+        /**
+         * Espera a que la fila esté completa y devuelve sus teselas (por id,
+         * ya soltadas del reparto). Falla si nada avanza en plazoNanos.
+         */
+        synchronized float[][] esperarFila(int fila, int porFila, long plazoNanos) throws InterruptedException, IOException {
+            while (pendientesFila[fila] > 0) {
+                if (error != null) throw new IOException(error);
+                long espera = plazoNanos - (System.nanoTime() - ultimoAvance);
+                if (espera <= 0) {
+                    throw new IOException(String.format(Locale.ROOT, "Ninguna tesela en %d s (%d pendientes)",
+                            TimeUnit.NANOSECONDS.toSeconds(plazoNanos), restantes));
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, espera);
+            }
+            float[][] r = new float[porFila][];
+            for (int i = 0; i < porFila; i++) {
+                r[i] = hechas[fila * porFila + i];
+                hechas[fila * porFila + i] = null;
+            }
+            siguienteFila = fila + 1; // la ventana avanza
+            notifyAll();
+            return r;
+        }
+    }
+
+    /* ---------- Coordinador ---------- */
+    private static void coordinar(String[] args) throws IOException, InterruptedException {
+        int lado = 256, locales = 0, puerto = 0, plazo = 120;
+        String escuchar = "127.0.0.1";
+        List<String> resto = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            boolean propia = a.equals("--tesela") || a.equals("--locales") || a.equals("--puerto")
+                    || a.equals("--escuchar") || a.equals("--plazo");
+            if (!propia) { resto.add(a); continue; }
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Falta el valor de " + a);
+            String v = args[++i];
+            switch (a) {
+                case "--tesela": lado = Integer.parseInt(v); break;
+                case "--locales": locales = Integer.parseInt(v); break;
+                case "--puerto": puerto = Integer.parseInt(v); break;
+                case "--escuchar": escuchar = v; break;
+                default: plazo = Integer.parseInt(v);
+            }
+        }
+        final String[] argsRender = resto.toArray(new String[0]);
+        RenderPorFranjas.Parametros p = RenderPorFranjas.Parametros.leer(argsRender);
+        if (p.modo == RenderPorFranjas.Modo.INVERSA) {
+            throw new IllegalArgumentException("La iteración inversa no se reparte por teselas (usar RenderPorFranjas)");
+        }
+        if (p.reanudar) throw new IllegalArgumentException("--reanudar no está disponible en el render distribuido");
+        if (lado < RenderizadorParalelo.LADO_TESELA || locales < 0 || plazo <= 0) {
+            throw new IllegalArgumentException("--tesela >= " + RenderizadorParalelo.LADO_TESELA
+                    + ", --locales >= 0 y --plazo > 0");
+        }
+        p.franja = lado; // la salida escribe una fila de teselas cada vez
+
+        final int tx = (p.ancho + lado - 1) / lado, ty = (p.alto + lado - 1) / lado;
+        List<Tesela> teselas = new ArrayList<>(tx * ty);
+        for (int j = 0; j < ty; j++) {
+            for (int i = 0; i < tx; i++) {
+                teselas.add(new Tesela(j * tx + i, j, i * lado, j * lado,
+                        Math.min(lado, p.ancho - i * lado), Math.min(lado, p.alto - j * lado)));
+            }
+        }
+        final Reparto reparto = new Reparto(teselas, ty, tx, Math.max(1, locales));
+        final long plazoNanos = TimeUnit.SECONDS.toNanos(plazo);
+        final int plazoSocket = plazo;
+
+        List<Process> procesos = new ArrayList<>();
+        RenderizadorParalelo renderizador = new RenderizadorParalelo(RenderizadorParalelo.hilosPorDefecto());
+        long t0 = System.nanoTime();
+        try (ServerSocket servidor = new ServerSocket(puerto, 50, InetAddress.getByName(escuchar))) {
+            System.err.printf(Locale.ROOT, "Coordinador en %s:%d · %d teselas de %d px (%dx%d)%n",
+                    servidor.getInetAddress().getHostAddress(), servidor.getLocalPort(), teselas.size(), lado, tx, ty);
+            Thread aceptador = new Thread(() -> aceptar(servidor, reparto, argsRender, plazoSocket), "coordinador-aceptador");
+            aceptador.setDaemon(true);
+            aceptador.start();
+            if (locales > 0) {
+                procesos = lanzarLocales(locales, servidor.getLocalPort(),
+                        Math.max(1, RenderizadorParalelo.hilosPorDefecto() / locales));
+            }
+
+            PaletaLUT paleta = new PaletaLUT(p.esquema, 1.0);
+            float[] valores = new float[p.ancho * lado];
+            int[] argb = new int[p.ancho * lado];
+            long ultimoAviso = t0;
+            try (RenderPorFranjas.Salida salida = RenderPorFranjas.abrirSalida(p, null)) {
+                for (int j = 0; j < ty; j++) {
+                    float[][] fila = reparto.esperarFila(j, tx, plazoNanos);
+                    int filas = Math.min(lado, p.alto - j * lado);
+                    for (int i = 0; i < tx; i++) {
+                        int w = Math.min(lado, p.ancho - i * lado);
+                        for (int y = 0; y < filas; y++) System.arraycopy(fila[i], y * w, valores, y * p.ancho + i * lado, w);
+                    }
+                    paleta.colorear(valores, argb, p.ancho, filas, p.maxIter, renderizador, () -> false);
+                    salida.franja(argb, filas, j == ty - 1);
+
+                    long ahora = System.nanoTime();
+                    if (ahora - ultimoAviso > 2_000_000_000L || j == ty - 1) {
+                        ultimoAviso = ahora;
+                        System.err.printf(Locale.ROOT, "fila de teselas %d/%d (%.1f%%) · %.1f s%n",
+                                j + 1, ty, 100.0 * (j + 1) / ty, (ahora - t0) / 1e9);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            reparto.fallar(e.getMessage());
+            throw e;
+        } finally {
+            renderizador.cerrar();
+            for (Process pr : procesos) {
+                if (!pr.waitFor(10, TimeUnit.SECONDS)) pr.destroyForcibly();
+            }
+        }
+        synchronized (reparto) {
+            System.err.printf(Locale.ROOT, "Terminado en %.1f s · %d teselas robadas · %d reintentadas%n",
+                    (System.nanoTime() - t0) / 1e9, reparto.robadas, reparto.reintentadas);
+        }
+    }
+
+    private static void aceptar(ServerSocket servidor, Reparto reparto, String[] argsRender, int plazo) {
+        while (true) {
+            Socket s;
+            try {
+                s = servidor.accept();
+            } catch (IOException e) {
+                return; // servidor cerrado: fin del render
+            }
+            Thread t = new Thread(() -> atender(s, reparto, argsRender, plazo),
+                    "coordinador-" + s.getRemoteSocketAddress());
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    /** Conversación con un trabajador: le da teselas hasta que no quedan y recoge los resultados. */
+    private static void atender(Socket s, Reparto reparto, String[] argsRender, int plazo) {
+        String nombre = String.valueOf(s.getRemoteSocketAddress());
+        ArrayDeque<Tesela> enVuelo = new ArrayDeque<>();
+        int hechas = 0;
+        long bytes = 0, brutos = 0;
+        try (Socket socket = s) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(plazo));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (in.readInt() != MAGIA || in.readInt() != VERSION) throw new IOException("saludo no válido");
+            int hilos = in.readInt();
+            int cola = reparto.asignarCola();
+            System.err.printf(Locale.ROOT, "Trabajador %s (%d hilos)%n", nombre, hilos);
+
+            out.writeByte(PARAMETROS);
+            out.writeInt(argsRender.length);
+            for (String a : argsRender) out.writeUTF(a);
+            while (true) {
+                while (enVuelo.size() < EN_VUELO) {
+                    Tesela t = enVuelo.isEmpty() ? reparto.esperarTesela(cola) : reparto.tomar(cola);
+                    if (t == null) break;
+                    out.writeByte(TESELA);
+                    out.writeInt(t.id); out.writeInt(t.x0); out.writeInt(t.y0); out.writeInt(t.ancho); out.writeInt(t.alto);
+                    enVuelo.addLast(t);
+                }
+                out.flush();
+                if (enVuelo.isEmpty()) break;
+
+                Tesela t = enVuelo.peekFirst();
+                if (in.readByte() != RESULTADO || in.readInt() != t.id) throw new IOException("respuesta fuera de orden");
+                int n = t.ancho * t.alto, largo = in.readInt();
+                if (largo < 0 || largo > 4 * n + (n >> 4) + 1024) throw new IOException("tesela de " + largo + " bytes");
+                byte[] datos = new byte[largo];
+                in.readFully(datos);
+                float[] valores = new float[n];
+                descomprimir(datos, valores, n);
+                enVuelo.pollFirst();
+                reparto.entregar(t, valores);
+                hechas++;
+                bytes += largo;
+                brutos += 4L * n;
+            }
+            out.writeByte(FIN);
+            out.flush();
+            System.err.printf(Locale.ROOT, "Trabajador %s: %d teselas · %.1f MB recibidos (%.0f%% de los float)%n",
+                    nombre, hechas, bytes / 1e6, brutos > 0 ? 100.0 * bytes / brutos : 0.0);
+        } catch (IOException e) {
+            String motivo = e instanceof EOFException || e instanceof SocketException ? "conexión perdida" : e.getMessage();
+            System.err.printf(Locale.ROOT, "Trabajador %s caído (%s) tras %d teselas; %d vuelven al reparto%n",
+                    nombre, motivo, hechas, enVuelo.size());
+            reparto.devolver(enVuelo);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reparto.devolver(enVuelo);
+        }
+    }
+
+    /** Trabajadores en esta máquina: la misma JVM y classpath, conectados por loopback. */
+    private static List<Process> lanzarLocales(int n, int puerto, int hilos) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> procesos = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            ProcessBuilder pb = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    "RenderDistribuido", "trabajador", "--host", "127.0.0.1", "--puerto", Integer.toString(puerto),
+                    "--hilos", Integer.toString(hilos));
+            pb.redirectOutput(ProcessBuilder.Redirect.INHERIT);
+            pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+            procesos.add(pb.start());
+        }
+        return procesos;
+    }
+
+    /* ---------- Trabajador ---------- */
+    private static void trabajar(String[] args) throws IOException {
+        String host = "127.0.0.1";
+        int puerto = -1, hilos = RenderizadorParalelo.hilosPorDefecto();
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Falta el valor de " + a);
+            String v = args[++i];
+            switch (a) {
+                case "--host": host = v; break;
+                case "--puerto": puerto = Integer.parseInt(v); break;
+                case "--hilos": hilos = Integer.parseInt(v); break;
+                default: throw new IllegalArgumentException("Opción desconocida: " + a);
+            }
+        }
+        if (puerto <= 0) throw new IllegalArgumentException("--puerto obligatorio");
+
+        RenderizadorParalelo renderizador = new RenderizadorParalelo(hilos);
+        try (Socket s = new Socket(host, puerto)) {
+            s.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            out.writeInt(MAGIA); out.writeInt(VERSION); out.writeInt(hilos);
+            out.flush();
+
+            if (in.readByte() != PARAMETROS) throw new IOException("Se esperaban los parámetros");
+            String[] argsRender = new String[in.readInt()];
+            for (int i = 0; i < argsRender.length; i++) argsRender[i] = in.readUTF();
+            RenderPorFranjas.Parametros p = RenderPorFranjas.Parametros.leer(argsRender);
+
+            float[] valores = new float[0];
+            while (true) {
+                byte tipo = in.readByte();
+                if (tipo == FIN) break;
+                if (tipo != TESELA) throw new IOException("Mensaje inesperado: " + tipo);
+                int id = in.readInt(), x0 = in.readInt(), y0 = in.readInt(), ancho = in.readInt(), alto = in.readInt();
+                if (valores.length < ancho * alto) valores = new float[ancho * alto];
+                RenderPorFranjas.calcularBloque(p, x0, y0, ancho, alto, valores, renderizador);
+                byte[] datos = comprimir(valores, ancho * alto);
+                out.writeByte(RESULTADO);
+                out.writeInt(id);
+                out.writeInt(datos.length);
+                out.write(datos);
+                out.flush();
+            }
+        } finally {
+            renderizador.cerrar();
+        }
+    }
+}
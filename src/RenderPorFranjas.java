@@ -0,0 +1,379 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Render sin pantalla para imágenes muy grandes (pósters de 32k × 32k o más).
+ *
+ * La imagen se calcula por franjas horizontales que se escriben en cuanto
+ * están listas, a PNG (EscritorPNG, un IDAT por franja) o a un fichero RGB
+ * crudo mapeado en memoria, así que el heap solo guarda una franja sea cual
+ * sea el tamaño. Tras cada franja se actualiza un fichero de progreso
+ * (salida + ".progreso"); con --reanudar se sigue desde la última completa.
+ *
+ * La iteración inversa no se puede calcular por franjas (sus puntos caen en
+ * cualquier fila): se traza primero en un ráster de bits mapeado en disco
+ * (salida + ".bits", 1 bit por píxel) y luego se vuelca por franjas.
+ *
+ * Uso:
+ *   java RenderPorFranjas mandelbrot|julia|inversa --tam ANCHOxALTO --salida imagen.png|imagen.rgb
+ *        [--region xmin,xmax,ymin,ymax] [--iter N] [--c re,im] [--umbral D]
+ *        [--franja FILAS] [--paleta ARCOIRIS|TONO|FUEGO|GRISES] [--nucleo NOMBRE] [--reanudar]
+ * Núcleos: cuadratico (por defecto), multibrotD, burningship, tricorn, newton (sin inversa).
+ * Hilos: -Dfractal.hilos.
+ */
+public final class RenderPorFranjas {
+
+    // Niveles del árbol de preimágenes si no se da --iter
+    private static final int PROFUNDIDAD_INVERSA = 4096;
+
+    enum Modo { MANDELBROT, JULIA, INVERSA }
+
+    /* ---------- Parámetros de línea de órdenes ---------- */
+    static final class Parametros {
+        Modo modo;
+        int ancho, alto;
+        double xmin, xmax, ymin, ymax;
+        int maxIter;
+        double cRe = 0, cIm = 0;
+        double umbral = 1e6;          // corte de derAcu en la iteración inversa
+        int franja = 64;
+        PaletaLUT.Esquema esquema;
+        NucleoFractal nucleo = NucleoFractal.CUADRATICO;
+        Path salida;
+        boolean reanudar, crudo;
+
+        static Parametros leer(String[] args) {
+            if (args.length == 0) throw new IllegalArgumentException("Falta el modo");
+            Parametros p = new Parametros();
+            p.modo = Modo.valueOf(args[0].toUpperCase(Locale.ROOT));
+            // Valores por defecto de cada visor
+            switch (p.modo) {
+                case MANDELBROT: p.region(-2.5, 1.0, -1.25, 1.25); p.maxIter = 1000; p.esquema = PaletaLUT.Esquema.ARCOIRIS; break;
+                case JULIA:      p.region(-2.0, 2.0, -1.5, 1.5);   p.maxIter = 100;  p.esquema = PaletaLUT.Esquema.TONO; break;
+                default:         p.region(-4.0, 4.0, -4.0, 4.0);   p.maxIter = 0;    p.esquema = PaletaLUT.Esquema.GRISES;
+            }
+            for (int i = 1; i < args.length; i++) {
+                String a = args[i];
+                if (a.equals("--reanudar")) { p.reanudar = true; continue; }
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Falta el valor de " + a);
+                String v = args[++i];
+                switch (a) {
+                    case "--tam": {
+                        String[] t = v.toLowerCase(Locale.ROOT).split("x");
+                        p.ancho = Integer.parseInt(t[0]); p.alto = Integer.parseInt(t[1]);
+                        break;
+                    }
+                    case "--region": {
+                        double[] r = numeros(v, 4);
+                        p.region(r[0], r[1], r[2], r[3]);
+                        break;
+                    }
+                    case "--c": { double[] c = numeros(v, 2); p.cRe = c[0]; p.cIm = c[1]; break; }
+                    case "--iter": p.maxIter = Integer.parseInt(v); break;
+                    case "--umbral": p.umbral = Double.parseDouble(v); break;
+                    case "--franja": p.franja = Integer.parseInt(v); break;
+                    case "--paleta": p.esquema = PaletaLUT.Esquema.valueOf(v.toUpperCase(Locale.ROOT)); break;
+                    case "--nucleo": p.nucleo = NucleoFractal.porNombre(v); break;
+                    case "--salida": p.salida = Paths.get(v); break;
+                    default: throw new IllegalArgumentException("Opción desconocida: " + a);
+                }
+            }
+            if (p.ancho <= 0 || p.alto <= 0) throw new IllegalArgumentException("--tam obligatorio (p. ej. 32768x32768)");
+            if (p.salida == null) throw new IllegalArgumentException("--salida obligatorio");
+            if (p.franja <= 0) throw new IllegalArgumentException("--franja debe ser > 0");
+            if (p.modo != Modo.INVERSA && p.maxIter <= 0) throw new IllegalArgumentException("--iter debe ser > 0");
+            if (p.modo == Modo.INVERSA && !p.nucleo.tieneInversa()) {
+                throw new IllegalArgumentException("El núcleo " + p.nucleo.nombre() + " no tiene iteración inversa");
+            }
+            if ((long) p.ancho * p.franja * 3 + p.franja > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Franja demasiado grande para ese ancho");
+            }
+            p.crudo = !p.salida.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".png");
+            return p;
+        }
+
+        private void region(double x0, double x1, double y0, double y1) {
+            xmin = x0; xmax = x1; ymin = y0; ymax = y1;
+        }
+
+        private static double[] numeros(String v, int n) {
+            String[] t = v.split(",");
+            if (t.length != n) throw new IllegalArgumentException("Se esperaban " + n + " números: " + v);
+            double[] r = new double[n];
+            for (int i = 0; i < n; i++) r[i] = Double.parseDouble(t[i].trim());
+            return r;
+        }
+
+        /** Todo lo que determina los píxeles: un progreso solo vale para la misma firma. */
+        String firma() {
+            return String.format(Locale.ROOT, "%s %dx%d [%s,%s,%s,%s] iter=%d c=(%s,%s) umbral=%s franja=%d %s %s %s",
+                    modo, ancho, alto, xmin, xmax, ymin, ymax, maxIter, cRe, cIm, umbral, franja, esquema,
+                    crudo ? "rgb" : "png", nucleo.nombre());
+        }
+
+        int numFranjas() { return (alto + franja - 1) / franja; }
+    }
+
+    /* ---------- Progreso ---------- */
+    private static Path rutaProgreso(Parametros p) { return Paths.get(p.salida + ".progreso"); }
+
+    private static Properties leerProgreso(Parametros p) throws IOException {
+        Path ruta = rutaProgreso(p);
+        if (!Files.exists(ruta)) return null;
+        Properties pr = new Properties();
+        try (InputStream in = Files.newInputStream(ruta)) { pr.load(in); }
+        if (!p.firma().equals(pr.getProperty("firma"))) {
+            throw new IllegalArgumentException("El progreso guardado es de otro render:\n  " + pr.getProperty("firma"));
+        }
+        return pr;
+    }
+
+    /** Escritura atómica: fichero temporal + renombrado, para no dejar nunca un progreso a medias. */
+    private static void guardarProgreso(Parametros p, Properties pr) throws IOException {
+        pr.setProperty("firma", p.firma());
+        Path ruta = rutaProgreso(p), tmp = Paths.get(ruta + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) { pr.store(out, "RenderPorFranjas"); }
+        Files.move(tmp, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /* ---------- Salidas ---------- */
+    interface Salida extends Closeable {
+        /** Escribe las 'filas' primeras filas de argb (ancho × filas). */
+        void franja(int[] argb, int filas, boolean ultima) throws IOException;
+        /** Estado necesario para reanudar tras esta franja. */
+        void anotar(Properties pr);
+    }
+
+    private static final class SalidaPNG implements Salida {
+        private final EscritorPNG png;
+        private final byte[] filas;
+
+        SalidaPNG(Parametros p, Properties progreso) throws IOException {
+            png = progreso == null
+                    ? EscritorPNG.crear(p.salida, p.ancho, p.alto)
+                    : EscritorPNG.reanudar(p.salida, p.ancho, Long.parseLong(progreso.getProperty("posicion")),
+                                           Long.parseLong(progreso.getProperty("adler")));
+            filas = new byte[png.bytesPorFila() * p.franja];
+        }
+
+        @Override public void franja(int[] argb, int n, boolean ultima) throws IOException {
+            int bpf = png.bytesPorFila(), ancho = (bpf - 1) / 3;
+            for (int y = 0; y < n; y++) png.filtrarFila(argb, y * ancho, filas, y * bpf);
+            png.escribirFranja(filas, n * bpf, ultima);
+        }
+
+        @Override public void anotar(Properties pr) {
+            pr.setProperty("posicion", Long.toString(png.getPosicion()));
+            pr.setProperty("adler", Long.toString(png.getAdler()));
+        }
+
+        @Override public void close() throws IOException { png.close(); }
+    }
+
+    /** RGB crudo, 3 bytes por píxel sin cabecera; cada franja se escribe por una ventana mapeada. */
+    private static final class SalidaCruda implements Salida {
+        private final FileChannel canal;
+        private final int ancho;
+        private long posicion;
+
+        SalidaCruda(Parametros p, Properties progreso) throws IOException {
+            canal = FileChannel.open(p.salida, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            ancho = p.ancho;
+            posicion = progreso == null ? 0 : Long.parseLong(progreso.getProperty("posicion"));
+            canal.truncate(posicion);
+        }
+
+        @Override public void franja(int[] argb, int filas, boolean ultima) throws IOException {
+            int bytes = 3 * ancho * filas;
+            MappedByteBuffer m = canal.map(FileChannel.MapMode.READ_WRITE, posicion, bytes);
+            for (int i = 0, n = ancho * filas; i < n; i++) {
+                int c = argb[i];
+                m.put((byte) (c >> 16)).put((byte) (c >> 8)).put((byte) c);
+            }
+            m.force();
+            posicion += bytes;
+        }
+
+        @Override public void anotar(Properties pr) { pr.setProperty("posicion", Long.toString(posicion)); }
+
+        @Override public void close() throws IOException { canal.close(); }
+    }
+
+    /** PNG o RGB crudo según la extensión de p.salida; desde = progreso de una salida a medias (o null). */
+    static Salida abrirSalida(Parametros p, Properties desde) throws IOException {
+        return p.crudo ? new SalidaCruda(p, desde) : new SalidaPNG(p, desde);
+    }
+
+    /* ---------- Ráster de bits en disco (iteración inversa) ---------- */
+    private static final class RasterBits implements Closeable {
+        private static final int BITS_VENTANA = 30; // ventanas de 1 GiB
+        // Palabras de 32 bits sobre el mapeo: el motor marca desde varios hilos con OR atómico
+        private static final VarHandle PALABRA =
+                MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+        private final FileChannel canal;
+        private final MappedByteBuffer[] ventanas;
+        private final int ancho;
+
+        RasterBits(Path ruta, int ancho, int alto, boolean conservar) throws IOException {
+            this.ancho = ancho;
+            long bytes = (((long) ancho * alto + 31) >>> 5) << 2;
+            if (!conservar) Files.deleteIfExists(ruta);
+            canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int n = (int) ((bytes + (1L << BITS_VENTANA) - 1) >>> BITS_VENTANA);
+            ventanas = new MappedByteBuffer[n];
+            for (int k = 0; k < n; k++) {
+                long desde = (long) k << BITS_VENTANA;
+                ventanas[k] = canal.map(FileChannel.MapMode.READ_WRITE, desde, Math.min(1L << BITS_VENTANA, bytes - desde));
+            }
+        }
+
+        void marcar(int px, int py) {
+            long bit = (long) py * ancho + px, b = (bit >>> 5) << 2;
+            int m = 1 << (bit & 31);
+            MappedByteBuffer v = ventanas[(int) (b >>> BITS_VENTANA)];
+            int i = (int) (b & ((1L << BITS_VENTANA) - 1));
+            if (((int) PALABRA.get(v, i) & m) == 0) PALABRA.getAndBitwiseOr(v, i, m);
+        }
+
+        boolean marcado(int px, int py) {
+            long bit = (long) py * ancho + px, b = (bit >>> 5) << 2;
+            int i = (int) (b & ((1L << BITS_VENTANA) - 1));
+            return ((int) PALABRA.get(ventanas[(int) (b >>> BITS_VENTANA)], i) & (1 << (bit & 31))) != 0;
+        }
+
+        void forzar() { for (MappedByteBuffer v : ventanas) v.force(); }
+
+        @Override public void close() throws IOException { canal.close(); }
+    }
+
+    /* ---------- Render ---------- */
+    public static void main(String[] args) throws IOException {
+        Parametros p;
+        try {
+            p = Parametros.leer(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Uso: java RenderPorFranjas mandelbrot|julia|inversa --tam ANCHOxALTO --salida imagen.png|imagen.rgb\n"
+                    + "       [--region xmin,xmax,ymin,ymax] [--iter N] [--c re,im] [--umbral D]\n"
+                    + "       [--franja FILAS] [--paleta ARCOIRIS|TONO|FUEGO|GRISES] [--nucleo NOMBRE] [--reanudar]");
+            System.exit(2);
+            return;
+        }
+        renderizar(p);
+    }
+
+    static void renderizar(Parametros p) throws IOException {
+        Properties progreso = p.reanudar ? leerProgreso(p) : null;
+        if (!p.reanudar) Files.deleteIfExists(rutaProgreso(p));
+        int hechas = progreso == null ? 0 : Integer.parseInt(progreso.getProperty("franjas", "0"));
+        final int w = p.ancho, total = p.numFranjas();
+
+        RenderizadorParalelo renderizador = new RenderizadorParalelo(RenderizadorParalelo.hilosPorDefecto());
+        RasterBits bits = null;
+        if (p.modo == Modo.INVERSA) {
+            boolean completo = progreso != null && "completo".equals(progreso.getProperty("raster"));
+            bits = new RasterBits(Paths.get(p.salida + ".bits"), w, p.alto, completo);
+            if (!completo) {
+                trazarInversa(p, bits, renderizador);
+                bits.forzar();
+                hechas = 0;
+                progreso = new Properties();
+                progreso.setProperty("raster", "completo");
+                progreso.setProperty("franjas", "0");
+                guardarProgreso(p, progreso);
+            }
+        }
+        Properties desde = hechas > 0 ? progreso : null; // sin franjas hechas la salida empieza de cero
+
+        PaletaLUT paleta = new PaletaLUT(p.esquema, 1.0);
+        float[] valores = new float[w * p.franja];
+        int[] argb = new int[w * p.franja];
+        long t0 = System.nanoTime(), ultimoAviso = t0;
+        try (Salida salida = abrirSalida(p, desde)) {
+            for (int f = hechas; f < total; f++) {
+                final int y0 = f * p.franja, filas = Math.min(p.franja, p.alto - y0);
+                if (bits != null) {
+                    final RasterBits b = bits;
+                    renderizador.recorrer(w, filas, (px, py, i) ->
+                            argb[i] = b.marcado(px, y0 + py) ? PaletaLUT.NEGRO : 0xFFFFFFFF, () -> false);
+                } else {
+                    calcularFranja(p, y0, filas, valores, renderizador);
+                    paleta.colorear(valores, argb, w, filas, p.maxIter, renderizador, () -> false);
+                }
+                salida.franja(argb, filas, f == total - 1);
+
+                Properties pr = new Properties();
+                if (bits != null) pr.setProperty("raster", "completo");
+                pr.setProperty("franjas", Integer.toString(f + 1));
+                salida.anotar(pr);
+                guardarProgreso(p, pr);
+
+                long ahora = System.nanoTime();
+                if (ahora - ultimoAviso > 2_000_000_000L || f == total - 1) {
+                    ultimoAviso = ahora;
+                    System.err.printf(Locale.ROOT, "franja %d/%d (%.1f%%) · %.1f s%n",
+                            f + 1, total, 100.0 * (f + 1) / total, (ahora - t0) / 1e9);
+                }
+            }
+        } finally {
+            renderizador.cerrar();
+            if (bits != null) bits.close();
+        }
+        // Terminado: fuera el progreso y el ráster intermedio
+        Files.deleteIfExists(rutaProgreso(p));
+        if (bits != null) Files.deleteIfExists(Paths.get(p.salida + ".bits"));
+    }
+
+    /** Valores de iteración de las filas [y0, y0 + filas) con la misma dinámica que los visores. */
+    private static void calcularFranja(Parametros p, int y0, int filas, float[] valores,
+                                       RenderizadorParalelo renderizador) {
+        calcularBloque(p, 0, y0, p.ancho, filas, valores, renderizador);
+    }
+
+    /** Valores del bloque ancho × alto de la imagen con esquina en (bx, by); valores[py*ancho + px]. */
+    static void calcularBloque(Parametros p, int bx, int by, int ancho, int alto, float[] valores,
+                               RenderizadorParalelo renderizador) {
+        final int w = p.ancho, h = p.alto, maxIter = p.maxIter;
+        final double x0 = p.xmin, spanX = p.xmax - p.xmin, yMax = p.ymax, spanY = p.ymax - p.ymin;
+        final NucleoFractal f = p.nucleo;
+        if (p.modo == Modo.MANDELBROT) {
+            renderizador.renderizarValores(valores, ancho, alto, (px, py) -> (float) f.parametro(
+                    x0 + spanX * (bx + px + 0.5) / w, yMax - spanY * (by + py + 0.5) / h, maxIter, 4.0, true),
+                    () -> false);
+        } else {
+            final double cRe = p.cRe, cIm = p.cIm;
+            renderizador.renderizarValores(valores, ancho, alto, (px, py) -> f.dinamico(
+                    x0 + spanX * (bx + px + 0.5) / w, yMax - spanY * (by + py + 0.5) / h, cRe, cIm, maxIter, 25.0, true),
+                    () -> false);
+        }
+    }
+
+    /** Recorrido de preimágenes de IteracionInversa sobre el ráster de bits (mismo mapeo a píxel). */
+    private static void trazarInversa(Parametros p, RasterBits bits, RenderizadorParalelo renderizador) {
+        final int w = p.ancho, h = p.alto;
+        final double sx = (w - 1) / (p.xmax - p.xmin), sy = (h - 1) / (p.ymax - p.ymin);
+        final int profundidad = p.maxIter > 0 ? p.maxIter : PROFUNDIDAD_INVERSA;
+        MotorIteracionInversa motor =
+                new MotorIteracionInversa(renderizador, p.nucleo, profundidad, p.umbral, Long.MAX_VALUE);
+        motor.recorrer(p.cRe, p.cIm, (x, y) -> {
+            int px = (int) Math.round((x - p.xmin) * sx);
+            int py = (int) Math.round((p.ymax - y) * sy);
+            if (0 <= px && px < w && 0 <= py && py < h) bits.marcar(px, py);
+        });
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+
+/**
+ * Renderizador por teselas sobre un ForkJoinPool (robo de trabajo).
+ * Escribe directamente en el array del raster (DataBufferInt) sin
+ * reservar memoria por píxel.
+ */
+public final class RenderizadorParalelo {
+
+    /** Valor ARGB de un píxel a partir de sus coordenadas de pantalla. */
+    @FunctionalInterface
+    public interface FuncionPixel {
+        int valor(int px, int py);
+    }
+
+    /** Valor real de un píxel (p. ej. nº de iteraciones continuo; NaN = interior). */
+    @FunctionalInterface
+    public interface FuncionValor {
+        float valor(int px, int py);
+    }
+
+    /** Trabajo sobre un píxel; indice = py*ancho + px. */
+    @FunctionalInterface
+    public interface AccionPixel {
+        void ejecutar(int px, int py, int indice);
+    }
+
+    /** Trabajo sobre el tramo [x0, x1) de la fila py de una tesela; indice = py*ancho + x0. */
+    @FunctionalInterface
+    public interface AccionFila {
+        void ejecutar(int py, int x0, int x1, int indice);
+    }
+
+    // Lado de la tesela en píxeles: suficiente para amortizar el reparto
+    public static final int LADO_TESELA = 32;
+
+    private final ForkJoinPool pool;
+
+    public RenderizadorParalelo(int hilos) {
+        if (hilos < 1) throw new IllegalArgumentException("hilos debe ser >= 1: " + hilos);
+        this.pool = new ForkJoinPool(hilos);
+    }
+
+    /** Nº de hilos por defecto: propiedad -Dfractal.hilos o todos los núcleos. */
+    public static int hilosPorDefecto() {
+        int n = Integer.getInteger("fractal.hilos", Runtime.getRuntime().availableProcessors());
+        return Math.max(1, n);
+    }
+
+    public int getHilos() { return pool.getParallelism(); }
+
+    public void cerrar() { pool.shutdown(); }
+
+    /** Ejecuta en el pool de este renderizador una tarea fork-join ajena (otros recorridos). */
+    <T> T invocar(ForkJoinTask<T> tarea) { return pool.invoke(tarea); }
+
+    private static final BooleanSupplier NUNCA = () -> false;
+
+    /** Rellena destino[py*ancho + px] = f(px, py) para toda la imagen. */
+    public void renderizar(int[] destino, int ancho, int alto, FuncionPixel f) {
+        renderizar(destino, ancho, alto, f, NUNCA);
+    }
+
+    /**
+     * Igual que el anterior, pero abandona el trabajo en cuanto cancelado()
+     * devuelve true (se consulta por fila). Devuelve false si se canceló.
+     */
+    public boolean renderizar(int[] destino, int ancho, int alto, FuncionPixel f, BooleanSupplier cancelado) {
+        return recorrer(ancho, alto, (px, py, i) -> destino[i] = f.valor(px, py), cancelado);
+    }
+
+    /** Rellena destino[py*ancho + px] = f(px, py) con valores reales. false si se canceló. */
+    public boolean renderizarValores(float[] destino, int ancho, int alto, FuncionValor f, BooleanSupplier cancelado) {
+        return recorrer(ancho, alto, (px, py, i) -> destino[i] = f.valor(px, py), cancelado);
+    }
+
+    /** Aplica la acción a cada píxel de la imagen, por teselas en paralelo. false si se canceló. */
+    public boolean recorrer(int ancho, int alto, AccionPixel accion, BooleanSupplier cancelado) {
+        return recorrer(ancho, alto, accion, cancelado, null);
+    }
+
+    /** Como recorrer, sumando además el tiempo de cada tesela (ver recorrerFilas). */
+    public boolean recorrer(int ancho, int alto, AccionPixel accion, BooleanSupplier cancelado, long[] nanosTesela) {
+        return recorrerFilas(ancho, alto, (py, x0, x1, i) -> {
+            for (int x = x0; x < x1; x++) accion.ejecutar(x, py, i++);
+        }, cancelado, nanosTesela);
+    }
+
+    /**
+     * Como recorrer, pero entrega cada fila de tesela entera (para núcleos
+     * que procesan varios píxeles a la vez). false si se canceló.
+     */
+    public boolean recorrerFilas(int ancho, int alto, AccionFila accion, BooleanSupplier cancelado) {
+        return recorrerFilas(ancho, alto, accion, cancelado, null);
+    }
+
+    /**
+     * Como recorrerFilas; si nanosTesela no es null (teselasX·teselasY
+     * elementos, por filas de teselas) suma en nanosTesela[t] el tiempo de
+     * pared de la tesela t. Cada tesela la escribe un único hilo.
+     */
+    public boolean recorrerFilas(int ancho, int alto, AccionFila accion, BooleanSupplier cancelado,
+                                 long[] nanosTesela) {
+        if (ancho <= 0 || alto <= 0) return true;
+        int tx = teselasX(ancho), ty = teselasY(alto);
+        pool.invoke(new Teselas(ancho, alto, tx, accion, cancelado, nanosTesela, 0, tx * ty));
+        return !cancelado.getAsBoolean();
+    }
+
+    /** Nº de columnas de teselas de una imagen de este ancho. */
+    public static int teselasX(int ancho) { return (ancho + LADO_TESELA - 1) / LADO_TESELA; }
+
+    /** Nº de filas de teselas de una imagen de este alto. */
+    public static int teselasY(int alto) { return (alto + LADO_TESELA - 1) / LADO_TESELA; }
+
+    /**
+     * Ejecuta tarea(i) para cada i en [0, n), un índice por tarea robable
+     * (pensado para trabajos gruesos: teselas, fotogramas...). false si se canceló.
+     */
+    public boolean paraCada(int n, IntConsumer tarea, BooleanSupplier cancelado) {
+        if (n > 0) pool.invoke(new Indices(tarea, cancelado, 0, n));
+        return !cancelado.getAsBoolean();
+    }
+
+    private static final class Indices extends RecursiveAction {
+        private final IntConsumer tarea;
+        private final BooleanSupplier cancelado;
+        private final int desde, hasta;
+
+        Indices(IntConsumer tarea, BooleanSupplier cancelado, int desde, int hasta) {
+            this.tarea = tarea; this.cancelado = cancelado; this.desde = desde; this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde > 1) {
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(new Indices(tarea, cancelado, desde, medio), new Indices(tarea, cancelado, medio, hasta));
+            } else if (!cancelado.getAsBoolean()) {
+                tarea.accept(desde);
+            }
+        }
+    }
+
+    /* ---------- Reparto recursivo de un rango de teselas ---------- */
+    private static final class Teselas extends RecursiveAction {
+        private final int ancho, alto, teselasX;
+        private final AccionFila accion;
+        private final BooleanSupplier cancelado;
+        private final long[] nanos; // null: sin medir
+        private final int desde, hasta;
+
+        Teselas(int ancho, int alto, int teselasX, AccionFila accion,
+                BooleanSupplier cancelado, long[] nanos, int desde, int hasta) {
+            this.ancho = ancho; this.alto = alto; this.teselasX = teselasX;
+            this.accion = accion; this.cancelado = cancelado; this.nanos = nanos;
+            this.desde = desde; this.hasta = hasta;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde > 1) {
+                int medio = (desde + hasta) >>> 1;
+                invokeAll(new Teselas(ancho, alto, teselasX, accion, cancelado, nanos, desde, medio),
+                          new Teselas(ancho, alto, teselasX, accion, cancelado, nanos, medio, hasta));
+                return;
+            }
+            long t0 = nanos != null ? System.nanoTime() : 0L;
+            int x0 = (desde % teselasX) * LADO_TESELA, y0 = (desde / teselasX) * LADO_TESELA;
+            int x1 = Math.min(ancho, x0 + LADO_TESELA), y1 = Math.min(alto, y0 + LADO_TESELA);
+            for (int y = y0; y < y1; y++) {
+                if (cancelado.getAsBoolean()) break;
+                accion.ejecutar(y, x0, x1, y * ancho + x0);
+            }
+            if (nanos != null) nanos[desde] += System.nanoTime() - t0;
+        }
+    }
+}
@@ -0,0 +1,716 @@
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Servidor HTTP de teselas PNG para un visor de mapa en el navegador:
+ * GET /{mandelbrot|julia}/{z}/{x}/{y}.png[?iter=N&c=re,im&nucleo=NOMBRE&paleta=ESQUEMA].
+ *
+ * Las teselas son las del quadtree de CacheTeselas (z = nivel, x = tx,
+ * y = ty desde arriba) y se guardan en la misma caché; con el mismo
+ * almacén en disco que AlgoritmoEscape (-Dfractal.almacen), una tesela
+ * calculada por el visor se sirve sin iterar, y al revés. Por debajo del double se calculan con
+ * perturbación (Mandelbrot z^2 + c) o en doble-double (PrecisionEscape).
+ *
+ * HTTP/1.1 mínimo sobre sockets, con un hilo virtual por conexión (y por
+ * petición: las conexiones persistentes las atienden de una en una). El
+ * cálculo va al pool acotado de un RenderizadorParalelo (--hilos), con a
+ * lo sumo --cupos teselas distintas admitidas a la vez; más, 503 con
+ * Retry-After. Varias peticiones de la misma tesela esperan el mismo
+ * cálculo. Mientras espera, cada petición vigila su conexión; si el
+ * cliente cierra y nadie más espera esa tesela, el cálculo se cancela (se
+ * consulta por fila). No se usa com.sun.net.httpserver porque no deja ver
+ * el cierre de la conexión hasta que se intenta responder.
+ *
+ * La respuesta depende solo de la URL, así que el ETag es un resumen de la
+ * petición normalizada (más VERSION_TESELAS) y un If-None-Match que
+ * coincide se contesta con 304 sin calcular nada.
+ *
+ * Uso:
+ *   java ServidorTeselas servidor [--puerto P] [--escuchar DIRECCION] [--hilos N] [--cupos N]
+ *   java ServidorTeselas carga [--url http://127.0.0.1:8080] [--ruta mandelbrot] [--consulta iter=500]
+ *        [--zoom Z] [--concurrencia N] [--peticiones N] [--revalidar] [--abandonar FRACCION] [--plazo MS]
+ */
+public final class ServidorTeselas {
+
+    private static final int LADO = CacheTeselas.LADO;
+    private static final int Z_MAXIMO = 48;
+    // Entra en el ETag: subirla si cambia el cálculo o la coloración
+    private static final int VERSION_TESELAS = 1;
+    private static final int MAX_LINEA = 8192, MAX_CABECERAS = 64;
+    private static final int INACTIVIDAD_MS = 30_000, ESPERA_CLIENTE_MS = 100;
+    private static final String CACHE_CONTROL = "public, max-age=86400";
+    // PNG ya codificados (-Dfractal.pngMB, 32 MB si no se indica): colorear y comprimir cuesta más que servir
+    private static final long MAX_BYTES_PNG = Long.getLong("fractal.pngMB", 32L) * 1024 * 1024;
+
+    private final CacheTeselas cache;
+    private final RenderizadorParalelo renderizador;
+    private final Semaphore cupos;
+    private final Map<String, Trabajo> enCurso = new HashMap<>(); // guardado por sí mismo
+    private final LinkedHashMap<String, byte[]> pngs = new LinkedHashMap<>(64, 0.75f, true); // guardado por sí mismo
+    private long bytesPng; // guardado por pngs
+    private final Map<PaletaLUT.Esquema, PaletaLUT> paletas = new EnumMap<>(PaletaLUT.Esquema.class);
+    private final LongAdder peticiones = new LongAdder(), aciertos = new LongAdder(), calculos = new LongAdder(),
+            unidas = new LongAdder(), canceladas = new LongAdder(), noModificadas = new LongAdder(),
+            rechazadas = new LongAdder(), conexiones = new LongAdder();
+    private final AtomicLong nanosCalculo = new AtomicLong();
+
+    public ServidorTeselas(CacheTeselas cache, int hilos, int cupos) {
+        this.cache = cache;
+        this.renderizador = new RenderizadorParalelo(hilos);
+        this.cupos = new Semaphore(cupos);
+        for (PaletaLUT.Esquema e : PaletaLUT.Esquema.values()) paletas.put(e, new PaletaLUT(e, 1.0));
+    }
+
+    public static void main(String[] args) throws Exception {
+        String uso = "Uso: java ServidorTeselas servidor [--puerto P] [--escuchar DIRECCION] [--hilos N] [--cupos N]\n"
+                + "   o: java ServidorTeselas carga [--url URL] [--ruta mandelbrot|julia] [--consulta PARAMETROS]\n"
+                + "        [--zoom Z] [--concurrencia N] [--peticiones N] [--revalidar] [--abandonar FRACCION] [--plazo MS]";
+        try {
+            if (args.length > 0 && args[0].equals("servidor")) { servir(Arrays.copyOfRange(args, 1, args.length)); return; }
+            if (args.length > 0 && args[0].equals("carga")) { Carga.ejecutar(Arrays.copyOfRange(args, 1, args.length)); return; }
+            throw new IllegalArgumentException("Falta el papel: servidor o carga");
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(uso);
+            System.exit(2);
+        }
+    }
+
+    private static void servir(String[] args) throws IOException {
+        int puerto = 8080, hilos = RenderizadorParalelo.hilosPorDefecto(), cupos = -1;
+        String escuchar = "127.0.0.1";
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 >= args.length) throw new IllegalArgumentException("Falta el valor de " + args[i]);
+            String v = args[i + 1];
+            switch (args[i]) {
+                case "--puerto": puerto = Integer.parseInt(v); break;
+                case "--escuchar": escuchar = v; break;
+                case "--hilos": hilos = Integer.parseInt(v); break;
+                case "--cupos": cupos = Integer.parseInt(v); break;
+                default: throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+            }
+        }
+        if (System.getProperty("java.awt.headless") == null) System.setProperty("java.awt.headless", "true");
+        ServidorTeselas s = new ServidorTeselas(CacheTeselas.porDefecto(), hilos, cupos > 0 ? cupos : 16 * hilos);
+        s.escuchar(new ServerSocket(puerto, 512, InetAddress.getByName(escuchar)));
+    }
+
+    /** Acepta conexiones hasta que se cierre el socket; cada una en su hilo virtual. */
+    public void escuchar(ServerSocket servidor) throws IOException {
+        InetSocketAddress dir = (InetSocketAddress) servidor.getLocalSocketAddress();
+        System.out.printf("Teselas en http://%s:%d/ · %d hilos de cálculo · %d cupos%n",
+                dir.getHostString(), dir.getPort(), renderizador.getHilos(), cupos.availablePermits());
+        AtomicInteger n = new AtomicInteger();
+        while (!servidor.isClosed()) {
+            Socket s = servidor.accept();
+            Thread.ofVirtual().name("http-" + n.incrementAndGet()).start(() -> atender(s));
+        }
+    }
+
+    /* ---------- Petición de tesela ---------- */
+
+    /** Petición normalizada: misma clave = misma imagen. */
+    static final class Peticion {
+        final boolean julia;
+        final NucleoFractal nucleo;
+        final int z, iter;
+        final long x, y;
+        final double cRe, cIm;
+        final PaletaLUT.Esquema esquema;
+        final String clave;
+
+        Peticion(boolean julia, NucleoFractal nucleo, int z, long x, long y, int iter, double cRe, double cIm,
+                 PaletaLUT.Esquema esquema) {
+            this.julia = julia; this.nucleo = nucleo; this.z = z; this.x = x; this.y = y; this.iter = iter;
+            this.cRe = cRe; this.cIm = cIm; this.esquema = esquema;
+            this.clave = claveValores() + "/" + z + "/" + x + "/" + y + "@" + iter + "/" + esquema;
+        }
+
+        /** Nombre en CacheTeselas: el del núcleo en Mandelbrot (el del visor); con c en Julia. */
+        String claveValores() {
+            return julia ? "julia-" + nucleo.nombre() + "_" + cRe + "_" + cIm : nucleo.nombre();
+        }
+
+        CacheTeselas.Clave claveCache() { return new CacheTeselas.Clave(claveValores(), z, x, y, iter); }
+
+        String etag() {
+            try {
+                byte[] h = MessageDigest.getInstance("SHA-256")
+                        .digest((VERSION_TESELAS + ":" + clave).getBytes(StandardCharsets.UTF_8));
+                StringBuilder sb = new StringBuilder("\"");
+                for (int i = 0; i < 12; i++) sb.append(String.format("%02x", h[i]));
+                return sb.append('"').toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e); // SHA-256 está en toda JVM
+            }
+        }
+
+        /** De la ruta /{fractal}/{z}/{x}/{y}.png y su consulta; IllegalArgumentException si no es válida. */
+        static Peticion leer(String ruta, Map<String, String> consulta) {
+            String[] p = ruta.split("/");
+            if (p.length != 5 || !p[4].endsWith(".png")) throw new IllegalArgumentException("Ruta: /{fractal}/{z}/{x}/{y}.png");
+            boolean julia;
+            if (p[1].equals("mandelbrot")) julia = false;
+            else if (p[1].equals("julia")) julia = true;
+            else throw new IllegalArgumentException("Fractal desconocido: " + p[1]);
+            int z = Integer.parseInt(p[2]);
+            long x = Long.parseLong(p[3]), y = Long.parseLong(p[4].substring(0, p[4].length() - 4));
+            if (z < 0 || z > Z_MAXIMO) throw new IllegalArgumentException("z fuera de [0, " + Z_MAXIMO + "]");
+            if (x < 0 || y < 0 || x >= 1L << z || y >= 1L << z) throw new IllegalArgumentException("Tesela fuera del nivel " + z);
+            int iter = Integer.parseInt(consulta.getOrDefault("iter", julia ? "100" : "1000"));
+            if (iter < 1 || iter > AlgoritmoEscape.MAX_ITERACIONES) throw new IllegalArgumentException("iter fuera de rango");
+            double cRe = 0, cIm = 0;
+            if (julia && consulta.containsKey("c")) {
+                String[] c = consulta.get("c").split(",");
+                if (c.length != 2) throw new IllegalArgumentException("c=re,im");
+                cRe = Double.parseDouble(c[0]); cIm = Double.parseDouble(c[1]);
+            }
+            NucleoFractal nucleo = NucleoFractal.porNombre(consulta.getOrDefault("nucleo", "cuadratico"));
+            PaletaLUT.Esquema esquema = consulta.containsKey("paleta")
+                    ? PaletaLUT.Esquema.valueOf(consulta.get("paleta").toUpperCase(Locale.ROOT))
+                    : julia ? PaletaLUT.Esquema.TONO : PaletaLUT.Esquema.ARCOIRIS;
+            return new Peticion(julia, nucleo, z, x, y, iter, cRe, cIm, esquema);
+        }
+    }
+
+    /** Cálculo en curso de una tesela, compartido por todas las peticiones que la esperan. */
+    private static final class Trabajo {
+        final CompletableFuture<byte[]> png = new CompletableFuture<>();
+        int interesados;            // guardado por enCurso
+        volatile boolean cancelado;
+    }
+
+    /**
+     * PNG de la tesela: de la caché, de un cálculo en curso o de uno nuevo.
+     * null si el cliente se fue. Si hay que esperar, deja al vigilante en
+     * marcha; quien llama lo para con terminar() tras responder.
+     */
+    private byte[] tesela(Peticion p, Vigilante vigilante) throws InterruptedException, ExecutionException {
+        byte[] png;
+        synchronized (pngs) { png = pngs.get(p.clave); }
+        if (png != null) {
+            aciertos.increment();
+            return png;
+        }
+        float[] valores = cache.obtener(p.claveCache());
+        if (valores != null) {
+            aciertos.increment();
+            return codificar(valores, p);
+        }
+        Trabajo t;
+        boolean nuevo;
+        synchronized (enCurso) {
+            t = enCurso.get(p.clave);
+            nuevo = t == null;
+            if (nuevo) enCurso.put(p.clave, t = new Trabajo());
+            t.interesados++;
+        }
+        if (!nuevo) unidas.increment();
+        else if (!cupos.tryAcquire()) {
+            synchronized (enCurso) { enCurso.remove(p.clave, t); }
+            rechazadas.increment();
+            t.png.completeExceptionally(new Saturado());
+        } else {
+            final Trabajo trabajo = t;
+            Thread.ofVirtual().name("calculo-" + p.clave).start(() -> calcularTrabajo(p, trabajo));
+        }
+        vigilante.iniciar();
+        CompletableFuture.anyOf(t.png, vigilante.cerrada).get();
+        if (t.png.isDone()) return t.png.get();
+        synchronized (enCurso) {
+            if (--t.interesados == 0 && !t.png.isDone()) {
+                t.cancelado = true;
+                enCurso.remove(p.clave, t);
+            }
+        }
+        return null;
+    }
+
+    private void calcularTrabajo(Peticion p, Trabajo t) {
+        long t0 = System.nanoTime();
+        try {
+            float[] valores = calcular(p, () -> t.cancelado);
+            if (valores == null) {
+                canceladas.increment();
+                t.png.completeExceptionally(new CancellationException());
+                return;
+            }
+            calculos.increment();
+            nanosCalculo.addAndGet(System.nanoTime() - t0);
+            cache.guardar(p.claveCache(), valores);
+            t.png.complete(codificar(valores, p));
+        } catch (Throwable e) {
+            t.png.completeExceptionally(e);
+        } finally {
+            synchronized (enCurso) { enCurso.remove(p.clave, t); }
+            cupos.release();
+        }
+    }
+
+    /**
+     * Valores de la tesela, con la misma dinámica que el camino de caché de
+     * los visores (r² = 4 en Mandelbrot, 25 en Julia, con ciclos) y el mismo
+     * mapeo de píxel; por debajo del double, centro exacto más
+     * desplazamiento. null si se cancela.
+     */
+    private float[] calcular(Peticion p, BooleanSupplier cancelado) {
+        final float[] v = new float[LADO * LADO];
+        final double lado = CacheTeselas.ladoMundo(p.z), ps = lado / LADO;
+        final double raiz = CacheTeselas.RAIZ_MIN, techo = CacheTeselas.RAIZ_MIN + CacheTeselas.RAIZ_LADO;
+        final long tx = p.x, ty = p.y;
+        final int maxIter = p.iter;
+        final NucleoFractal f = p.nucleo;
+        final double cRe = p.cRe, cIm = p.cIm;
+        BigDecimal cx = new BigDecimal(raiz).add(new BigDecimal(lado).multiply(BigDecimal.valueOf(2 * tx + 1))
+                .divide(BigDecimal.valueOf(2)));
+        BigDecimal cy = new BigDecimal(techo).subtract(new BigDecimal(lado).multiply(BigDecimal.valueOf(2 * ty + 1))
+                .divide(BigDecimal.valueOf(2)));
+        double escala = Math.max(Math.abs(cx.doubleValue()), Math.abs(cy.doubleValue())) + lado;
+        // El float del visor no se usa: la tesela se comparte con su caché, que va en double
+        PrecisionEscape.Nivel nivel = PrecisionEscape.para(ps, escala, f);
+        boolean completo;
+        if (nivel != PrecisionEscape.Nivel.DOBLE_DOBLE) {
+            completo = renderizador.renderizarValores(v, LADO, LADO, (px, py) -> {
+                double x = raiz + ps * (tx * LADO + px + 0.5), y = techo - ps * (ty * LADO + py + 0.5);
+                return p.julia ? f.dinamico(x, y, cRe, cIm, maxIter, 25.0, true)
+                               : (float) f.parametro(x, y, maxIter, 4.0, true);
+            }, cancelado);
+        } else if (!p.julia && f == NucleoFractal.CUADRATICO) {
+            completo = new PerturbacionProfunda(renderizador).renderizar(v, LADO, LADO, cx, cy, lado, lado, maxIter, 2.0,
+                    (n, zx, zy) -> (float) NucleoFractal.valorSuave(n, zx, zy, maxIter, 2), cancelado);
+        } else {
+            final double[] hx = PrecisionEscape.partir(cx), hy = PrecisionEscape.partir(cy);
+            completo = renderizador.renderizarValores(v, LADO, LADO, (px, py) -> {
+                double dx = ps * (px + 0.5 - LADO / 2.0), dy = -ps * (py + 0.5 - LADO / 2.0);
+                return p.julia
+                        ? PrecisionEscape.dinamico(f, hx[0], hx[1], dx, hy[0], hy[1], dy, cRe, cIm, maxIter, 25.0, true)
+                        : PrecisionEscape.parametro(f, hx[0], hx[1], dx, hy[0], hy[1], dy, maxIter, 4.0, true);
+            }, cancelado);
+        }
+        return completo ? v : null;
+    }
+
+    /** Colorea y comprime la tesela, y guarda el PNG en la caché de PNG. */
+    private byte[] codificar(float[] valores, Peticion p) {
+        BufferedImage img = new BufferedImage(LADO, LADO, BufferedImage.TYPE_INT_RGB);
+        int[] argb = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+        PaletaLUT paleta = paletas.get(p.esquema);
+        for (int i = 0; i < argb.length; i++) argb[i] = paleta.color(valores[i], p.iter);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+        try {
+            ImageIO.write(img, "png", out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // en memoria no falla
+        }
+        byte[] png = out.toByteArray();
+        synchronized (pngs) {
+            byte[] antes = pngs.put(p.clave, png);
+            bytesPng += png.length - (antes == null ? 0 : antes.length);
+            for (Iterator<byte[]> it = pngs.values().iterator(); bytesPng > MAX_BYTES_PNG && it.hasNext(); ) {
+                byte[] viejo = it.next();
+                if (viejo == png) continue;
+                it.remove(); // el menos usado recientemente
+                bytesPng -= viejo.length;
+            }
+        }
+        return png;
+    }
+
+    /** Cupos agotados: 503 con Retry-After. */
+    private static final class Saturado extends Exception {
+        Saturado() { super(null, null, false, false); }
+    }
+
+    /* ---------- HTTP ---------- */
+
+    private void atender(Socket s) {
+        conexiones.increment();
+        try (s) {
+            s.setTcpNoDelay(true);
+            BufferedInputStream in = new BufferedInputStream(s.getInputStream());
+            OutputStream out = new BufferedOutputStream(s.getOutputStream());
+            while (true) {
+                s.setSoTimeout(INACTIVIDAD_MS);
+                String linea = leerLinea(in);
+                if (linea == null) return;
+                if (linea.isEmpty()) continue; // CRLF de sobra entre peticiones
+                String[] partes = linea.split(" ");
+                Map<String, String> cabeceras = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                for (int k = 0; ; k++) {
+                    String c = leerLinea(in);
+                    if (c == null) return;
+                    if (c.isEmpty()) break;
+                    if (k >= MAX_CABECERAS) { responder(out, 431, "Request Header Fields Too Large", texto("Demasiadas cabeceras"), false, false); return; }
+                    int dp = c.indexOf(':');
+                    if (dp > 0) cabeceras.merge(c.substring(0, dp).trim(), c.substring(dp + 1).trim(), (a, b) -> a + ", " + b);
+                }
+                if (partes.length != 3 || !partes[2].startsWith("HTTP/1.")) {
+                    responder(out, 400, "Bad Request", texto("Petición mal formada"), false, false);
+                    return;
+                }
+                String conexion = cabeceras.getOrDefault("Connection", "").toLowerCase(Locale.ROOT);
+                boolean seguir = partes[2].equals("HTTP/1.1") ? !conexion.contains("close") : conexion.contains("keep-alive");
+                if (cabeceras.containsKey("Content-Length") || cabeceras.containsKey("Transfer-Encoding")) {
+                    responder(out, 400, "Bad Request", texto("Solo GET y HEAD, sin cuerpo"), false, false);
+                    return;
+                }
+                if (!despachar(partes[0], partes[1], cabeceras, s, in, out, seguir)) return;
+                if (!seguir) return;
+            }
+        } catch (IOException e) {
+            // conexión cortada o inactiva: nada que contestar
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Contesta una petición; false si el cliente se fue antes de la respuesta. */
+    private boolean despachar(String metodo, String objetivo, Map<String, String> cabeceras, Socket s,
+                              BufferedInputStream in, OutputStream out, boolean seguir)
+            throws IOException, InterruptedException {
+        boolean head = metodo.equals("HEAD");
+        if (!head && !metodo.equals("GET")) {
+            responder(out, 405, "Method Not Allowed", texto("Solo GET y HEAD"), false, seguir, "Allow", "GET, HEAD");
+            return true;
+        }
+        int q = objetivo.indexOf('?');
+        String ruta = q < 0 ? objetivo : objetivo.substring(0, q);
+        if (ruta.equals("/")) { responder(out, 200, "OK", html(PAGINA), head, seguir); return true; }
+        if (ruta.equals("/estado")) { responder(out, 200, "OK", texto(estado()), head, seguir, "Cache-Control", "no-store"); return true; }
+        peticiones.increment();
+        Peticion p;
+        try {
+            p = Peticion.leer(ruta, consulta(q < 0 ? "" : objetivo.substring(q + 1)));
+        } catch (IllegalArgumentException e) { // también NumberFormatException
+            int estado = ruta.endsWith(".png") ? 400 : 404;
+            responder(out, estado, estado == 400 ? "Bad Request" : "Not Found", texto(e.getMessage()), head, seguir);
+            return true;
+        }
+        String etag = p.etag();
+        if (coincide(cabeceras.get("If-None-Match"), etag)) {
+            noModificadas.increment();
+            responder(out, 304, "Not Modified", null, true, seguir, "ETag", etag, "Cache-Control", CACHE_CONTROL);
+            return true;
+        }
+        // Se responde antes de parar al vigilante: escribir no choca con su lectura
+        Vigilante vigilante = new Vigilante(s, in);
+        try {
+            byte[] png;
+            try {
+                png = tesela(p, vigilante);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Saturado) {
+                    responder(out, 503, "Service Unavailable", texto("Servidor saturado"), head, seguir, "Retry-After", "1");
+                } else {
+                    responder(out, 500, "Internal Server Error", texto(String.valueOf(e.getCause())), head, false);
+                }
+                return true;
+            }
+            if (png == null) return false;
+            responder(out, 200, "OK", new Cuerpo("image/png", png), head, seguir,
+                    "ETag", etag, "Cache-Control", CACHE_CONTROL, "Access-Control-Allow-Origin", "*");
+            return true;
+        } finally {
+            vigilante.terminar();
+        }
+    }
+
+    /** If-None-Match: lista de etiquetas (comparación débil) o *. */
+    static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String e : ifNoneMatch.split(",")) {
+            String t = e.trim();
+            if (t.startsWith("W/")) t = t.substring(2);
+            if (t.equals("*") || t.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    static Map<String, String> consulta(String q) {
+        Map<String, String> m = new HashMap<>();
+        for (String par : q.split("&")) {
+            if (par.isEmpty()) continue;
+            int i = par.indexOf('=');
+            String k = URLDecoder.decode(i < 0 ? par : par.substring(0, i), StandardCharsets.UTF_8);
+            m.put(k, i < 0 ? "" : URLDecoder.decode(par.substring(i + 1), StandardCharsets.UTF_8));
+        }
+        return m;
+    }
+
+    /** Línea hasta CRLF (o LF) en ISO-8859-1; null al final del flujo. */
+    private static String leerLinea(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') {
+                int n = sb.length();
+                if (n > 0 && sb.charAt(n - 1) == '\r') sb.setLength(n - 1);
+                return sb.toString();
+            }
+            if (sb.length() >= MAX_LINEA) throw new IOException("Línea demasiado larga");
+            sb.append((char) b);
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    private static final class Cuerpo {
+        final String tipo;
+        final byte[] datos;
+        Cuerpo(String tipo, byte[] datos) { this.tipo = tipo; this.datos = datos; }
+    }
+
+    private static Cuerpo texto(String s) { return new Cuerpo("text/plain; charset=utf-8", (s + "\n").getBytes(StandardCharsets.UTF_8)); }
+    private static Cuerpo html(String s) { return new Cuerpo("text/html; charset=utf-8", s.getBytes(StandardCharsets.UTF_8)); }
+
+    /** Escribe la respuesta; extra son pares nombre, valor de cabeceras. */
+    private static void responder(OutputStream out, int estado, String razon, Cuerpo cuerpo, boolean sinCuerpo,
+                                  boolean seguir, String... extra) throws IOException {
+        StringBuilder sb = new StringBuilder("HTTP/1.1 ").append(estado).append(' ').append(razon).append("\r\n");
+        if (cuerpo != null) {
+            sb.append("Content-Type: ").append(cuerpo.tipo).append("\r\n");
+            sb.append("Content-Length: ").append(cuerpo.datos.length).append("\r\n");
+        } else if (estado != 304) {
+            sb.append("Content-Length: 0\r\n");
+        }
+        for (int i = 0; i + 1 < extra.length; i += 2) sb.append(extra[i]).append(": ").append(extra[i + 1]).append("\r\n");
+        if (!seguir) sb.append("Connection: close\r\n");
+        sb.append("\r\n");
+        out.write(sb.toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (cuerpo != null && !sinCuerpo) out.write(cuerpo.datos);
+        out.flush();
+    }
+
+    /**
+     * Vigila la conexión mientras la petición espera su tesela: lee con
+     * plazo sin consumir nada (mark/reset). Fin de flujo o error = el
+     * cliente se fue; un byte = ya envía la siguiente petición, así que
+     * sigue ahí y se deja de vigilar.
+     */
+    private static final class Vigilante {
+        final CompletableFuture<Void> cerrada = new CompletableFuture<>();
+        private final Socket s;
+        private final BufferedInputStream in;
+        private volatile boolean parar;
+        private Thread hilo;
+
+        Vigilante(Socket s, BufferedInputStream in) { this.s = s; this.in = in; }
+
+        void iniciar() {
+            hilo = Thread.ofVirtual().start(() -> {
+                try {
+                    s.setSoTimeout(ESPERA_CLIENTE_MS);
+                    while (!parar) {
+                        in.mark(1);
+                        try {
+                            if (in.read() < 0) { cerrada.complete(null); return; }
+                            in.reset();
+                            return;
+                        } catch (SocketTimeoutException e) {
+                            // sigue conectado y callado
+                        }
+                    }
+                } catch (IOException e) {
+                    cerrada.complete(null);
+                }
+            });
+        }
+
+        /** Para la vigilancia antes de volver a leer de la conexión (hasta ESPERA_CLIENTE_MS si el cliente calla). */
+        void terminar() throws InterruptedException {
+            parar = true;
+            if (hilo != null) hilo.join();
+        }
+    }
+
+    /* ---------- Estado y página ---------- */
+
+    private String estado() {
+        long c = calculos.sum();
+        return String.format(Locale.ROOT,
+                "peticiones %d%nconexiones %d%naciertos %d%ncalculos %d (%.1f ms de media)%nunidas %d%n"
+                        + "canceladas %d%nno_modificadas %d%nrechazadas %d%nen_curso %d%n"
+                        + "cache %d aciertos · %d fallos · %d aciertos de disco · %d teselas%npng %d (%.1f MB)",
+                peticiones.sum(), conexiones.sum(), aciertos.sum(), c, c > 0 ? nanosCalculo.get() / 1e6 / c : 0.0,
+                unidas.sum(), canceladas.sum(), noModificadas.sum(), rechazadas.sum(), enCursoAhora(),
+                cache.getAciertos(), cache.getFallos(), cache.getAciertosDisco(), cache.getTeselas(),
+                pngsAhora(), bytesPngAhora() / 1e6);
+    }
+
+    private int enCursoAhora() {
+        synchronized (enCurso) { return enCurso.size(); }
+    }
+
+    private int pngsAhora() {
+        synchronized (pngs) { return pngs.size(); }
+    }
+
+    private long bytesPngAhora() {
+        synchronized (pngs) { return bytesPng; }
+    }
+
+    // Visor de mapa (Leaflet desde su CDN); la consulta de la página pasa a las teselas
+    private static final String PAGINA = "<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Teselas</title>\n"
+            + "<link rel=\"stylesheet\" href=\"https://unpkg.com/leaflet@1.9.4/dist/leaflet.css\">\n"
+            + "<script src=\"https://unpkg.com/leaflet@1.9.4/dist/leaflet.js\"></script>\n"
+            + "<style>html,body,#mapa{height:100%;margin:0}</style></head>\n"
+            + "<body><div id=\"mapa\"></div><script>\n"
+            + "const q = new URLSearchParams(location.search), f = q.get('fractal') || 'mandelbrot';\n"
+            + "q.delete('fractal');\n"
+            + "const mapa = L.map('mapa', {crs: L.CRS.Simple, minZoom: 0, maxZoom: 40}).setView([-128, 128], 2);\n"
+            + "L.tileLayer('/' + f + '/{z}/{x}/{y}.png?' + q, {tileSize: 256, noWrap: true, maxZoom: 40,\n"
+            + "  bounds: [[-256, 0], [0, 256]]}).addTo(mapa);\n"
+            + "</script></body></html>\n";
+
+    /* ---------- Generador de carga ---------- */
+
+    /**
+     * Cliente de prueba: --concurrencia hilos virtuales piden en total
+     * --peticiones teselas al azar del nivel --zoom (con pocas teselas por
+     * nivel coinciden y se unen en el servidor). Con --revalidar reenvía el
+     * ETag ya visto; con --abandonar, esa fracción de peticiones se corta a
+     * los --plazo ms. Informa de latencias (p50/p90/p99), ritmo y el
+     * /estado del servidor.
+     */
+    static final class Carga {
+        private Carga() { }
+
+        static void ejecutar(String[] args) throws Exception {
+            String url = "http://127.0.0.1:8080", ruta = "mandelbrot", consulta = "";
+            int zoom = 3, concurrencia = 32, total = 2000, plazoMs = 50;
+            boolean revalidar = false;
+            double abandonar = 0;
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--revalidar")) { revalidar = true; continue; }
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Falta el valor de " + args[i]);
+                String v = args[++i];
+                switch (args[i - 1]) {
+                    case "--url": url = v.endsWith("/") ? v.substring(0, v.length() - 1) : v; break;
+                    case "--ruta": ruta = v; break;
+                    case "--consulta": consulta = v; break;
+                    case "--zoom": zoom = Integer.parseInt(v); break;
+                    case "--concurrencia": concurrencia = Integer.parseInt(v); break;
+                    case "--peticiones": total = Integer.parseInt(v); break;
+                    case "--abandonar": abandonar = Double.parseDouble(v); break;
+                    case "--plazo": plazoMs = Integer.parseInt(v); break;
+                    default: throw new IllegalArgumentException("Opción desconocida: " + args[i - 1]);
+                }
+            }
+            if (zoom < 0 || zoom > 30) throw new IllegalArgumentException("--zoom fuera de [0, 30]");
+
+            HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5)).executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+            Map<String, String> etags = new ConcurrentHashMap<>();
+            long[] latencias = new long[total];
+            Map<Integer, LongAdder> estados = new ConcurrentHashMap<>();
+            LongAdder bytes = new LongAdder(), abandonadas = new LongAdder(), errores = new LongAdder();
+            AtomicInteger siguiente = new AtomicInteger(), hechas = new AtomicInteger();
+            final String base = url + "/" + ruta + "/" + zoom + "/", sufijo = consulta.isEmpty() ? "" : "?" + consulta;
+            final long lado = 1L << zoom;
+            final boolean conEtag = revalidar;
+            final double fraccion = abandonar;
+            final int plazo = plazoMs, cuantas = total;
+
+            long t0 = System.nanoTime();
+            try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int h = 0; h < concurrencia; h++) {
+                    hilos.submit(() -> {
+                        ThreadLocalRandom r = ThreadLocalRandom.current();
+                        while (siguiente.getAndIncrement() < cuantas) {
+                            String u = base + r.nextLong(lado) + "/" + r.nextLong(lado) + ".png" + sufijo;
+                            HttpRequest.Builder b = HttpRequest.newBuilder(URI.create(u)).GET();
+                            String etag = conEtag ? etags.get(u) : null;
+                            if (etag != null) b.header("If-None-Match", etag);
+                            boolean corta = r.nextDouble() < fraccion;
+                            long ti = System.nanoTime();
+                            CompletableFuture<HttpResponse<byte[]>> f =
+                                    cliente.sendAsync(b.build(), HttpResponse.BodyHandlers.ofByteArray());
+                            try {
+                                HttpResponse<byte[]> resp = corta ? f.get(plazo, TimeUnit.MILLISECONDS) : f.get();
+                                latencias[hechas.getAndIncrement()] = System.nanoTime() - ti;
+                                estados.computeIfAbsent(resp.statusCode(), k -> new LongAdder()).increment();
+                                bytes.add(resp.body().length);
+                                resp.headers().firstValue("ETag").ifPresent(e -> etags.put(u, e));
+                            } catch (TimeoutException e) {
+                                f.cancel(true); // cierra la conexión: el servidor lo ve
+                                abandonadas.increment();
+                            } catch (ExecutionException e) {
+                                errores.increment();
+                            }
+                        }
+                        return null;
+                    });
+                }
+            }
+            double segundos = (System.nanoTime() - t0) / 1e9;
+
+            int n = hechas.get();
+            long[] l = Arrays.copyOf(latencias, n);
+            Arrays.sort(l);
+            System.out.printf(Locale.ROOT, "%d peticiones en %.2f s con %d clientes: %.1f pet/s, %.2f MB/s%n",
+                    total, segundos, concurrencia, n / segundos, bytes.sum() / 1e6 / segundos);
+            if (n > 0) {
+                System.out.printf(Locale.ROOT, "latencia ms: p50 %.2f · p90 %.2f · p99 %.2f · máx %.2f%n",
+                        percentil(l, 0.50), percentil(l, 0.90), percentil(l, 0.99), l[n - 1] / 1e6);
+            }
+            System.out.println("estados " + new TreeMap<>(estados) + " · abandonadas " + abandonadas.sum()
+                    + " · errores " + errores.sum());
+            try {
+                Thread.sleep(200); // que el servidor anote las cancelaciones
+                HttpResponse<String> estado = cliente.send(HttpRequest.newBuilder(URI.create(url + "/estado")).build(),
+                        HttpResponse.BodyHandlers.ofString());
+                System.out.print("servidor:\n" + estado.body());
+            } catch (IOException e) {
+                System.out.println("servidor: sin /estado (" + e.getMessage() + ")");
+            }
+        }
+
+        private static double percentil(long[] ordenado, double p) {
+            int i = (int) Math.ceil(p * ordenado.length) - 1;
+            return ordenado[Math.max(0, Math.min(ordenado.length - 1, i))] / 1e6;
+        }
+    }
+}
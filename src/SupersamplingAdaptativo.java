@@ -0,0 +1,211 @@
+import java.util.function.BooleanSupplier;
+
+/**
+ * Antialiasing adaptativo: solo se supermuestrean los píxeles cuyo color (o
+ * nº de iteraciones) difiere mucho del de algún vecino; las zonas suaves y
+ * el interior se quedan con su única muestra del centro.
+ *
+ * Cada píxel tiene una puntuación: la mayor distancia de color (|dR| + |dG|
+ * + |dB|, 0..765) con sus 8 vecinos; un vecino al otro lado del borde del
+ * conjunto (uno escapa y el otro no) cuenta como 765, y uno a más de
+ * umbralIteraciones iteraciones cuenta al menos como umbralColor. Se
+ * supermuestrean los de puntuación >= umbralColor, de mayor a menor, hasta
+ * gastar el presupuesto: presupuesto·ancho·alto muestras extra (1.0 = como
+ * mucho otro fotograma).
+ *
+ * El color final es la media de los colores de las muestras del patrón y
+ * de la del centro. Las muestras se guardan como valores (Resultado), así
+ * que un cambio de paleta vuelve a promediar sin iterar.
+ */
+public final class SupersamplingAdaptativo {
+
+    /** Posiciones de las muestras dentro del píxel, en [0, 1)². */
+    public enum Patron {
+        /** Rejilla rotada de 4 (RGSS): buena en bordes casi horizontales o verticales. */
+        RGSS_4("RGSS 4", new double[]{0.375, 0.875, 0.125, 0.625}, new double[]{0.125, 0.375, 0.625, 0.875}),
+        REJILLA_3X3("rejilla 3×3", rejilla(3, true), rejilla(3, false)),
+        REJILLA_4X4("rejilla 4×4", rejilla(4, true), rejilla(4, false));
+
+        private final String nombre;
+        final double[] dx, dy;
+
+        Patron(String nombre, double[] dx, double[] dy) { this.nombre = nombre; this.dx = dx; this.dy = dy; }
+
+        public int muestras() { return dx.length; }
+
+        @Override public String toString() { return nombre; }
+
+        private static double[] rejilla(int n, boolean x) {
+            double[] d = new double[n * n];
+            for (int j = 0; j < n; j++)
+                for (int i = 0; i < n; i++) d[j * n + i] = ((x ? i : j) + 0.5) / n;
+            return d;
+        }
+    }
+
+    /** Valor en un punto de la imagen en coordenadas de píxel continuas (el centro de (px, py) es px + 0.5, py + 0.5). */
+    @FunctionalInterface
+    public interface Muestra {
+        float valor(double x, double y);
+    }
+
+    private static final int DISTANCIA_MAXIMA = 765;
+
+    private final Patron patron;
+    private final double presupuesto;
+    private final int umbralColor;
+    private final float umbralIteraciones;
+
+    public SupersamplingAdaptativo(Patron patron, double presupuesto, int umbralColor, float umbralIteraciones) {
+        this.patron = patron;
+        this.presupuesto = presupuesto;
+        this.umbralColor = Math.max(1, Math.min(DISTANCIA_MAXIMA, umbralColor));
+        this.umbralIteraciones = umbralIteraciones;
+    }
+
+    /**
+     * Con el patrón dado y el presupuesto y los umbrales de las propiedades
+     * -Dfractal.aa.presupuesto (1.0), -Dfractal.aa.umbralColor (48) y
+     * -Dfractal.aa.umbralIteraciones (32).
+     */
+    public static SupersamplingAdaptativo porDefecto(Patron patron) {
+        return new SupersamplingAdaptativo(patron,
+                Double.parseDouble(System.getProperty("fractal.aa.presupuesto", "1.0")),
+                Integer.getInteger("fractal.aa.umbralColor", 48),
+                Float.parseFloat(System.getProperty("fractal.aa.umbralIteraciones", "32")));
+    }
+
+    public Patron getPatron() { return patron; }
+
+    /** El siguiente patrón con la misma configuración; null tras el último (desactivado). */
+    public static SupersamplingAdaptativo siguiente(SupersamplingAdaptativo actual) {
+        if (actual == null) return porDefecto(Patron.RGSS_4);
+        Patron[] p = Patron.values();
+        int k = actual.patron.ordinal() + 1;
+        return k < p.length
+                ? new SupersamplingAdaptativo(p[k], actual.presupuesto, actual.umbralColor, actual.umbralIteraciones)
+                : null;
+    }
+
+    /**
+     * Detecta los bordes de argb (recién coloreado desde valores), calcula
+     * las muestras extra con f y deja en argb los colores promediados.
+     * null si se cancela (argb queda sin tocar).
+     */
+    public Resultado suavizar(int[] argb, float[] valores, int ancho, int alto, Muestra f,
+                              PaletaLUT paleta, int maxIteraciones, RenderizadorParalelo renderizador,
+                              BooleanSupplier cancelado) {
+        final int[] puntuacion = new int[ancho * alto];
+        final int umbralC = umbralColor;
+        final float umbralI = umbralIteraciones;
+        if (!renderizador.recorrer(ancho, alto, (px, py, i) -> {
+            int a = argb[i];
+            float v = valores[i];
+            boolean interior = v != v;
+            int p = 0;
+            for (int dy = -1; dy <= 1; dy++) {
+                int qy = py + dy;
+                if (qy < 0 || qy >= alto) continue;
+                for (int dx = -1; dx <= 1; dx++) {
+                    int qx = px + dx;
+                    if ((dx | dy) == 0 || qx < 0 || qx >= ancho) continue;
+                    int j = qy * ancho + qx;
+                    float u = valores[j];
+                    int d;
+                    if (interior != (u != u)) d = DISTANCIA_MAXIMA;
+                    else {
+                        d = distancia(a, argb[j]);
+                        if (Math.abs(v - u) >= umbralI && d < umbralC) d = umbralC; // NaN - NaN no entra
+                    }
+                    if (d > p) p = d;
+                }
+            }
+            puntuacion[i] = p;
+        }, cancelado)) return null;
+
+        // Corte: la puntuación en la que se acaba el presupuesto. Los de más
+        // entran todos; de los empatados en el corte, una parte repartida por
+        // la imagen (si no, un borde largo de 765 lo gastaría de arriba abajo).
+        int[] histograma = new int[DISTANCIA_MAXIMA + 1];
+        for (int p : puntuacion) histograma[p]++;
+        final int porPixel = patron.muestras();
+        long maxPixeles = (long) (presupuesto * ancho * alto / porPixel);
+        int corte = umbralC;
+        long porEncima = 0, candidatos = 0;
+        for (int p = DISTANCIA_MAXIMA; p >= umbralC; p--) candidatos += histograma[p];
+        for (int p = DISTANCIA_MAXIMA; p > umbralC; p--) {
+            if (porEncima + histograma[p] > maxPixeles) { corte = p; break; }
+            porEncima += histograma[p];
+        }
+        long empatados = histograma[corte], enCorte = Math.min(empatados, maxPixeles - porEncima);
+        final int[] indices = new int[(int) (porEncima + enCorte)];
+        int n = 0;
+        long visto = 0;
+        for (int i = 0; i < puntuacion.length; i++) {
+            int p = puntuacion[i];
+            if (p > corte) indices[n++] = i;
+            else if (p == corte && p >= umbralC) {
+                if ((visto + 1) * enCorte / empatados > visto * enCorte / empatados) indices[n++] = i;
+                visto++;
+            }
+        }
+
+        // Muestras extra, en bloques robables
+        final float[] muestras = new float[indices.length * porPixel];
+        final double[] ox = patron.dx, oy = patron.dy;
+        final int bloque = 256;
+        if (!renderizador.paraCada((indices.length + bloque - 1) / bloque, b -> {
+            for (int k = b * bloque, fin = Math.min(indices.length, k + bloque); k < fin; k++) {
+                if (cancelado.getAsBoolean()) return;
+                int px = indices[k] % ancho, py = indices[k] / ancho;
+                for (int s = 0; s < porPixel; s++) muestras[k * porPixel + s] = f.valor(px + ox[s], py + oy[s]);
+            }
+        }, cancelado)) return null;
+
+        Resultado r = new Resultado(indices, muestras, porPixel, (int) candidatos, enCorte < empatados ? corte : umbralC);
+        r.aplicar(argb, paleta, maxIteraciones);
+        return r;
+    }
+
+    private static int distancia(int a, int b) {
+        return Math.abs(((a >> 16) & 0xFF) - ((b >> 16) & 0xFF))
+             + Math.abs(((a >> 8) & 0xFF) - ((b >> 8) & 0xFF))
+             + Math.abs((a & 0xFF) - (b & 0xFF));
+    }
+
+    /** Píxeles supermuestreados y sus muestras (valores, no colores). */
+    public static final class Resultado {
+        private final int[] indices;
+        private final float[] muestras;
+        private final int porPixel, candidatos, corte;
+
+        Resultado(int[] indices, float[] muestras, int porPixel, int candidatos, int corte) {
+            this.indices = indices; this.muestras = muestras; this.porPixel = porPixel;
+            this.candidatos = candidatos; this.corte = corte;
+        }
+
+        /**
+         * Promedia en argb el color del centro con los de las muestras. argb
+         * debe venir recién coloreado (sin promediar) con la misma paleta.
+         */
+        public void aplicar(int[] argb, PaletaLUT paleta, int maxIteraciones) {
+            final int n = porPixel + 1;
+            for (int k = 0; k < indices.length; k++) {
+                int c = argb[indices[k]];
+                int r = (c >> 16) & 0xFF, g = (c >> 8) & 0xFF, b = c & 0xFF;
+                for (int s = 0; s < porPixel; s++) {
+                    int m = paleta.color(muestras[k * porPixel + s], maxIteraciones);
+                    r += (m >> 16) & 0xFF; g += (m >> 8) & 0xFF; b += m & 0xFF;
+                }
+                argb[indices[k]] = 0xFF000000 | ((r + n / 2) / n << 16) | ((g + n / 2) / n << 8) | ((b + n / 2) / n);
+            }
+        }
+
+        public int getPixeles() { return indices.length; }
+        public int getMuestras() { return muestras.length; }
+        /** Píxeles que superaban el umbral (antes de recortar por presupuesto). */
+        public int getCandidatos() { return candidatos; }
+        /** Puntuación mínima aplicada (umbralColor, o más si el presupuesto no llegaba). */
+        public int getCorte() { return corte; }
+    }
+}